@@ -15,14 +15,18 @@
 package org.opengroup.osdu.search.provider.aws.cache;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.annotation.PostConstruct;
 import org.opengroup.osdu.core.aws.cache.DummyCache;
 import org.opengroup.osdu.core.aws.v2.ssm.K8sLocalParameterProvider;
 import org.opengroup.osdu.core.aws.v2.ssm.K8sParameterNotFoundException;
 import org.opengroup.osdu.core.common.cache.ICache;
 import org.opengroup.osdu.core.common.cache.RedisCache;
 import org.opengroup.osdu.core.common.cache.VmCache;
+import org.opengroup.osdu.search.cache.EncodedCursorCache;
 import org.opengroup.osdu.search.cache.SearchAfterSettingsCache;
 import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -39,7 +43,11 @@ public class SearchAfterSettingsCacheImpl implements SearchAfterSettingsCache {
     @Value("${aws.elasticache.cluster.cursor.expiration}")
     String indexCacheExpiration;
 
+    @Autowired
+    SearchConfigurationProperties searchConfigurationProperties;
+
     private ICache<String, SearchAfterSettings> cache;
+    private ICache<String, String> encodedCache;
     private Boolean local;
 
     public void close() throws Exception {
@@ -64,10 +72,22 @@ public class SearchAfterSettingsCacheImpl implements SearchAfterSettingsCache {
             Map<String, String> credential = provider.getCredentialsAsMap("CACHE_CLUSTER_KEY");
             String password = (credential == null) ? redisSearchKey : credential.get("token");
             cache = new RedisCache<>(host, port, password, expTimeSeconds, String.class, SearchAfterSettings.class);
+            encodedCache = new RedisCache<>(host, port, password, expTimeSeconds, String.class, String.class);
         }
         local = cache instanceof AutoCloseable;
     }
 
+    /**
+     * Reads and writes the binary form of the settings next to the JSON entries once the
+     * configuration is injected, only shared Redis caches need it.
+     */
+    @PostConstruct
+    void init() {
+        if (encodedCache != null) {
+            cache = EncodedCursorCache.forSearchAfterSettings(encodedCache, cache, searchConfigurationProperties);
+        }
+    }
+
     @Override
     public void put(String s, SearchAfterSettings o) {
         this.cache.put(s, o);
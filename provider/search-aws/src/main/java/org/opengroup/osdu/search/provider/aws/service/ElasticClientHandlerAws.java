@@ -16,7 +16,6 @@ package org.opengroup.osdu.search.provider.aws.service;
 
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
-import java.util.concurrent.TimeUnit;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
@@ -28,6 +27,7 @@ import org.apache.http.message.BasicHeader;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
 import org.opengroup.osdu.search.util.ElasticClientHandler;
+import org.opengroup.osdu.search.util.ElasticNodeBalancer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
@@ -39,21 +39,22 @@ public class ElasticClientHandlerAws extends ElasticClientHandler {
 
     private static final int REST_CLIENT_CONNECT_TIMEOUT = 60000;
     private static final int REST_CLIENT_SOCKET_TIMEOUT = 60000;
-    private static final int REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS = 60;
 
     @Value("${aws.es.certificate.disableTrust:false}")
     // @Value("#{new Boolean('${aws.es.certificate.disableTrust:false}')}")
     private Boolean disableSslCertificateTrust;
 
     @Override
-    public RestClientBuilder createClientBuilder(String host, String basicAuthenticationHeaderVal, int port,
-            String protocolScheme, String tls) {
+    public RestClientBuilder createClientBuilder(String host, int port, String protocolScheme, String tls,
+            String partitionId, ElasticNodeBalancer nodeBalancer) {
 
-        RestClientBuilder builder = RestClient.builder(new HttpHost(host, port, protocolScheme));
+        HttpHost[] hosts = parseHosts(host, port, protocolScheme);
+        RestClientBuilder builder = RestClient.builder(hosts);
         builder.setRequestConfigCallback(requestConfigBuilder -> requestConfigBuilder
         .setConnectTimeout(REST_CLIENT_CONNECT_TIMEOUT)
-        .setSocketTimeout(REST_CLIENT_SOCKET_TIMEOUT));
-        builder.setHttpClientConfigCallback(httpClientCallback -> httpClientCallback.setConnectionTimeToLive(REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS, TimeUnit.SECONDS));    
+        .setSocketTimeout(REST_CLIENT_SOCKET_TIMEOUT)
+        .setConnectionRequestTimeout(getConnectionPool(partitionId).getConnectionRequestTimeout()));
+        builder.setHttpClientConfigCallback(httpClientCallback -> configureHttpClient(httpClientCallback, partitionId, null, null, nodeBalancer));
 
         Boolean isLocal = isLocalHost(host);
         if (isLocal || disableSslCertificateTrust) {
@@ -62,11 +63,10 @@ public class ElasticClientHandlerAws extends ElasticClientHandler {
             try {
                 sslContext = SSLContext.getInstance("TLS");
                 sslContext.init(null, new TrustManager[] { UnsafeX509ExtendedTrustManager.INSTANCE }, null);
-                builder.setHttpClientConfigCallback(httpClientBuilder -> httpClientBuilder.setSSLContext(sslContext)
+                builder.setHttpClientConfigCallback(httpClientBuilder -> configureHttpClient(httpClientBuilder, partitionId, sslContext,
                         // Suppressed: java:S4830 - Hostname verification disabled for internal EKS cluster connections
                         // This is controlled by aws.es.certificate.disableTrust configuration property
-                        .setSSLHostnameVerifier((s, session) -> true) // NOSONAR
-                        .setConnectionTimeToLive(REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS, TimeUnit.SECONDS));
+                        (s, session) -> true, nodeBalancer)); // NOSONAR
             } catch (NoSuchAlgorithmException e) {
                 log.error("No such algorithm", e);
             } catch (KeyManagementException e) {
@@ -78,10 +78,9 @@ public class ElasticClientHandlerAws extends ElasticClientHandler {
                 new BasicHeader("client.transport.nodes_sampler_interval", "30s"),
                 new BasicHeader("client.transport.ping_timeout", "30s"),
                 new BasicHeader("client.transport.sniff", "false"),
-                new BasicHeader("request.headers.X-Found-Cluster", host),
-                new BasicHeader("cluster.name", host),
+                new BasicHeader("request.headers.X-Found-Cluster", hosts[0].getHostName()),
+                new BasicHeader("cluster.name", hosts[0].getHostName()),
                 new BasicHeader("xpack.security.transport.ssl.enabled", tls),
-                new BasicHeader("Authorization", basicAuthenticationHeaderVal),
         };
         builder.setDefaultHeaders(defaultHeaders);
         return builder;
@@ -34,12 +34,12 @@ import org.apache.http.HttpHost;
 import org.apache.http.message.BasicHeader;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
+import org.opengroup.osdu.search.util.ElasticNodeBalancer;
 
 @RunWith(MockitoJUnitRunner.class)
 public class ElasticClientHandlerAwsTest {
 
     private static final String host = "localhost";
-    private static final String basicAuthenticationHeaderVal = "basicAuthenticationHeaderVal";
     private static final int port = 1234;
     private static final String protocolScheme = "protocolScheme";
     private static final String tls = "tls";
@@ -70,15 +70,14 @@ public class ElasticClientHandlerAwsTest {
                 new BasicHeader("request.headers.X-Found-Cluster", host),
                 new BasicHeader("cluster.name", host),
                 new BasicHeader("xpack.security.transport.ssl.enabled", tls),
-                new BasicHeader("Authorization", basicAuthenticationHeaderVal),
         };
         expected.setDefaultHeaders(defaultHeaders);
 
 
        ElasticClientHandlerAws handler = new ElasticClientHandlerAws();
-       RestClientBuilder builder = handler.createClientBuilder(host, basicAuthenticationHeaderVal, port, protocolScheme, tls);
+       RestClientBuilder builder = handler.createClientBuilder(host, port, protocolScheme, tls, "partition", new ElasticNodeBalancer(null));
 
-       assertTrue(new ReflectionEquals(expected, "defaultHeaders", "nodes", "httpClientConfigCallback", "requestConfigCallback").matches(builder));
+       assertTrue(new ReflectionEquals(expected, "defaultHeaders", "nodes", "nodeSelector", "httpClientConfigCallback", "requestConfigCallback").matches(builder));
     }
 
 }
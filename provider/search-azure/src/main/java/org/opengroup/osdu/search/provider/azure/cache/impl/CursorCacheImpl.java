@@ -14,11 +14,15 @@
 
 package org.opengroup.osdu.search.provider.azure.cache.impl;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 
 import org.opengroup.osdu.core.common.cache.ICache;
 import org.opengroup.osdu.core.common.model.search.CursorSettings;
 import org.opengroup.osdu.search.cache.CursorCache;
+import org.opengroup.osdu.search.cache.EncodedCursorCache;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -27,6 +31,17 @@ public class CursorCacheImpl implements CursorCache {
   @Resource(name = "cursorCache")
   private ICache<String, CursorSettings> cache;
 
+  @Resource(name = "encodedCursorCache")
+  private ICache<String, String> encodedCache;
+
+  @Autowired
+  private SearchConfigurationProperties searchConfigurationProperties;
+
+  @PostConstruct
+  void init() {
+    this.cache = EncodedCursorCache.forCursorSettings(encodedCache, cache, searchConfigurationProperties);
+  }
+
   @Override
   public void put(String s, CursorSettings o) {
     this.cache.put(s, o);
@@ -14,16 +14,29 @@
 
 package org.opengroup.osdu.search.provider.azure.cache.impl;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.search.cache.EncodedCursorCache;
 import org.opengroup.osdu.search.cache.SearchAfterSettingsCache;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
 import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class SearchAfterSettingsCacheImpl implements SearchAfterSettingsCache {
     @Resource(name = "searchAfterSettingsCache")
     private ICache<String, SearchAfterSettings> cache;
+    @Resource(name = "encodedCursorCache")
+    private ICache<String, String> encodedCache;
+    @Autowired
+    private SearchConfigurationProperties searchConfigurationProperties;
+
+    @PostConstruct
+    void init() {
+        this.cache = EncodedCursorCache.forSearchAfterSettings(encodedCache, cache, searchConfigurationProperties);
+    }
 
     @Override
     public void put(String s, SearchAfterSettings o) {
@@ -71,6 +71,11 @@ public class RedisConfig {
         return createCache(SearchAfterSettings.class, cursorRedisTtl);
     }
 
+    @Bean
+    public RedisAzureCache<String, String> encodedCursorCache() {
+        return createCache(String.class, cursorRedisTtl);
+    }
+
     @Bean
     public RedisAzureCache<String, ClusterSettings> clusterCache() {
         return createCache(ClusterSettings.class, expiration);
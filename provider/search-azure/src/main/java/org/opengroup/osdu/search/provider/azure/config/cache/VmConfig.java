@@ -45,4 +45,10 @@ public class VmConfig {
     return new VmCache<>(expiration * 60, maxSize);
   }
 
+  @Bean
+  public VmCache<String, String> encodedCursorCache(@Value("${elastic.cursor.expiration}") final int expiration,
+      @Value("${elastic.cache.maxSize}") final int maxSize) {
+    return new VmCache<>(expiration * 60, maxSize);
+  }
+
 }
@@ -41,6 +41,7 @@ public class RedisConfigTest {
         assertNotNull(sut.groupCache());
         assertNotNull(sut.cursorCache());
         assertNotNull(sut.searchAfterSettingsCache());
+        assertNotNull(sut.encodedCursorCache());
         assertNotNull(sut.clusterCache());
         assertNotNull(sut.aliasCache());
     }
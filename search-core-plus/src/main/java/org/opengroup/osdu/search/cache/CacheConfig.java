@@ -22,7 +22,6 @@ import lombok.RequiredArgsConstructor;
 import org.opengroup.osdu.core.cache.RedisCacheBuilder;
 import org.opengroup.osdu.core.common.cache.ICache;
 import org.opengroup.osdu.core.common.cache.RedisCache;
-import org.opengroup.osdu.core.common.cache.VmCache;
 import org.opengroup.osdu.core.common.model.entitlements.Groups;
 import org.opengroup.osdu.core.common.model.search.ClusterSettings;
 import org.opengroup.osdu.core.common.model.search.CursorSettings;
@@ -42,6 +41,7 @@ public class CacheConfig {
   private final RedisCacheBuilder<String, SearchAfterSettings> searchAfterSettingsCacheBuilderBuilder;
   private final RedisCacheBuilder<String, Groups> groupsRedisCacheBuilder;
   private final RedisCacheBuilder<String, Map> fieldTypeMappingCacheBuilder;
+  private final RedisCacheBuilder<String, String> encodedCursorCacheBuilder;
 
   @Bean
   public ICache<String, Groups> groupCache(CorePlusSearchConfigurationProperties appProperties) {
@@ -101,7 +101,8 @@ public class CacheConfig {
             gcpAppServiceConfig.getRedisSearchWithSsl(),
             String.class,
             CursorSettings.class);
-    return new CursorCacheImpl(stringCursorSettingsCache);
+    return new CursorCacheImpl(EncodedCursorCache.forCursorSettings(
+        encodedCursorCache(gcpAppServiceConfig), stringCursorSettingsCache, gcpAppServiceConfig));
   }
 
   @Bean
@@ -115,11 +116,23 @@ public class CacheConfig {
                     gcpAppServiceConfig.getRedisSearchWithSsl(),
                     String.class,
                     SearchAfterSettings.class);
-    return new SearchAfterSettingsCacheImpl(stringSearchAfterSettingsCache);
+    return new SearchAfterSettingsCacheImpl(EncodedCursorCache.forSearchAfterSettings(
+            encodedCursorCache(gcpAppServiceConfig), stringSearchAfterSettingsCache, gcpAppServiceConfig));
+  }
+
+  private RedisCache<String, String> encodedCursorCache(CorePlusSearchConfigurationProperties gcpAppServiceConfig) {
+    return encodedCursorCacheBuilder.buildRedisCache(
+        gcpAppServiceConfig.getRedisSearchHost(),
+        Integer.parseInt(gcpAppServiceConfig.getRedisSearchPort()),
+        gcpAppServiceConfig.getRedisSearchPassword(),
+        gcpAppServiceConfig.getRedisSearchExpiration(),
+        gcpAppServiceConfig.getRedisSearchWithSsl(),
+        String.class,
+        String.class);
   }
 
   @Bean
   public ICache<String, PartitionInfo> partitionInfoCache() {
-    return new VmCache<>(600, 2000);
+    return new LocalCache<>(600, 2000);
   }
 }
@@ -18,13 +18,13 @@
 package org.opengroup.osdu.search.cache;
 
 import lombok.RequiredArgsConstructor;
-import org.opengroup.osdu.core.common.cache.RedisCache;
+import org.opengroup.osdu.core.common.cache.ICache;
 import org.opengroup.osdu.core.common.model.search.CursorSettings;
 
 @RequiredArgsConstructor
 public class CursorCacheImpl implements CursorCache {
 
-  private final RedisCache<String, CursorSettings> cache;
+  private final ICache<String, CursorSettings> cache;
 
   @Override
   public void put(String key, CursorSettings value) {
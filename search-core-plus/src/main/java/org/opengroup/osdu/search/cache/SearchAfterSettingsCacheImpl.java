@@ -15,12 +15,12 @@
 package org.opengroup.osdu.search.cache;
 
 import lombok.RequiredArgsConstructor;
-import org.opengroup.osdu.core.common.cache.RedisCache;
+import org.opengroup.osdu.core.common.cache.ICache;
 import org.opengroup.osdu.search.model.SearchAfterSettings;
 
 @RequiredArgsConstructor
 public class SearchAfterSettingsCacheImpl implements SearchAfterSettingsCache {
-    private final RedisCache<String, SearchAfterSettings> cache;
+    private final ICache<String, SearchAfterSettings> cache;
 
     @Override
     public void put(String s, SearchAfterSettings o) {
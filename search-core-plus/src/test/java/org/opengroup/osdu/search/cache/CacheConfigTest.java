@@ -58,6 +58,9 @@ public class CacheConfigTest {
     @Mock
     RedisCacheBuilder<String, Map> fieldTypeMappingCacheBuilder;
 
+    @Mock
+    RedisCacheBuilder<String, String> encodedCursorCacheBuilder;
+
     CorePlusSearchConfigurationProperties props;
 
     CacheConfig cacheConfig;
@@ -83,7 +86,8 @@ public class CacheConfigTest {
                 cursorSettingsCacheBuilder,
                 searchAfterSettingsCacheBuilderBuilder,
                 groupsRedisCacheBuilder,
-                fieldTypeMappingCacheBuilder
+                fieldTypeMappingCacheBuilder,
+                encodedCursorCacheBuilder
         );
     }
 
@@ -142,6 +146,8 @@ public class CacheConfigTest {
 
         verify(cursorSettingsCacheBuilder).buildRedisCache(eq("s-host"), eq(2222), eq("s-pass"), eq(7200), eq(false),
                 eq(String.class), eq(CursorSettings.class));
+        verify(encodedCursorCacheBuilder).buildRedisCache(eq("s-host"), eq(2222), eq("s-pass"), eq(7200), eq(false),
+                eq(String.class), eq(String.class));
     }
 
     @Test
@@ -156,11 +162,13 @@ public class CacheConfigTest {
 
         verify(searchAfterSettingsCacheBuilderBuilder).buildRedisCache(eq("s-host"), eq(2222), eq("s-pass"), eq(7200), eq(false),
                 eq(String.class), eq(SearchAfterSettings.class));
+        verify(encodedCursorCacheBuilder).buildRedisCache(eq("s-host"), eq(2222), eq("s-pass"), eq(7200), eq(false),
+                eq(String.class), eq(String.class));
     }
 
     @Test
-    void partitionInfoCache_returnsVmCache() {
+    void partitionInfoCache_returnsLocalCache() {
         ICache<String, PartitionInfo> partCache = cacheConfig.partitionInfoCache();
-        assertNotNull(partCache);
+        assertInstanceOf(LocalCache.class, partCache);
     }
 }
@@ -0,0 +1,150 @@
+// Copyright 2017-2019, Schlumberger
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.search.api;
+
+import io.swagger.v3.oas.annotations.Hidden;
+import org.opengroup.osdu.core.common.SwaggerDoc;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.core.common.model.search.CursorQueryRequest;
+import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
+import org.opengroup.osdu.core.common.model.search.QueryRequest;
+import org.opengroup.osdu.core.common.model.search.QueryResponse;
+import org.opengroup.osdu.core.common.model.search.SearchServiceRole;
+import org.opengroup.osdu.search.config.AsyncQueryConfig;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
+import org.opengroup.osdu.search.provider.interfaces.IQueryService;
+import org.opengroup.osdu.search.provider.interfaces.IScrollQueryService;
+import org.opengroup.osdu.search.provider.interfaces.ISearchAfterQueryService;
+import org.opengroup.osdu.search.util.SearchAfterFeatureManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.annotation.RequestScope;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking variant of the query endpoints of {@link SearchApi}, enabled with
+ * {@code async.query.enabled=true}. Authorization, policy and query building still happen on the
+ * request thread; the servlet thread is released while Elasticsearch executes the search.
+ *
+ * <p>When the deadline expires or the container reports an error, e.g. the client disconnected,
+ * the pending search is cancelled, which aborts the Elasticsearch request.
+ *
+ * <p>The mappings declare {@code consumes}, which makes them more specific than the ones in
+ * {@link SearchApi}, so JSON requests are routed here while this controller is registered. Features
+ * without an async implementation, responses written to the output stream by passthrough or the
+ * result cache and partial search_after pages, are served on the request thread like in
+ * {@link SearchApi}.
+ */
+@RestController
+@RequestScope
+@RequestMapping("/")
+@Validated
+@Hidden
+@ConditionalOnProperty(prefix = "async.query", name = "enabled", havingValue = "true")
+public class AsyncSearchApi {
+
+    @Inject
+    private IQueryService queryService;
+    @Inject
+    private IScrollQueryService scrollQueryService;
+
+    @Inject
+    private ISearchAfterQueryService searchAfterQueryService;
+
+    @Inject
+    private SearchAfterFeatureManager searchAfterFeatureManager;
+
+    @Inject
+    private AsyncQueryConfig asyncQueryConfig;
+
+    @Inject
+    private RequestDeadline requestDeadline;
+
+    @Inject
+    private SearchConfigurationProperties searchConfigurationProperties;
+
+    @Inject
+    private HttpServletResponse response;
+
+    @PostMapping(value = "/query", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("@authorizationFilter.hasPermission('" + SearchServiceRole.ADMIN + "', '" + SearchServiceRole.USER + "')")
+    public DeferredResult<ResponseEntity<QueryResponse>> queryRecords(@NotNull(message = SwaggerDoc.REQUEST_VALIDATION_NOT_NULL_BODY) @RequestBody @Valid QueryRequest queryRequest) throws Exception {
+        if (searchConfigurationProperties.isQueryPassthroughEnabled() || searchConfigurationProperties.isQueryResultCacheEnabled()) {
+            // the complete body is written to the servlet output stream, a null result leaves it as is
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            queryService.queryIndex(queryRequest, response.getOutputStream());
+            return null;
+        }
+        return toDeferredResult(queryService.queryIndexAsync(queryRequest));
+    }
+
+    @PostMapping(value = "/query_with_cursor", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("@authorizationFilter.hasPermission('" + SearchServiceRole.ADMIN + "', '" + SearchServiceRole.USER + "')")
+    public DeferredResult<ResponseEntity<CursorQueryResponse>> queryWithCursor(
+        @NotNull(message = SwaggerDoc.REQUEST_VALIDATION_NOT_NULL_BODY) @RequestBody @Valid CursorQueryRequest queryRequest,
+        @RequestParam(value="search_after", required = false, defaultValue = "false") boolean search_after) throws Exception {
+        if(searchAfterFeatureManager.isEnabled() || search_after) {
+            if (searchConfigurationProperties.isSearchAfterPartialResultsEnabled()) {
+                // pages cut to the response size limit are only searched on the request thread
+                return toDeferredResult(CompletableFuture.completedFuture(searchAfterQueryService.queryIndex(queryRequest)));
+            }
+            return toDeferredResult(searchAfterQueryService.queryIndexAsync(queryRequest));
+        }
+        // scroll pagination has no async implementation, it is served on the request thread
+        return toDeferredResult(CompletableFuture.completedFuture(scrollQueryService.queryIndex(queryRequest)));
+    }
+
+    private <T> DeferredResult<ResponseEntity<T>> toDeferredResult(CompletableFuture<T> response) {
+        long timeout = requestDeadline.isEnabled() ? requestDeadline.getRemainingMillis() : asyncQueryConfig.getTimeout();
+        DeferredResult<ResponseEntity<T>> deferredResult = new DeferredResult<>(timeout);
+        // nobody waits for the result anymore, stop the Elasticsearch search as well
+        deferredResult.onTimeout(() -> {
+            deferredResult.setErrorResult(new AppException(
+                    HttpServletResponse.SC_GATEWAY_TIMEOUT,
+                    "Search error",
+                    String.format("Request timed out after waiting for %dms", timeout)));
+            response.cancel(true);
+        });
+        deferredResult.onError(throwable -> response.cancel(true));
+        response.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                deferredResult.setErrorResult(throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable);
+            } else {
+                deferredResult.setResult(new ResponseEntity<>(result, HttpStatus.OK));
+            }
+        });
+        return deferredResult;
+    }
+}
@@ -7,6 +7,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.opengroup.osdu.core.common.model.http.AppError;
+import org.opengroup.osdu.search.util.SearchWarmUp;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +22,10 @@ import jakarta.annotation.security.PermitAll;
 @Tag(name = "health-check-api", description = "Health Check API")
 public class HealthCheckApi {
 
+  // present when search.warm-up.enabled=true
+  @Autowired(required = false)
+  private SearchWarmUp searchWarmUp;
+
   @Operation(
       summary = "${healthChecksApi.livenessCheck.summary}",
       description = "${healthCheckApi.livenessCheck.description}",
@@ -67,6 +73,9 @@ public class HealthCheckApi {
   @PermitAll
   @GetMapping("/readiness_check")
   public ResponseEntity<String> readinessCheck() {
+    if (searchWarmUp != null && !searchWarmUp.isComplete()) {
+      return new ResponseEntity<>("Search Service is warming up", HttpStatus.SERVICE_UNAVAILABLE);
+    }
     return new ResponseEntity<>("Search Service is ready", HttpStatus.OK);
   }
 }
@@ -29,11 +29,15 @@ import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
 import org.opengroup.osdu.core.common.model.search.QueryRequest;
 import org.opengroup.osdu.core.common.model.search.QueryResponse;
 import org.opengroup.osdu.core.common.model.search.SearchServiceRole;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.model.BatchQueryRequest;
+import org.opengroup.osdu.search.model.BatchQueryResponse;
 import org.opengroup.osdu.search.provider.interfaces.ISearchAfterQueryService;
 import org.opengroup.osdu.search.provider.interfaces.IQueryService;
 import org.opengroup.osdu.search.provider.interfaces.IScrollQueryService;
 import org.opengroup.osdu.search.util.SearchAfterFeatureManager;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
@@ -70,6 +74,12 @@ public class SearchApi {
     @Inject
     private SearchAfterFeatureManager searchAfterFeatureManager;
 
+    @Inject
+    private SearchConfigurationProperties searchConfigurationProperties;
+
+    @Inject
+    private HttpServletResponse response;
+
     @Operation(summary = "${searchApi.queryRecords.summary}", description = "${searchApi.queryRecords.description}",
             security = {@SecurityRequirement(name = "Authorization")}, tags = { "search-api" })
     @ApiResponses(value = {
@@ -85,10 +95,35 @@ public class SearchApi {
     @PostMapping("/query")
     @PreAuthorize("@authorizationFilter.hasPermission('" + SearchServiceRole.ADMIN + "', '" + SearchServiceRole.USER + "')")
     public ResponseEntity<QueryResponse> queryRecords(@NotNull(message = SwaggerDoc.REQUEST_VALIDATION_NOT_NULL_BODY) @RequestBody @Valid QueryRequest queryRequest) throws Exception {
+        if (searchConfigurationProperties.isQueryPassthroughEnabled() || searchConfigurationProperties.isQueryResultCacheEnabled()) {
+            // the complete body is written to the servlet output stream, there is nothing left for Spring to render
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            queryService.queryIndex(queryRequest, response.getOutputStream());
+            return null;
+        }
         QueryResponse searchResponse = queryService.queryIndex(queryRequest);
         return new ResponseEntity<QueryResponse>(searchResponse, HttpStatus.OK);
     }
 
+    @Operation(summary = "${searchApi.queryRecordsBatch.summary}", description = "${searchApi.queryRecordsBatch.description}",
+            security = {@SecurityRequirement(name = "Authorization")}, tags = { "search-api" })
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = { @Content(schema = @Schema(implementation = BatchQueryResponse.class)) }),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters were given on request",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "403", description = "User not authorized to perform the action",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "502", description = "Search service scale-up is taking longer than expected. Wait 10 seconds and retry.",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "503", description = "Service Unavailable",  content = {@Content(schema = @Schema(implementation = AppError.class))})
+    })
+    @PostMapping("/query/batch")
+    @PreAuthorize("@authorizationFilter.hasPermission('" + SearchServiceRole.ADMIN + "', '" + SearchServiceRole.USER + "')")
+    public ResponseEntity<BatchQueryResponse> queryRecordsBatch(@NotNull(message = SwaggerDoc.REQUEST_VALIDATION_NOT_NULL_BODY) @RequestBody @Valid BatchQueryRequest batchQueryRequest) throws Exception {
+        BatchQueryResponse searchResponse = queryService.queryIndex(batchQueryRequest);
+        return new ResponseEntity<BatchQueryResponse>(searchResponse, HttpStatus.OK);
+    }
+
     @Operation(summary = "${searchApi.queryWithCursor.summary}", description = "${searchApi.queryWithCursor.description}",
             security = {@SecurityRequirement(name = "Authorization")}, tags = { "search-api" })
     @ApiResponses(value = {
@@ -121,6 +156,26 @@ public class SearchApi {
         return new ResponseEntity<CursorQueryResponse>(searchResponse, HttpStatus.OK);
     }
 
+    @Operation(summary = "${searchApi.exportRecords.summary}", description = "${searchApi.exportRecords.description}",
+            security = {@SecurityRequirement(name = "Authorization")}, tags = { "search-api" })
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Success", content = { @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE) }),
+            @ApiResponse(responseCode = "400", description = "Invalid parameters were given on request",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "403", description = "User not authorized to perform the action",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "500", description = "Internal Server Error",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "502", description = "Search service scale-up is taking longer than expected. Wait 10 seconds and retry.",  content = {@Content(schema = @Schema(implementation = AppError.class))}),
+            @ApiResponse(responseCode = "503", description = "Service Unavailable",  content = {@Content(schema = @Schema(implementation = AppError.class))})
+    })
+    @PostMapping("/query/export")
+    @PreAuthorize("@authorizationFilter.hasPermission('" + SearchServiceRole.ADMIN + "', '" + SearchServiceRole.USER + "')")
+    public void exportRecords(@NotNull(message = SwaggerDoc.REQUEST_VALIDATION_NOT_NULL_BODY) @RequestBody @Valid CursorQueryRequest queryRequest) throws Exception {
+        // records are written while the pages arrive, a slow client holds back the next page
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        searchAfterQueryService.export(queryRequest, response.getOutputStream());
+    }
+
     @Operation(summary = "${searchApi.closePaginationQueryWithCursor.summary}", description = "${searchApi.closePaginationQueryWithCursor.description}",
             security = {@SecurityRequirement(name = "Authorization")}, tags = { "search-api" })
     @ApiResponses(value = {
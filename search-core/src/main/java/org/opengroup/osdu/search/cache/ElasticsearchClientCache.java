@@ -18,59 +18,97 @@
 package org.opengroup.osdu.search.cache;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.opengroup.osdu.core.common.cache.ICache;
-import org.opengroup.osdu.core.common.cache.VmCache;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+/**
+ * Backed by a Guava cache directly: its segments are guarded by {@code ReentrantLock}, so requests
+ * waiting for a client that is being created park instead of pinning a carrier thread when the
+ * service runs on virtual threads.
+ */
 @Component
 public class ElasticsearchClientCache implements ICache<String, ElasticsearchClient> {
 
-  private final VmCache<String, ElasticsearchClient> vmCache;
+  private final Cache<String, ElasticsearchClient> cache;
 
   public ElasticsearchClientCache(
           SearchConfigurationProperties searchConfigurationProperties,
           RemovalListener<String, ElasticsearchClient> removalListener
   ) {
-    this.vmCache = new VmCache<>(
-        searchConfigurationProperties.getElasticCacheExpiration(),
-        searchConfigurationProperties.getMaximumCacheSize(),
-        removalListener
-    );
+    this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(searchConfigurationProperties.getElasticCacheExpiration(), TimeUnit.SECONDS)
+        .maximumSize(searchConfigurationProperties.getMaximumCacheSize())
+        .removalListener(removalListener)
+        .build();
   }
 
   @Override
   public void put(String partitionId, ElasticsearchClient client) {
-    this.vmCache.put(partitionId, client);
+    this.cache.put(partitionId, client);
   }
 
   @Override
   public ElasticsearchClient get(String partitionId) {
-    return this.vmCache.get(partitionId);
+    return this.cache.getIfPresent(partitionId);
   }
 
   @Override
   public void delete(String partitionId) {
-    this.vmCache.delete(partitionId);
+    this.cache.invalidate(partitionId);
   }
 
   @Override
   public void clearAll() {
-    this.vmCache.clearAll();
+    this.cache.invalidateAll();
+  }
+
+  public Set<String> getPartitionIds() {
+    return new HashSet<>(this.cache.asMap().keySet());
+  }
+
+  /**
+   * Atomically replaces the client of the partition if it is still {@code expected}, which also
+   * restarts its expiration. The replaced client is not closed, see
+   * {@link ElasticsearchClientRemovalListener}.
+   *
+   * @return {@code false} if the client was evicted or replaced in the meantime
+   */
+  public boolean replace(String partitionId, ElasticsearchClient expected, ElasticsearchClient client) {
+    return this.cache.asMap().replace(partitionId, expected, client);
   }
   
   /**
    * Thread-safe atomic compute-if-absent operation to prevent race conditions.
-   * Delegates to VmCache which uses Guava Cache's atomic get(K, Callable) operation.
+   * Uses Guava Cache's atomic get(K, Callable) operation.
    * 
    * @param partitionId The partition ID to look up or compute
    * @param mappingFunction Function to create a new client if not present
    * @return The existing or newly computed client
    */
   public ElasticsearchClient computeIfAbsent(String partitionId, Function<String, ElasticsearchClient> mappingFunction) {
-    return this.vmCache.computeIfAbsent(partitionId, mappingFunction);
+    try {
+      return this.cache.get(partitionId, () -> mappingFunction.apply(partitionId));
+    } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+      // surface the loader failure itself, e.g. an AppException from the partition service
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof Error error) {
+        throw error;
+      }
+      throw new IllegalStateException(e.getCause());
+    }
   }
 }
@@ -1,6 +1,7 @@
 package org.opengroup.osdu.search.cache;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +15,10 @@ public class ElasticsearchClientRemovalListener implements RemovalListener<Strin
 
     @Override
     public void onRemoval(RemovalNotification<String, ElasticsearchClient> notification) {
+        // a replaced client may still serve requests, whoever replaced it closes it once they drain
+        if (notification.getCause() == RemovalCause.REPLACED) {
+            return;
+        }
         ElasticsearchClient elasticSearchClient = notification.getValue();
         if (elasticSearchClient != null) {
             try {
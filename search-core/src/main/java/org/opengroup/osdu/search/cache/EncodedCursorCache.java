@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.cache;
+
+import java.util.function.Function;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.core.common.model.search.CursorSettings;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.opengroup.osdu.search.util.CursorSettingsCodec;
+
+/**
+ * Keeps cursor settings in the binary form of {@link CursorSettingsCodec} or as the entries the
+ * provider cache serializes itself, as set by {@code cursorCacheBinaryEncodingEnabled}. Encoded
+ * entries live under their own key prefix as base64 text, as the provider caches hold strings,
+ * which leaves them only slightly smaller than the serialized settings. Only while {@code cursorCacheBinaryEncodingMigration} is
+ * set can replicas writing either form continue each other's cursors: a write then removes the
+ * entry of the other form, and a read that misses the form this replica writes tries the other one.
+ * Without it every call touches the one form, so the flag is set for the rollout or rollback of the
+ * encoding and cleared once the cursors of the previous form expired.
+ */
+public class EncodedCursorCache<V> implements ICache<String, V> {
+
+  static final String KEY_PREFIX = "bin:";
+
+  private final ICache<String, String> cache;
+  private final ICache<String, V> legacyCache;
+  private final Function<V, String> encoder;
+  private final Function<String, V> decoder;
+  private final boolean writeEncoded;
+  private final boolean migrating;
+
+  EncodedCursorCache(ICache<String, String> cache, ICache<String, V> legacyCache,
+      Function<V, String> encoder, Function<String, V> decoder, boolean writeEncoded,
+      boolean migrating) {
+    this.cache = cache;
+    this.legacyCache = legacyCache;
+    this.encoder = encoder;
+    this.decoder = decoder;
+    this.writeEncoded = writeEncoded;
+    this.migrating = migrating;
+  }
+
+  public static ICache<String, SearchAfterSettings> forSearchAfterSettings(
+      ICache<String, String> cache, ICache<String, SearchAfterSettings> legacyCache,
+      SearchConfigurationProperties searchConfigurationProperties) {
+    return new EncodedCursorCache<>(cache, legacyCache, CursorSettingsCodec::encode,
+        CursorSettingsCodec::decodeSearchAfterSettings,
+        searchConfigurationProperties.isCursorCacheBinaryEncodingEnabled(),
+        searchConfigurationProperties.isCursorCacheBinaryEncodingMigration());
+  }
+
+  public static ICache<String, CursorSettings> forCursorSettings(
+      ICache<String, String> cache, ICache<String, CursorSettings> legacyCache,
+      SearchConfigurationProperties searchConfigurationProperties) {
+    return new EncodedCursorCache<>(cache, legacyCache, CursorSettingsCodec::encode,
+        CursorSettingsCodec::decodeCursorSettings,
+        searchConfigurationProperties.isCursorCacheBinaryEncodingEnabled(),
+        searchConfigurationProperties.isCursorCacheBinaryEncodingMigration());
+  }
+
+  @Override
+  public void put(String key, V value) {
+    if (writeEncoded) {
+      cache.put(KEY_PREFIX + key, encoder.apply(value));
+      if (migrating) {
+        legacyCache.delete(key);
+      }
+    } else {
+      legacyCache.put(key, value);
+      if (migrating) {
+        cache.delete(KEY_PREFIX + key);
+      }
+    }
+  }
+
+  @Override
+  public V get(String key) {
+    V value = writeEncoded ? getEncoded(key) : legacyCache.get(key);
+    if (value != null || !migrating) {
+      return value;
+    }
+    return writeEncoded ? legacyCache.get(key) : getEncoded(key);
+  }
+
+  private V getEncoded(String key) {
+    String encoded = cache.get(KEY_PREFIX + key);
+    return encoded != null ? decoder.apply(encoded) : null;
+  }
+
+  @Override
+  public void delete(String key) {
+    if (writeEncoded || migrating) {
+      cache.delete(KEY_PREFIX + key);
+    }
+    if (!writeEncoded || migrating) {
+      legacyCache.delete(key);
+    }
+  }
+
+  @Override
+  public void clearAll() {
+    cache.clearAll();
+    legacyCache.clearAll();
+  }
+}
@@ -15,21 +15,27 @@
 
 package org.opengroup.osdu.search.cache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import jakarta.inject.Inject;
+import java.util.concurrent.TimeUnit;
 import org.opengroup.osdu.core.common.cache.ICache;
-import org.opengroup.osdu.core.common.cache.VmCache;
 import org.opengroup.osdu.core.common.model.http.DpsHeaders;
 import org.springframework.stereotype.Component;
 
 @Component
 public class FeatureFlagCache implements ICache<String, Boolean> {
-    private VmCache<String, Boolean> cache;
+    // read on every request; Guava locks with ReentrantLock, not monitors, so virtual threads never pin here
+    private Cache<String, Boolean> cache;
 
     @Inject
     private DpsHeaders dpsHeaders;
 
     public FeatureFlagCache() {
-        cache = new VmCache<>(600, 1000);
+        cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(600, TimeUnit.SECONDS)
+                .maximumSize(1000)
+                .build();
     }
 
     @Override
@@ -39,17 +45,17 @@ public class FeatureFlagCache implements ICache<String, Boolean> {
 
     @Override
     public Boolean get(String s) {
-        return this.cache.get(cacheKey(s));
+        return this.cache.getIfPresent(cacheKey(s));
     }
 
     @Override
     public void delete(String s) {
-        this.cache.delete(cacheKey(s));
+        this.cache.invalidate(cacheKey(s));
     }
 
     @Override
     public void clearAll() {
-        this.cache.clearAll();
+        this.cache.invalidateAll();
     }
 
     private String cacheKey(String s) {
@@ -14,18 +14,17 @@
 
 package org.opengroup.osdu.search.cache;
 
-import org.opengroup.osdu.core.common.cache.VmCache;
 import org.springframework.stereotype.Component;
 
 @Component
 public class IndexAliasCacheVmImpl implements IIndexAliasCache {
-    private VmCache<String, String> cache;
+    private LocalCache<String, String> cache;
     // The index alias won't be changed once it is created
     private final int ALIAS_CACHE_EXPIRATION = 86400;
     private final int MAX_CACHE_SIZE = 2000;
 
     public IndexAliasCacheVmImpl() {
-        cache = new VmCache<>(ALIAS_CACHE_EXPIRATION, MAX_CACHE_SIZE);
+        cache = new LocalCache<>(ALIAS_CACHE_EXPIRATION, MAX_CACHE_SIZE);
     }
 
     @Override
@@ -0,0 +1,57 @@
+/*
+ * Copyright © Schlumberger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0 *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengroup.osdu.search.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import org.opengroup.osdu.core.common.cache.ICache;
+
+/**
+ * In-memory cache for lookups on the request path. Guava locks with ReentrantLock rather than
+ * monitors, so virtual threads reading it are never pinned to their carrier.
+ */
+public class LocalCache<K, V> implements ICache<K, V> {
+
+    private final Cache<K, V> cache;
+
+    public LocalCache(int expirationSeconds, int maximumSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(expirationSeconds, TimeUnit.SECONDS)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public void put(K key, V value) {
+        this.cache.put(key, value);
+    }
+
+    @Override
+    public V get(K key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    @Override
+    public void delete(K key) {
+        this.cache.invalidate(key);
+    }
+
+    @Override
+    public void clearAll() {
+        this.cache.invalidateAll();
+    }
+}
@@ -46,6 +46,10 @@ public class MultiPartitionIndexAliasCache {
     }
 
     private String getKey(String kind) {
-        return this.requestHeaders.getPartitionId() + "-" + kind;
+        return getKey(this.requestHeaders.getPartitionId(), kind);
+    }
+
+    public static String getKey(String partitionId, String kind) {
+        return partitionId + "-" + kind;
     }
 }
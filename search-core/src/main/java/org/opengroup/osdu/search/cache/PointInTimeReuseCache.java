@@ -0,0 +1,71 @@
+/*
+ * Copyright © Schlumberger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0 *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengroup.osdu.search.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Point in time ids opened for new search_after cursors, keyed on the partition, the user and the
+ * query. A cursor started with the same query shortly after reads the same point in time instead of
+ * opening another one; entries expire well before the keep alive of the point in time they hold.
+ */
+@Component
+public class PointInTimeReuseCache implements ICache<String, String> {
+
+    private static final long MAXIMUM_SIZE = 10000;
+    // leaves the first page of the last cursor sharing a point in time 30s of its 90s keep alive
+    static final int MAXIMUM_EXPIRATION = 60;
+
+    private final Cache<String, String> cache;
+
+    public PointInTimeReuseCache(SearchConfigurationProperties searchConfigurationProperties) {
+        Integer expiration = searchConfigurationProperties.getSearchAfterPointInTimeReuseExpiration();
+        if (expiration != null && expiration > MAXIMUM_EXPIRATION) {
+            throw new IllegalStateException(String.format(
+                    "searchAfterPointInTimeReuseExpiration must not exceed %d seconds, the point in time may lapse before it is read",
+                    MAXIMUM_EXPIRATION));
+        }
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(expiration == null ? 0 : expiration, TimeUnit.SECONDS)
+                .maximumSize(MAXIMUM_SIZE)
+                .build();
+    }
+
+    @Override
+    public void put(String key, String pitId) {
+        this.cache.put(key, pitId);
+    }
+
+    @Override
+    public String get(String key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        this.cache.invalidate(key);
+    }
+
+    @Override
+    public void clearAll() {
+        this.cache.invalidateAll();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright © Schlumberger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0 *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengroup.osdu.search.cache;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Objects;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.core.common.model.search.SpatialFilter;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Query DSL built from the user query string and spatial filter. Building it does not depend on the
+ * caller, the partition or the authorization clauses, so entries are shared by all users. Built
+ * {@link Query} objects are immutable and safe to reuse across requests.
+ *
+ * <p>Entries are weighted by the length of their key, which tracks the size of the DSL they hold.
+ */
+@Component
+public class QueryDslCache implements ICache<String, QueryDslCache.CompiledQuery> {
+
+    private final Cache<String, CompiledQuery> cache;
+
+    public QueryDslCache(SearchConfigurationProperties searchConfigurationProperties) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(searchConfigurationProperties.getQueryDslCacheMaximumWeight())
+                .weigher((String key, CompiledQuery value) -> key.length())
+                .build();
+    }
+
+    public static String cacheKey(String simpleQuery, SpatialFilter spatialFilter) {
+        String spatialKey = Objects.isNull(spatialFilter) ? "" : spatialFilter.toString();
+        return Strings.nullToEmpty(simpleQuery) + '\u0000' + spatialKey;
+    }
+
+    @Override
+    public void put(String key, CompiledQuery compiledQuery) {
+        this.cache.put(key, compiledQuery);
+    }
+
+    @Override
+    public CompiledQuery get(String key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        this.cache.invalidate(key);
+    }
+
+    @Override
+    public void clearAll() {
+        this.cache.invalidateAll();
+    }
+
+    /** Either clause is null when the request has no query string or no spatial filter. */
+    public record CompiledQuery(Query textQuery, Query spatialQuery) {}
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright © Schlumberger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0 *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengroup.osdu.search.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.concurrent.TimeUnit;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized /query responses, keyed on the request and on the caller's authorization scope. Every
+ * entry remembers the refresh generation of the indices it was read from; a response is only
+ * served while that generation is still current, so it never outlives a refresh of its indices.
+ *
+ * <p>Generations themselves are kept for one second, the default index refresh interval, so that
+ * a burst of identical queries costs a single stats call.
+ */
+@Component
+public class QueryResultCache implements ICache<String, QueryResultCache.CachedQueryResponse> {
+
+    private static final long GENERATION_EXPIRATION_MS = 1000L;
+
+    private final Cache<String, CachedQueryResponse> cache;
+    private final Cache<String, String> generations;
+
+    public QueryResultCache(SearchConfigurationProperties searchConfigurationProperties) {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(searchConfigurationProperties.getQueryResultCacheExpiration(), TimeUnit.SECONDS)
+                .maximumWeight(searchConfigurationProperties.getQueryResultCacheMaximumSizeMb() * 1024L * 1024L)
+                .weigher((String key, CachedQueryResponse value) -> value.body().length)
+                .build();
+        this.generations = CacheBuilder.newBuilder()
+                .expireAfterWrite(GENERATION_EXPIRATION_MS, TimeUnit.MILLISECONDS)
+                .maximumSize(1000)
+                .build();
+    }
+
+    @Override
+    public void put(String key, CachedQueryResponse response) {
+        this.cache.put(key, response);
+    }
+
+    @Override
+    public CachedQueryResponse get(String key) {
+        return this.cache.getIfPresent(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        this.cache.invalidate(key);
+    }
+
+    @Override
+    public void clearAll() {
+        this.cache.invalidateAll();
+        this.generations.invalidateAll();
+    }
+
+    public String getGeneration(String indexKey) {
+        return this.generations.getIfPresent(indexKey);
+    }
+
+    public void putGeneration(String indexKey, String generation) {
+        this.generations.put(indexKey, generation);
+    }
+
+    /** Response body exactly as written to the client, with the index generation it was read at. */
+    public record CachedQueryResponse(String generation, byte[] body) {}
+}
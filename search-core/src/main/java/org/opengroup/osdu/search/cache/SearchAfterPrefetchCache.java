@@ -0,0 +1,103 @@
+/*
+ * Copyright © Schlumberger
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0 *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.opengroup.osdu.search.cache;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Next pages of search_after cursors, fetched while the consumer processes the current page and
+ * keyed on the cursor. A page in flight weighs nothing; once it arrives it is weighed by the size
+ * of its documents, and entries are evicted when the total exceeds the configured budget.
+ *
+ * <p>A page is handed out once: {@link #take} removes it, so the next page can be prefetched
+ * under the same cursor. Evicted, expired or deleted searches that are still running are cancelled.
+ */
+@Component
+public class SearchAfterPrefetchCache implements ICache<String, SearchAfterPrefetchCache.PrefetchedPage> {
+
+    private final Cache<String, PrefetchedPage> cache;
+
+    public SearchAfterPrefetchCache(SearchConfigurationProperties searchConfigurationProperties) {
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(searchConfigurationProperties.getSearchAfterPrefetchExpiration(), TimeUnit.SECONDS)
+                .maximumWeight(searchConfigurationProperties.getSearchAfterPrefetchMaximumSizeMb() * 1024L * 1024L)
+                .weigher((String key, PrefetchedPage value) -> (int) Math.min(value.size(), Integer.MAX_VALUE))
+                .removalListener(SearchAfterPrefetchCache::cancelPending)
+                .build();
+    }
+
+    @Override
+    public void put(String cursor, PrefetchedPage page) {
+        this.cache.put(cursor, page);
+    }
+
+    @Override
+    public PrefetchedPage get(String cursor) {
+        return this.cache.getIfPresent(cursor);
+    }
+
+    /** Removes the page of the cursor and returns it, null when none was prefetched. */
+    public PrefetchedPage take(String cursor) {
+        return this.cache.asMap().remove(cursor);
+    }
+
+    /** Swaps a page in flight for the same page once it arrived, unless it was taken meanwhile. */
+    public boolean replace(String cursor, PrefetchedPage pending, PrefetchedPage completed) {
+        return this.cache.asMap().replace(cursor, pending, completed);
+    }
+
+    @Override
+    public void delete(String cursor) {
+        PrefetchedPage page = this.take(cursor);
+        if (page != null) {
+            page.response().cancel(true);
+        }
+    }
+
+    @Override
+    public void clearAll() {
+        this.cache.invalidateAll();
+    }
+
+    private static void cancelPending(RemovalNotification<String, PrefetchedPage> notification) {
+        // taken pages belong to the caller, replaced ones live on in their successor
+        if (notification.wasEvicted()) {
+            notification.getValue().response().cancel(true);
+        }
+    }
+
+    /**
+     * Search of the next page with the cursor position and request it was issued for, it is only
+     * served to a request for the same page.
+     */
+    public record PrefetchedPage(String requestKey, String pitId, List<String> fieldValueJsons,
+                                 CompletableFuture<SearchResponse<Map<String, Object>>> response, long size) {
+
+        public PrefetchedPage withSize(long size) {
+            return new PrefetchedPage(requestKey, pitId, fieldValueJsons, response, size);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.opengroup.osdu.search.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "async.query")
+@Getter
+@Setter
+@ToString
+public class AsyncQueryConfig {
+
+    // serve /query and /query_with_cursor without holding a servlet thread while Elasticsearch works
+    private Boolean enabled = false;
+    // how long an async request may wait for its result before answering 504, in milliseconds
+    private Long timeout = 90000L;
+    // threads used to post-process Elasticsearch responses off the IO reactor
+    private Integer poolSize = 16;
+}
@@ -0,0 +1,21 @@
+package org.opengroup.osdu.search.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * HTTP connection pool of the Elasticsearch client of a partition. Bound from
+ * {@code elastic-connection-pools.<partition-id>.*}, where every unset value falls back to the
+ * {@code elastic-*} default of {@link SearchConfigurationProperties}.
+ */
+@Getter
+@Setter
+@ToString
+public class ElasticConnectionPool {
+
+    private Integer maxConnTotal;
+    private Integer maxConnPerRoute;
+    // how long a search waits to lease a pooled connection, in milliseconds
+    private Integer connectionRequestTimeout;
+}
@@ -0,0 +1,24 @@
+package org.opengroup.osdu.search.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "request.deadline")
+@Getter
+@Setter
+@ToString
+public class RequestDeadlineConfig {
+
+    // bound every search by a per request deadline and abort Elasticsearch searches that outlive it
+    private Boolean enabled = false;
+    // default deadline of /query requests, in milliseconds
+    private Long queryTimeout = 60000L;
+    // default deadline of /query_with_cursor requests, in milliseconds
+    private Long cursorTimeout = 90000L;
+    // upper bound for deadlines requested with the X-Request-Timeout header, in milliseconds
+    private Long maximumTimeout = 300000L;
+}
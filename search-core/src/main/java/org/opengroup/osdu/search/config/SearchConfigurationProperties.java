@@ -1,6 +1,8 @@
 package org.opengroup.osdu.search.config;
 
 import com.google.common.base.Strings;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.regex.PatternSyntaxException;
 import lombok.Getter;
 import lombok.Setter;
@@ -8,6 +10,8 @@ import org.opengroup.osdu.core.common.model.search.DeploymentEnvironment;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import static com.google.common.base.MoreObjects.firstNonNull;
+
 @Configuration
 @ConfigurationProperties
 @Getter
@@ -21,6 +25,54 @@ public class SearchConfigurationProperties {
 	private Integer queryLimitMaximum = 1000;
 	private Integer aggregationSize = 1000;
 	private Integer elasticMaxResponseSizeMb = 100;
+	// Keep hit documents as Elasticsearch tokens until they are read, instead of decoding every _source into maps
+	private boolean lazyHitDecodingEnabled = false;
+	// Read returnedFields from doc values instead of _source when all of them are scalar record attributes such as id, kind or version
+	private boolean docValueFieldsEnabled = false;
+	private Integer docValueFieldsMaximum = 10;
+	// Copy hits from the raw Elasticsearch response into /query responses instead of decoding them into maps, the response is still buffered until complete
+	private boolean queryPassthroughEnabled = false;
+	// Maximum number of queries accepted by a single /query/batch request
+	private Integer batchQueryMaximum = 20;
+	// Number of point in time slices /query/export reads concurrently, bounded by the partition bulkhead
+	private Integer queryExportSlices = 1;
+	// Serve repeated /query requests of callers with the same data groups from memory until their indices refresh
+	private boolean queryResultCacheEnabled = false;
+	private Integer queryResultCacheExpiration = 5;
+	private Integer queryResultCacheMaximumSizeMb = 64;
+	// Let concurrent identical searches of callers with the same data groups share one Elasticsearch call
+	private boolean searchCoalescingEnabled = false;
+	// Fetch the next search_after page while the consumer processes the current one, expiration in seconds
+	private boolean searchAfterPrefetchEnabled = false;
+	private Integer searchAfterPrefetchExpiration = 60;
+	private Integer searchAfterPrefetchMaximumSizeMb = 64;
+	// Cut search_after pages after the last hit that fits into elasticMaxResponseSizeMb instead of failing with 413
+	private boolean searchAfterPartialResultsEnabled = false;
+	// Encrypt the search_after cursor state into the cursor instead of the cursor cache, the secret is shared by all replicas
+	private boolean searchAfterStatelessCursorsEnabled = false;
+	private String searchAfterCursorSecret;
+	// Seconds a stateless cursor stays valid after it was issued, keep it at the cursor cache expiration of the provider
+	private Integer searchAfterStatelessCursorExpiration = 3600;
+	// Search the first page of a new cursor without a point in time, one is opened only when a second page exists
+	private boolean searchAfterLazyPointInTimeEnabled = false;
+	// Seconds identical new cursors of a user share a point in time, at most 60, shared ones lapse after their keep alive, 0 disables it
+	private Integer searchAfterPointInTimeReuseExpiration = 0;
+	// Write cursor cache entries in the binary form of CursorSettingsCodec, enable once every replica reads it
+	private boolean cursorCacheBinaryEncodingEnabled = false;
+	// Read and clean up both cursor cache forms while cursorCacheBinaryEncodingEnabled is rolled out or back
+	private boolean cursorCacheBinaryEncodingMigration = false;
+
+	// Connection pool of the Elasticsearch client of each partition, see getElasticConnectionPool
+	private Integer elasticMaxConnTotal = 100;
+	private Integer elasticMaxConnPerRoute = 100;
+	// Threads of the IO reactor shared by all Elasticsearch clients, 0 uses one per processor
+	private Integer elasticIoThreadCount = 0;
+	private Integer elasticConnectionRequestTimeout = 10000;
+	private Map<String, ElasticConnectionPool> elasticConnectionPools = new HashMap<>();
+	// Discover the nodes of each cluster instead of only using the configured hosts, intervals in milliseconds
+	private boolean elasticSniffingEnabled = false;
+	private Integer elasticSniffInterval = 300000;
+	private Integer elasticSniffAfterFailureDelay = 60000;
 
 	private String elasticDatastoreKind;
 	private String elasticDatastoreId;
@@ -29,8 +81,13 @@ public class SearchConfigurationProperties {
 	private Integer schemaCacheExpiration = 60;
 	private Integer indexCacheExpiration = 60;
 	private Integer elasticCacheExpiration = 1440;
+	// Re-resolve the cluster settings of cached Elasticsearch clients in the background, interval in seconds, below elasticCacheExpiration
+	private boolean elasticClientRefreshEnabled = false;
+	private Integer elasticClientRefreshInterval = 300;
 	private Integer cursorCacheExpiration = 60;
 	private Integer maximumCacheSize = 20;
+	// Total characters of query strings and spatial filters kept in the compiled query cache, 0 disables it
+	private Long queryDslCacheMaximumWeight = 2_000_000L;
 
 	//Kinds Cache expiration 2*24*60
 	private Integer kindsCacheExpiration = 2880;
@@ -92,6 +149,23 @@ public class SearchConfigurationProperties {
 	}
 
 
+	/**
+	 * Connection pool settings of the partition's Elasticsearch client, the partition's entry of
+	 * {@code elastic-connection-pools} completed with the {@code elastic-*} defaults.
+	 */
+	public ElasticConnectionPool getElasticConnectionPool(String partitionId) {
+		ElasticConnectionPool overrides = partitionId == null ? null : elasticConnectionPools.get(partitionId);
+		if (overrides == null) {
+			overrides = new ElasticConnectionPool();
+		}
+		ElasticConnectionPool pool = new ElasticConnectionPool();
+		pool.setMaxConnTotal(firstNonNull(overrides.getMaxConnTotal(), elasticMaxConnTotal));
+		pool.setMaxConnPerRoute(firstNonNull(overrides.getMaxConnPerRoute(), elasticMaxConnPerRoute));
+		pool.setConnectionRequestTimeout(
+				firstNonNull(overrides.getConnectionRequestTimeout(), elasticConnectionRequestTimeout));
+		return pool;
+	}
+
 	public boolean isLocalEnvironment() {
 		return "local".equalsIgnoreCase(environment);
 	}
@@ -0,0 +1,35 @@
+package org.opengroup.osdu.search.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.isolation")
+@Getter
+@Setter
+@ToString
+public class SearchIsolationConfig {
+
+    // bulkhead and circuit breaker around the Elasticsearch calls of every partition
+    private Boolean enabled = false;
+
+    // Elasticsearch calls of one partition running at the same time
+    private Integer maxConcurrentCalls = 50;
+    // calls of one partition waiting for a free slot, further calls are rejected right away
+    private Integer maxQueuedCalls = 50;
+    // how long a queued call waits for a free slot, in milliseconds
+    private Long maxQueueWait = 100L;
+
+    // the circuit opens once this share of the last sliding-window-size calls failed
+    private Double failureRateThreshold = 0.5;
+    private Integer slidingWindowSize = 50;
+    // calls recorded before the failure rate is evaluated
+    private Integer minimumCalls = 20;
+    // calls are rejected for this long once the circuit opened, in milliseconds
+    private Long openDuration = 30000L;
+    // trial calls let through after that, all of them must succeed to close the circuit
+    private Integer halfOpenCalls = 3;
+}
@@ -0,0 +1,34 @@
+package org.opengroup.osdu.search.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.retry")
+@Getter
+@Setter
+@ToString
+public class SearchRetryConfig {
+
+    // retry searches rejected by Elasticsearch with 429 or 503
+    private Boolean enabled = false;
+    // attempts per search, including the first one
+    private Integer maxAttempts = 3;
+    // upper bound of the first backoff, doubled on every further retry, in milliseconds
+    private Long initialBackoff = 50L;
+    // upper bound of any backoff, in milliseconds
+    private Long maxBackoff = 1000L;
+    // retries earned by every search, e.g. 0.1 allows one retry per ten searches
+    private Double budgetRatio = 0.1;
+    // retries that can be saved up, the budget starts full
+    private Integer budgetCapacity = 20;
+
+    // send a duplicate of a plain search that is still running after the hedge percentile latency
+    private Boolean hedgingEnabled = false;
+    private Double hedgePercentile = 0.95;
+    // never hedge earlier than this, in milliseconds
+    private Long hedgeMinimumDelay = 50L;
+}
@@ -0,0 +1,26 @@
+package org.opengroup.osdu.search.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "search.warm-up")
+@Getter
+@Setter
+@ToString
+public class SearchWarmUpConfig {
+
+    // connect the Elasticsearch clients of all partitions before the service reports ready
+    private Boolean enabled = false;
+    // partitions warmed up at the same time
+    private Integer parallelism = 8;
+    // the service reports ready after this even if partitions are still warming up, in milliseconds
+    private Long timeout = 120000L;
+    // kinds whose index aliases are loaded into the alias cache of every partition
+    private List<String> kinds = new ArrayList<>();
+}
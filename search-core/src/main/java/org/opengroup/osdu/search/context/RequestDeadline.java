@@ -0,0 +1,76 @@
+package org.opengroup.osdu.search.context;
+
+import com.google.common.base.Strings;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.search.config.RequestDeadlineConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * Request-scoped deadline of the current search request.
+ *
+ * <p>The deadline is taken from the {@code X-Request-Timeout} header, in milliseconds and capped
+ * by {@code request.deadline.maximum-timeout}, or from the default of the endpoint. It counts from
+ * the arrival of the request as marked by {@code RequestDeadlineFilter}, or from the first time the
+ * bean is used in the request when the request was not marked.
+ */
+@Component
+@RequestScope
+public class RequestDeadline {
+
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout";
+    public static final String START_NANOS_ATTRIBUTE = RequestDeadline.class.getName() + ".startNanos";
+    private static final String CURSOR_QUERY_PATH = "/query_with_cursor";
+
+    private final RequestDeadlineConfig config;
+    private final HttpServletRequest request;
+    private final long startNanos;
+    private Long timeoutMillis;
+
+    @Autowired
+    public RequestDeadline(RequestDeadlineConfig config, HttpServletRequest request) {
+        this.config = config;
+        this.request = request;
+        this.startNanos = request.getAttribute(START_NANOS_ATTRIBUTE) instanceof Long arrival ? arrival : System.nanoTime();
+    }
+
+    public boolean isEnabled() {
+        return Boolean.TRUE.equals(config.getEnabled());
+    }
+
+    /** Time left until the deadline, at least one millisecond so it is always a valid timeout. */
+    public long getRemainingMillis() {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return Math.max(1L, getTimeoutMillis() - elapsedMillis);
+    }
+
+    public long getTimeoutMillis() {
+        if (timeoutMillis == null) {
+            timeoutMillis = resolveTimeout();
+        }
+        return timeoutMillis;
+    }
+
+    private long resolveTimeout() {
+        String header = request.getHeader(REQUEST_TIMEOUT_HEADER);
+        if (Strings.isNullOrEmpty(header)) {
+            String uri = request.getRequestURI();
+            return uri != null && uri.endsWith(CURSOR_QUERY_PATH) ? config.getCursorTimeout() : config.getQueryTimeout();
+        }
+        long requested;
+        try {
+            requested = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            requested = 0L;
+        }
+        if (requested <= 0) {
+            throw new AppException(HttpServletResponse.SC_BAD_REQUEST, "Bad Request",
+                    String.format("%s must be a positive number of milliseconds", REQUEST_TIMEOUT_HEADER));
+        }
+        return Math.min(requested, config.getMaximumTimeout());
+    }
+}
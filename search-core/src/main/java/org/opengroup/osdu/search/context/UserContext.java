@@ -24,6 +24,7 @@ import java.util.List;
  * <p><strong>Usage Contract:</strong>
  * - {@code dataGroups} may be null if not yet populated or if user has no groups
  * - {@code isRootUser} defaults to false until explicitly set
+ * - {@code compiledPolicy} memoizes the policy translation, so it is resolved once per request
  * - Callers should handle null {@code dataGroups} gracefully
  */
 @Component
@@ -31,6 +32,7 @@ import java.util.List;
 public class UserContext {
     private List<String> dataGroups;
     private boolean isRootUser;
+    private String compiledPolicy;
     
     public List<String> getDataGroups() {
         return dataGroups;
@@ -47,4 +49,12 @@ public class UserContext {
     public void setRootUser(boolean rootUser) {
         isRootUser = rootUser;
     }
+
+    public String getCompiledPolicy() {
+        return compiledPolicy;
+    }
+
+    public void setCompiledPolicy(String compiledPolicy) {
+        this.compiledPolicy = compiledPolicy;
+    }
 }
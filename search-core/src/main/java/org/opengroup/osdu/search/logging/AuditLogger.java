@@ -15,7 +15,6 @@
 package org.opengroup.osdu.search.logging;
 
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.logging.audit.AuditPayload;
 import org.opengroup.osdu.core.common.model.http.DpsHeaders;
@@ -27,23 +26,22 @@ import java.util.List;
 
 @RequestScope
 @Component
-@RequiredArgsConstructor
 public class AuditLogger {
 
     private final JaxRsDpsLog logger;
-    private final DpsHeaders headers;
-    private final HttpServletRequest httpServletRequest;
+    // read from the request when the logger is created, audit events may be written after the request is gone
+    private final AuditEvents events;
 
-    private AuditEvents events = null;
+    public AuditLogger(JaxRsDpsLog logger, DpsHeaders headers, HttpServletRequest httpServletRequest) {
+        this.logger = logger;
+        String user = headers.getUserEmail();
+        String userIpAddress = IpAddressUtil.getClientIpAddress(httpServletRequest);
+        String userAgent = httpServletRequest.getHeader("User-Agent");
+        String userAuthorizedGroupName = headers.getUserAuthorizedGroupName();
+        this.events = new AuditEvents(user, userIpAddress, userAgent, userAuthorizedGroupName);
+    }
 
     private AuditEvents getAuditEvents() {
-        if (this.events == null) {
-            String user = headers.getUserEmail();
-            String userIpAddress = IpAddressUtil.getClientIpAddress(httpServletRequest);
-            String userAgent = httpServletRequest.getHeader("User-Agent");
-            String userAuthorizedGroupName = headers.getUserAuthorizedGroupName();
-            this.events = new AuditEvents(user, userIpAddress, userAgent, userAuthorizedGroupName);
-        }
         return this.events;
     }
 
@@ -0,0 +1,41 @@
+// Copyright 2017-2019, Schlumberger
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.search.middleware;
+
+import jakarta.servlet.*;
+import java.io.IOException;
+import org.opengroup.osdu.search.context.RequestDeadline;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Marks the arrival of the request ahead of the other filters, the deadline of the request counts
+ * from it rather than from the first use of {@link RequestDeadline}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter implements Filter {
+
+	@Override
+	public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+			throws IOException, ServletException {
+		// an async dispatch keeps the arrival of the original request
+		if (request.getAttribute(RequestDeadline.START_NANOS_ATTRIBUTE) == null) {
+			request.setAttribute(RequestDeadline.START_NANOS_ATTRIBUTE, System.nanoTime());
+		}
+		chain.doFilter(request, response);
+	}
+}
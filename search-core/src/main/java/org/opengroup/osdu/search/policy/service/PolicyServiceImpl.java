@@ -45,6 +45,17 @@ public class PolicyServiceImpl implements IPolicyService {
 
   @Override
   public String getCompiledPolicy() {
+    // a batch request builds several queries for the same user, translate the policy only once
+    String compiledPolicy = userContext.getCompiledPolicy();
+    if (compiledPolicy != null) {
+      return compiledPolicy;
+    }
+    compiledPolicy = translatePolicy();
+    userContext.setCompiledPolicy(compiledPolicy);
+    return compiledPolicy;
+  }
+
+  private String translatePolicy() {
     try {
       List<String> groupsList = userContext.getDataGroups();
       if (groupsList == null) {
@@ -22,23 +22,63 @@ import static org.opengroup.osdu.core.common.Constants.COLLABORATIONS_FEATURE_NA
 import static org.opengroup.osdu.core.common.model.search.RecordMetaAttribute.COLLABORATION_ID;
 import static org.opengroup.osdu.search.config.SearchConfigurationProperties.POLICY_FEATURE_NAME;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.*;
 import co.elastic.clients.elasticsearch._types.aggregations.*;
 import co.elastic.clients.elasticsearch._types.query_dsl.*;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchHeader;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
 import co.elastic.clients.elasticsearch.core.search.*;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
 import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
 import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonObject;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.function.ToLongFunction;
+import org.apache.http.ContentTooLongException;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.HttpAsyncResponseConsumerFactory;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.RestClient;
 import org.opengroup.osdu.core.common.feature.IFeatureFlag;
 import org.opengroup.osdu.core.common.http.CollaborationContextFactory;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
@@ -51,10 +91,14 @@ import org.opengroup.osdu.core.common.model.search.Query;
 import org.opengroup.osdu.core.common.model.search.QueryUtils;
 import org.opengroup.osdu.core.common.model.search.RecordMetaAttribute;
 import org.opengroup.osdu.core.common.model.search.SpatialFilter;
+import org.opengroup.osdu.search.cache.QueryDslCache;
+import org.opengroup.osdu.search.cache.QueryDslCache.CompiledQuery;
 import org.opengroup.osdu.search.config.ElasticLoggingConfig;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
 import org.opengroup.osdu.search.policy.service.IPolicyService;
+import org.opengroup.osdu.search.context.RequestDeadline;
 import org.opengroup.osdu.search.context.UserContext;
+import org.opengroup.osdu.search.service.IFieldMappingTypeService;
 import org.opengroup.osdu.search.util.*;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -79,7 +123,13 @@ abstract class CoreQueryBase {
   @Autowired private SuggestionsQueryUtil suggestionsQueryUtil;
   @Autowired public IFeatureFlag featureFlag;
   @Autowired private CollaborationContextFactory collaborationContextFactory;
-  @Autowired private SearchConfigurationProperties searchConfigurationProperties;
+  @Autowired SearchConfigurationProperties searchConfigurationProperties;
+  @Autowired private QueryDslCache queryDslCache;
+  @Autowired private SearchRequestCoalescer searchRequestCoalescer;
+  @Autowired private RequestDeadline requestDeadline;
+  @Autowired private SearchRetryPolicy searchRetryPolicy;
+  @Autowired private PartitionIsolation partitionIsolation;
+  @Autowired private IFieldMappingTypeService fieldMappingTypeService;
 
   // if returnedField contains property matching from excludes than query result will NOT include
   // that property
@@ -94,22 +144,15 @@ abstract class CoreQueryBase {
       throws AppException, IOException {
 
     BoolQuery.Builder queryBuilder = new BoolQuery.Builder();
-    if (!Strings.isNullOrEmpty(simpleQuery)) {
-      BoolQuery.Builder textQueryBuilder =
-          queryParserUtil.buildQueryBuilderFromQueryString(simpleQuery);
-      if (textQueryBuilder != null) {
-        queryBuilder.must(textQueryBuilder.build()._toQuery());
-      }
+    CompiledQuery compiledQuery = getCompiledQuery(simpleQuery, spatialFilter);
+    if (compiledQuery.textQuery() != null) {
+      queryBuilder.must(compiledQuery.textQuery());
     }
-
-    // use only one of the spatial request
-    if (Objects.nonNull(spatialFilter)) {
-      var spatialQuery = this.geoQueryBuilder.getGeoQuery(spatialFilter);
-      if (spatialQuery != null) {
-        queryBuilder.filter(spatialQuery);
-      }
+    if (compiledQuery.spatialQuery() != null) {
+      queryBuilder.filter(compiledQuery.spatialQuery());
     }
 
+    // collaboration and authorization clauses depend on the caller and are never cached
     if (featureFlag.isFeatureEnabled(COLLABORATIONS_FEATURE_NAME)) {
       Optional<CollaborationContext> collaborationContext =
           collaborationContextFactory.create(dpsHeaders.getCollaboration());
@@ -138,6 +181,34 @@ abstract class CoreQueryBase {
     }
   }
 
+  private CompiledQuery getCompiledQuery(String simpleQuery, SpatialFilter spatialFilter)
+      throws IOException {
+    String cacheKey = QueryDslCache.cacheKey(simpleQuery, spatialFilter);
+    CompiledQuery compiledQuery = this.queryDslCache.get(cacheKey);
+    if (compiledQuery != null) {
+      return compiledQuery;
+    }
+
+    co.elastic.clients.elasticsearch._types.query_dsl.Query textQuery = null;
+    if (!Strings.isNullOrEmpty(simpleQuery)) {
+      BoolQuery.Builder textQueryBuilder =
+          queryParserUtil.buildQueryBuilderFromQueryString(simpleQuery);
+      if (textQueryBuilder != null) {
+        textQuery = textQueryBuilder.build()._toQuery();
+      }
+    }
+
+    // use only one of the spatial request
+    co.elastic.clients.elasticsearch._types.query_dsl.Query spatialQuery = null;
+    if (Objects.nonNull(spatialFilter)) {
+      spatialQuery = this.geoQueryBuilder.getGeoQuery(spatialFilter);
+    }
+
+    compiledQuery = new CompiledQuery(textQuery, spatialQuery);
+    this.queryDslCache.put(cacheKey, compiledQuery);
+    return compiledQuery;
+  }
+
   private BoolQuery.Builder getQueryBuilderWithAuthorization(
       BoolQuery.Builder queryBuilder, boolean asOwner) {
     if (userHasFullDataAccess()) {
@@ -183,7 +254,14 @@ abstract class CoreQueryBase {
     if (searchHits.hits() != null && !searchHits.hits().isEmpty()) {
       for (Hit<Map<String, Object>> hit : searchHits.hits()) {
         Map<String, Object> hitFields = hit.source();
+        if (hitFields == null) {
+          // read from doc values, a document without values for any of them has no fields at all
+          hitFields =
+              hit.fields().isEmpty() ? new HashMap<>() : getDocValueDocument(hit.fields());
+        }
         if (hit.highlight() != null && !hit.highlight().isEmpty()) {
+          // the response may be shared by coalesced searches, leave its documents untouched
+          hitFields = new HashMap<>(hitFields);
           Map<String, List<String>> highlights = new HashMap<>();
           for (Map.Entry<String, List<String>> entry : hit.highlight().entrySet()) {
             String fieldName = entry.getKey();
@@ -199,8 +277,14 @@ abstract class CoreQueryBase {
     return results;
   }
 
+  private Map<String, Object> getDocValueDocument(Map<String, JsonData> fields) {
+    Map<String, List<?>> values = new HashMap<>();
+    fields.forEach((fieldName, value) -> values.put(fieldName, value.to(List.class)));
+    return DocValueFields.toDocument(values);
+  }
+
   List<AggregationResponse> getAggregationFromSearchResponse(
-      SearchResponse<Map<String, Object>> searchResponse) {
+      ResponseBody<Map<String, Object>> searchResponse) {
     List<AggregationResponse> results = null;
     if (searchResponse.aggregations() != null) {
       TermsAggregateBase kindAgg = null;
@@ -270,7 +354,7 @@ abstract class CoreQueryBase {
 
     sourceBuilder.size(QueryUtils.getResultSizeForQuery(request.getLimit()));
     sourceBuilder.query(queryBuilder.build()._toQuery());
-    sourceBuilder.timeout(REQUEST_TIMEOUT.time());
+    sourceBuilder.timeout(getSearchTimeout());
 
     // set suggester
     if (!Objects.isNull(suggestBuilder)) {
@@ -325,82 +409,607 @@ abstract class CoreQueryBase {
     int statusCode = 0;
 
     try {
-      String index = this.getIndex(searchRequest);
-      SearchRequest.Builder elasticSearchRequestBuilder =
-          createElasticRequest(searchRequest, index);
-      if (searchRequest.getSort() != null) {
-        List<SortOptions> sortBuilders =
-            this.sortParserUtil.getSortQuery(client, searchRequest.getSort(), index);
-        elasticSearchRequestBuilder.sort(sortBuilders);
-      }
-
-      elasticSearchRequest = elasticSearchRequestBuilder.build();
+      elasticSearchRequest = buildSearchRequest(searchRequest, client);
 
       startTime = System.currentTimeMillis();
-      searchResponse = client.search(elasticSearchRequest, (Type) Map.class);
+      searchResponse = executeSearch(elasticSearchRequest, client);
       statusCode = 200;
       return searchResponse;
     } catch (ElasticsearchException e) {
-      statusCode = e.status();
-      switch (e.status()) {
-        case 404:
-          throw new AppException(
-              HttpServletResponse.SC_NOT_FOUND,
-              "Not Found",
-              "Resource you are trying to find does not exists",
-              e);
-        case 400:
-          throw new AppException(
-              HttpServletResponse.SC_BAD_REQUEST,
-              "Bad Request",
-              detailedBadRequestMessageUtil.getDetailedBadRequestMessage(elasticSearchRequest, e),
-              e);
-        case 503:
-          throw new AppException(
-              HttpServletResponse.SC_SERVICE_UNAVAILABLE,
-              "Search error",
-              "Please re-try search after some time.",
-              e);
-        case 429:
-          throw new AppException(
-              429, "Too many requests", "Too many requests, please re-try after some time", e);
-        default:
-          statusCode = 500;
-          throw new AppException(
-              HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
-              "Search error",
-              "Error processing search request",
-              e);
-      }
+      AppException appException = getSearchException(e.status(), elasticSearchRequest, e);
+      statusCode = appException.getError().getCode();
+      throw appException;
     } catch (AppException e) {
         throw e;
     } catch (Exception e) {
-        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
-        String message = "Error processing search request";
-        String reason = "Search error";
-
-        if (isTimeout(e)) {
-            status = HttpServletResponse.SC_GATEWAY_TIMEOUT;
-            message = String.format("Request timed out after waiting for %s", REQUEST_TIMEOUT.time());
-        } else if (isJacksonSizeLimitReached(e)) {
-            status = HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE;
-            reason = "Response is too long";
-            message = String.format("Elasticsearch response is too long, max is %dMb",
-                    searchConfigurationProperties.getElasticMaxResponseSizeMb());
-        }
-
-        throw new AppException(status, reason, message, e);
+        throw getSearchException(e);
     } finally {
       Long latency = System.currentTimeMillis() - startTime;
-      if (elasticLoggingConfig.getEnabled() || latency > elasticLoggingConfig.getThreshold()) {
-        String request =
-            elasticSearchRequest != null
-                ? elasticSearchRequest.query().toString()
-                : searchRequest.toString();
-        this.log.debug(String.format("Elastic request-payload: %s", request));
+      logSearchRequest(searchRequest, elasticSearchRequest, latency);
+      this.tracingLogger.log(searchRequest, latency, statusCode);
+      this.auditLog(searchRequest, searchResponse != null);
+    }
+  }
+
+  private SearchResponse<Map<String, Object>> executeSearch(
+      SearchRequest elasticSearchRequest, ElasticsearchClient client) throws IOException {
+    // scroll and point in time searches open a cursor per caller, those are never shared
+    if (elasticSearchRequest.scroll() != null
+        || elasticSearchRequest.pit() != null
+        || !searchConfigurationProperties.isSearchCoalescingEnabled()) {
+      return search(elasticSearchRequest, client);
+    }
+    String key = getCoalescingKey(elasticSearchRequest, client._jsonpMapper()) + ":" + getCallerScopeKey();
+    long timeoutMillis =
+        requestDeadline.isEnabled() ? requestDeadline.getRemainingMillis() : Long.MAX_VALUE;
+    return searchRequestCoalescer.execute(
+        key, timeoutMillis, () -> search(elasticSearchRequest, client));
+  }
+
+  /**
+   * Hash of the indices and the body of the search. The timeout is left out, under a request
+   * deadline it is the time left of each request and would set apart otherwise identical searches.
+   */
+  static String getCoalescingKey(SearchRequest elasticSearchRequest, JsonpMapper mapper) {
+    JsonObject body =
+        Json.createObjectBuilder(JsonData.of(elasticSearchRequest).toJson(mapper).asJsonObject())
+            .remove("timeout")
+            .build();
+    return Hashing.sha256()
+        .hashString(
+            String.join(",", elasticSearchRequest.index()) + "\n" + body, StandardCharsets.UTF_8)
+        .toString();
+  }
+
+  /**
+   * Type the hit documents are decoded into. {@link LazyHit} keeps each {@code _source} as tokens
+   * until it is read, hits that are only returned are copied to the response without becoming maps.
+   */
+  Type getDocumentType() {
+    return searchConfigurationProperties.isLazyHitDecodingEnabled() ? LazyHit.class : Map.class;
+  }
+
+  /**
+   * Runs the search within the request deadline, retrying rejections of an overloaded cluster
+   * while the deadline leaves room for the backoff.
+   */
+  SearchResponse<Map<String, Object>> search(
+      SearchRequest elasticSearchRequest, ElasticsearchClient client) throws IOException {
+    if (!searchRetryPolicy.isEnabled()) {
+      return searchOnce(elasticSearchRequest, client);
+    }
+    LongSupplier remainingMillis =
+        requestDeadline.isEnabled() ? requestDeadline::getRemainingMillis : () -> Long.MAX_VALUE;
+    return searchRetryPolicy.execute(
+        () -> searchOnce(elasticSearchRequest, client), remainingMillis);
+  }
+
+  /**
+   * Past the deadline the HTTP request is aborted, Elasticsearch cancels the search task once its
+   * connection is closed.
+   */
+  private SearchResponse<Map<String, Object>> searchOnce(
+      SearchRequest elasticSearchRequest, ElasticsearchClient client) throws IOException {
+    boolean hedged = isHedged(elasticSearchRequest);
+    if (!requestDeadline.isEnabled() && !hedged) {
+      return executeIsolated(() -> client.search(elasticSearchRequest, getDocumentType()));
+    }
+    ElasticsearchAsyncClient asyncClient =
+        new ElasticsearchAsyncClient(client._transport(), client._transportOptions());
+    CompletableFuture<SearchResponse<Map<String, Object>>> future =
+        searchAsync(elasticSearchRequest, asyncClient, hedged);
+    try {
+      return getWithinDeadline(future);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (e.getCause() instanceof IOException ioException) {
+        throw ioException;
+      }
+      throw new IOException(e.getCause());
+    }
+  }
+
+  /** Waits for the call until the deadline of the request, past it the call is cancelled. */
+  <T> T getWithinDeadline(CompletableFuture<T> future) throws ExecutionException {
+    try {
+      return requestDeadline.isEnabled()
+          ? future.get(requestDeadline.getRemainingMillis(), TimeUnit.MILLISECONDS)
+          : future.get();
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      throw getDeadlineExceededException(e);
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw getDeadlineExceededException(e);
+    }
+  }
+
+  private CompletableFuture<SearchResponse<Map<String, Object>>> searchAsync(
+      SearchRequest elasticSearchRequest, ElasticsearchAsyncClient asyncClient, boolean hedged) {
+    // a hedge is a call of its own, it needs a slot of the partition as well but never waits for
+    // one. It starts off the request thread, so the partition is resolved while the request is
+    // still bound
+    String partitionId = dpsHeaders.getPartitionId();
+    Supplier<CompletableFuture<SearchResponse<Map<String, Object>>>> search =
+        () ->
+            executeIsolatedAsync(
+                partitionId, () -> asyncClient.search(elasticSearchRequest, getDocumentType()));
+    if (!hedged) {
+      return search.get();
+    }
+    return searchRetryPolicy.hedge(
+        search,
+        () ->
+            tryExecuteIsolatedAsync(
+                partitionId, () -> asyncClient.search(elasticSearchRequest, getDocumentType())));
+  }
+
+  /** Runs the Elasticsearch call within the bulkhead and circuit breaker of the partition. */
+  <T> T executeIsolated(ElasticCall<T> call) throws IOException {
+    if (!partitionIsolation.isEnabled()) {
+      return call.execute();
+    }
+    return partitionIsolation.execute(dpsHeaders.getPartitionId(), call);
+  }
+
+  <T> CompletableFuture<T> executeIsolatedAsync(Supplier<CompletableFuture<T>> call) {
+    if (!partitionIsolation.isEnabled()) {
+      return call.get();
+    }
+    return partitionIsolation.executeAsync(dpsHeaders.getPartitionId(), call);
+  }
+
+  /** For calls that may be skipped, {@code null} when the partition has no slot free. */
+  <T> CompletableFuture<T> tryExecuteIsolatedAsync(Supplier<CompletableFuture<T>> call) {
+    if (!partitionIsolation.isEnabled()) {
+      return call.get();
+    }
+    return partitionIsolation.tryExecuteAsync(dpsHeaders.getPartitionId(), call);
+  }
+
+  /** For calls started where no request is bound, with the partition resolved beforehand. */
+  <T> CompletableFuture<T> executeIsolatedAsync(
+      String partitionId, Supplier<CompletableFuture<T>> call) {
+    if (!partitionIsolation.isEnabled()) {
+      return call.get();
+    }
+    return partitionIsolation.executeAsync(partitionId, call);
+  }
+
+  /** For calls that may be skipped, started where no request is bound. */
+  <T> CompletableFuture<T> tryExecuteIsolatedAsync(
+      String partitionId, Supplier<CompletableFuture<T>> call) {
+    if (!partitionIsolation.isEnabled()) {
+      return call.get();
+    }
+    return partitionIsolation.tryExecuteAsync(partitionId, call);
+  }
+
+  /** Caps the calls a single request runs concurrently at the bulkhead of the partition. */
+  int getMaxConcurrentCalls(int requested) {
+    return Math.max(1, Math.min(requested, partitionIsolation.getMaxConcurrentCalls()));
+  }
+
+  // a duplicate of a scroll search would leave an orphaned scroll context behind
+  private boolean isHedged(SearchRequest elasticSearchRequest) {
+    return searchRetryPolicy.isHedgingEnabled() && elasticSearchRequest.scroll() == null;
+  }
+
+  private String getSearchTimeout() {
+    return requestDeadline.isEnabled()
+        ? requestDeadline.getRemainingMillis() + "ms"
+        : REQUEST_TIMEOUT.time();
+  }
+
+  private AppException getDeadlineExceededException(Exception e) {
+    return new AppException(
+        HttpServletResponse.SC_GATEWAY_TIMEOUT,
+        "Search error",
+        String.format(
+            "Request deadline of %dms exceeded", requestDeadline.getTimeoutMillis()),
+        e);
+  }
+
+  /** Cancelling {@code dependent} also cancels {@code source}, e.g. the Elasticsearch call. */
+  static <T> CompletableFuture<T> propagateCancellation(
+      CompletableFuture<?> source, CompletableFuture<T> dependent) {
+    dependent.whenComplete(
+        (result, throwable) -> {
+          if (dependent.isCancelled()) {
+            source.cancel(true);
+          }
+        });
+    return dependent;
+  }
+
+  /**
+   * Executes the queries in a single _msearch round trip. Every request is built exactly like in
+   * {@link #makeSearchRequest(Query, ElasticsearchClient)}; a query that cannot be built or that
+   * fails in Elasticsearch only fails its own item. Results are returned in request order.
+   */
+  List<MultiSearchResult> makeMultiSearchRequest(
+      List<? extends Query> searchRequests, ElasticsearchClient client) {
+    MultiSearchResult[] results = new MultiSearchResult[searchRequests.size()];
+    SearchRequest[] elasticSearchRequests = new SearchRequest[searchRequests.size()];
+    List<RequestItem> requestItems = new ArrayList<>();
+    List<Integer> positions = new ArrayList<>();
+    JsonpMapper mapper = client._jsonpMapper();
+
+    for (int i = 0; i < searchRequests.size(); i++) {
+      Query searchRequest = searchRequests.get(i);
+      try {
+        elasticSearchRequests[i] = buildSearchRequest(searchRequest, client);
+        requestItems.add(toMultiSearchItem(elasticSearchRequests[i], mapper));
+        positions.add(i);
+      } catch (Exception e) {
+        AppException appException = e instanceof AppException ex ? ex : getSearchException(e);
+        results[i] = getFailedResult(searchRequest, null, appException, 0L);
+      }
+    }
+    if (requestItems.isEmpty()) {
+      return Arrays.asList(results);
+    }
+
+    long startTime = System.currentTimeMillis();
+    List<MultiSearchResponseItem<Map<String, Object>>> responses = null;
+    Exception requestFailure = null;
+    try {
+      MsearchRequest msearchRequest = MsearchRequest.of(m -> m.searches(requestItems));
+      MsearchResponse<Map<String, Object>> msearchResponse =
+          executeIsolated(() -> client.msearch(msearchRequest, getDocumentType()));
+      responses = msearchResponse.responses();
+    } catch (Exception e) {
+      requestFailure = e;
+    }
+    Long latency = System.currentTimeMillis() - startTime;
+
+    for (int j = 0; j < positions.size(); j++) {
+      int i = positions.get(j);
+      Query searchRequest = searchRequests.get(i);
+      SearchRequest elasticSearchRequest = elasticSearchRequests[i];
+      if (requestFailure != null) {
+        // the whole round trip failed, every pending query reports the same cause
+        AppException appException = getSearchException(requestFailure, elasticSearchRequest);
+        results[i] = getFailedResult(searchRequest, elasticSearchRequest, appException, latency);
+        continue;
+      }
+
+      MultiSearchResponseItem<Map<String, Object>> responseItem = responses.get(j);
+      if (responseItem.isFailure()) {
+        ErrorResponse failure = responseItem.failure();
+        AppException appException =
+            getSearchException(
+                failure.status(),
+                elasticSearchRequest,
+                new ElasticsearchException("msearch", failure));
+        results[i] = getFailedResult(searchRequest, elasticSearchRequest, appException, latency);
+      } else {
+        logSearchRequest(searchRequest, elasticSearchRequest, latency);
+        this.tracingLogger.log(searchRequest, latency, 200);
+        this.auditLog(searchRequest, true);
+        results[i] = new MultiSearchResult(responseItem.result(), null);
       }
+    }
+    return Arrays.asList(results);
+  }
+
+  private MultiSearchResult getFailedResult(
+      Query searchRequest, SearchRequest elasticSearchRequest, AppException e, Long latency) {
+    logSearchRequest(searchRequest, elasticSearchRequest, latency);
+    this.tracingLogger.log(searchRequest, latency, e.getError().getCode());
+    this.auditLog(searchRequest, false);
+    return new MultiSearchResult(null, e);
+  }
+
+  private RequestItem toMultiSearchItem(SearchRequest elasticSearchRequest, JsonpMapper mapper) {
+    MultisearchHeader header =
+        MultisearchHeader.of(
+            h ->
+                h.index(elasticSearchRequest.index())
+                    .allowNoIndices(elasticSearchRequest.allowNoIndices())
+                    .expandWildcards(elasticSearchRequest.expandWildcards())
+                    .ignoreUnavailable(elasticSearchRequest.ignoreUnavailable())
+                    .ignoreThrottled(elasticSearchRequest.ignoreThrottled())
+                    .searchType(elasticSearchRequest.searchType())
+                    .ccsMinimizeRoundtrips(elasticSearchRequest.ccsMinimizeRoundtrips()));
+    // the search body and the msearch body share the same JSON representation
+    String body = JsonData.of(elasticSearchRequest).toJson(mapper).toString();
+    return RequestItem.of(
+        r -> r.header(header).body(JsonData.fromJson(body).to(MultisearchBody.class, mapper)));
+  }
+
+  /** Outcome of one query of a multi search, either a response or the error it failed with. */
+  record MultiSearchResult(ResponseBody<Map<String, Object>> response, AppException exception) {}
+
+  /**
+   * Asynchronous variant of {@link #makeSearchRequest(Query, ElasticsearchClient)}. The request is
+   * built on the calling thread, where the request scoped state (user groups, policy, headers) is
+   * available; only the Elasticsearch round trip is asynchronous. Logging, error mapping and
+   * auditing run on {@code executor} once the response arrives.
+   */
+  CompletableFuture<SearchResponse<Map<String, Object>>> makeSearchRequestAsync(
+      Query searchRequest,
+      ElasticsearchClient client,
+      ElasticsearchAsyncClient asyncClient,
+      Executor executor) {
+    SearchRequest elasticSearchRequest;
+    try {
+      elasticSearchRequest = buildSearchRequest(searchRequest, client);
+    } catch (Exception e) {
+      AppException appException = e instanceof AppException ex ? ex : getSearchException(e);
+      logSearchRequest(searchRequest, null, 0L);
+      this.tracingLogger.log(searchRequest, 0L, 0);
+      this.auditLog(searchRequest, false);
+      return CompletableFuture.failedFuture(appException);
+    }
+
+    long startTime = System.currentTimeMillis();
+    CompletableFuture<SearchResponse<Map<String, Object>>> future =
+        searchAsync(elasticSearchRequest, asyncClient, isHedged(elasticSearchRequest));
+    CompletableFuture<SearchResponse<Map<String, Object>>> response =
+        future.handleAsync(
+            (searchResponse, throwable) -> {
+              Long latency = System.currentTimeMillis() - startTime;
+              int statusCode = 200;
+              try {
+                if (throwable != null) {
+                  AppException appException = getSearchException(throwable, elasticSearchRequest);
+                  statusCode = appException.getError().getCode();
+                  throw appException;
+                }
+                return searchResponse;
+              } finally {
+                logSearchRequest(searchRequest, elasticSearchRequest, latency);
+                this.tracingLogger.log(searchRequest, latency, statusCode);
+                this.auditLog(searchRequest, throwable == null);
+              }
+            },
+            executor);
+    return propagateCancellation(future, response);
+  }
+
+  /**
+   * Executes the search through the low-level REST client and returns the raw Elasticsearch
+   * response, leaving hit decoding to the caller. The request is built exactly like {@link
+   * #makeSearchRequest(Query, ElasticsearchClient)} so both paths stay interchangeable.
+   */
+  Response makeRawSearchRequest(Query searchRequest, ElasticsearchClient client) {
+    long startTime = 0L;
+    SearchRequest elasticSearchRequest = null;
+
+    Response response = null;
+    int statusCode = 0;
+
+    try {
+      elasticSearchRequest = buildSearchRequest(searchRequest, client);
+      // keep the same response size limit as the typed client path
+      Request request =
+          toLowLevelRequest(
+              elasticSearchRequest,
+              client,
+              new HttpAsyncResponseConsumerFactory.HeapBufferedResponseConsumerFactory(
+                  getMaxResponseSizeBytes()));
+      RestClient restClient = ((RestClientTransport) client._transport()).restClient();
+
+      startTime = System.currentTimeMillis();
+      response = executeIsolated(() -> restClient.performRequest(request));
+      statusCode = 200;
+      return response;
+    } catch (ResponseException e) {
+      AppException appException =
+          getSearchException(
+              e.getResponse().getStatusLine().getStatusCode(), elasticSearchRequest, e);
+      statusCode = appException.getError().getCode();
+      throw appException;
+    } catch (AppException e) {
+      throw e;
+    } catch (Exception e) {
+      throw getSearchException(e);
+    } finally {
+      Long latency = System.currentTimeMillis() - startTime;
+      logSearchRequest(searchRequest, elasticSearchRequest, latency);
       this.tracingLogger.log(searchRequest, latency, statusCode);
-      this.auditLog(searchRequest, searchResponse);
+      this.auditLog(searchRequest, response != null);
+    }
+  }
+
+  /**
+   * Executes the search through the low-level REST client and keeps the hits that fit into the
+   * response size limit instead of failing once the response is larger. The rest of the body is
+   * dropped as it arrives, the response ends with the last hit that was received entirely.
+   */
+  PartialSearchResponse searchWithinResponseSizeLimit(
+      SearchRequest elasticSearchRequest, ElasticsearchClient client) throws IOException {
+    BoundedResponseConsumerFactory consumerFactory =
+        new BoundedResponseConsumerFactory(getMaxResponseSizeBytes());
+    Request request = toLowLevelRequest(elasticSearchRequest, client, consumerFactory);
+    RestClient restClient = ((RestClientTransport) client._transport()).restClient();
+
+    Response response = executeIsolated(() -> restClient.performRequest(request));
+    byte[] body = EntityUtils.toByteArray(response.getEntity());
+    boolean truncated = consumerFactory.isTruncated();
+    if (truncated) {
+      body = BoundedResponseConsumerFactory.completeAfterLastHit(body);
+      if (body == null) {
+        throw new IOException(
+            new ContentTooLongException("Not a single hit fits into the response size limit"));
+      }
+    }
+    JsonpMapper mapper = client._transport().jsonpMapper();
+    try (JsonParser parser = mapper.jsonProvider().createParser(new ByteArrayInputStream(body))) {
+      SearchResponse<Map<String, Object>> searchResponse =
+          SearchResponse.createSearchResponseDeserializer(
+                  JsonpDeserializer.<Map<String, Object>>of(getDocumentType()))
+              .deserialize(parser, mapper);
+      return new PartialSearchResponse(searchResponse, truncated);
+    }
+  }
+
+  /** Search response that may lack the hits which did not fit, truncated tells whether it does. */
+  record PartialSearchResponse(SearchResponse<Map<String, Object>> response, boolean truncated) {}
+
+  SearchRequest buildSearchRequest(Query searchRequest, ElasticsearchClient client)
+      throws IOException {
+    String index = this.getIndex(searchRequest);
+    SearchRequest.Builder elasticSearchRequestBuilder = createElasticRequest(searchRequest, index);
+    if (searchRequest.getSort() != null) {
+      List<SortOptions> sortBuilders =
+          this.sortParserUtil.getSortQuery(client, searchRequest.getSort(), index);
+      elasticSearchRequestBuilder.sort(sortBuilders);
+    }
+    if (searchConfigurationProperties.isDocValueFieldsEnabled()
+        && isDocValueRequest(searchRequest, client, index)) {
+      elasticSearchRequestBuilder
+          .source(SourceConfig.of(sc -> sc.fetch(false)))
+          .docvalueFields(
+              searchRequest.getReturnedFields().stream()
+                  .distinct()
+                  .map(field -> FieldAndFormat.of(f -> f.field(field)))
+                  .toList());
+    }
+    return elasticSearchRequestBuilder.build();
+  }
+
+  /**
+   * Whether all returned fields can be read from doc values, which spares Elasticsearch loading
+   * and decompressing the stored {@code _source} of every hit. Only the scalar record attributes of
+   * {@link DocValueFields#SCALAR_FIELDS} qualify, their doc values render exactly like the source.
+   */
+  private boolean isDocValueRequest(Query searchRequest, ElasticsearchClient client, String index)
+      throws IOException {
+    List<String> returnedFields = searchRequest.getReturnedFields();
+    if (returnedFields == null
+        || returnedFields.isEmpty()
+        || returnedFields.size() > searchConfigurationProperties.getDocValueFieldsMaximum()
+        || searchRequest.getHighlightedFields() != null) {
+      return false;
+    }
+    for (String field : returnedFields) {
+      if (!DocValueFields.SCALAR_FIELDS.contains(field) || excludes.contains(field)) {
+        return false;
+      }
+    }
+    return this.fieldMappingTypeService
+        .getDocValueFields(client, returnedFields, index)
+        .keySet()
+        .containsAll(returnedFields);
+  }
+
+  private Request toLowLevelRequest(
+      SearchRequest elasticSearchRequest,
+      ElasticsearchClient client,
+      HttpAsyncResponseConsumerFactory consumerFactory) {
+    JsonpMapper mapper = client._transport().jsonpMapper();
+    Request request =
+        new Request(
+            SearchRequest._ENDPOINT.method(elasticSearchRequest),
+            SearchRequest._ENDPOINT.requestUrl(elasticSearchRequest));
+    request.addParameters(SearchRequest._ENDPOINT.queryParameters(elasticSearchRequest));
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (JsonGenerator generator = mapper.jsonProvider().createGenerator(body)) {
+      mapper.serialize(elasticSearchRequest, generator);
+    }
+    request.setEntity(new ByteArrayEntity(body.toByteArray(), ContentType.APPLICATION_JSON));
+
+    RequestOptions.Builder options =
+        RequestOptions.DEFAULT.toBuilder().setHttpAsyncResponseConsumerFactory(consumerFactory);
+    // the partition's credentials travel with the client options, the REST client is shared
+    if (client._transportOptions() != null) {
+      client._transportOptions().headers().forEach(h -> options.addHeader(h.getKey(), h.getValue()));
+    }
+    request.setOptions(options);
+    return request;
+  }
+
+  private int getMaxResponseSizeBytes() {
+    return searchConfigurationProperties.getElasticMaxResponseSizeMb() * 1024 * 1024;
+  }
+
+  private AppException getSearchException(
+      int status, SearchRequest elasticSearchRequest, Exception e) {
+    switch (status) {
+      case 404:
+        return new AppException(
+            HttpServletResponse.SC_NOT_FOUND,
+            "Not Found",
+            "Resource you are trying to find does not exists",
+            e);
+      case 400:
+        return new AppException(
+            HttpServletResponse.SC_BAD_REQUEST,
+            "Bad Request",
+            detailedBadRequestMessageUtil.getDetailedBadRequestMessage(elasticSearchRequest, e),
+            e);
+      case 503:
+        return new AppException(
+            HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+            "Search error",
+            "Please re-try search after some time.",
+            e);
+      case 429:
+        return new AppException(
+            429, "Too many requests", "Too many requests, please re-try after some time", e);
+      default:
+        return new AppException(
+            HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+            "Search error",
+            "Error processing search request",
+            e);
+    }
+  }
+
+  AppException getSearchException(Throwable throwable, SearchRequest elasticSearchRequest) {
+    Throwable cause =
+        throwable instanceof CompletionException && throwable.getCause() != null
+            ? throwable.getCause()
+            : throwable;
+    if (cause instanceof AppException e) {
+      return e;
+    }
+    if (cause instanceof CancellationException e) {
+      // cancelled once the request deadline passed or the client went away
+      return getDeadlineExceededException(e);
+    }
+    if (cause instanceof ElasticsearchException e) {
+      return getSearchException(e.status(), elasticSearchRequest, e);
+    }
+    if (cause instanceof ResponseException e) {
+      return getSearchException(
+          e.getResponse().getStatusLine().getStatusCode(), elasticSearchRequest, e);
+    }
+    return getSearchException(
+        cause instanceof Exception e ? e : new CompletionException(cause));
+  }
+
+  private AppException getSearchException(Exception e) {
+    int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    String message = "Error processing search request";
+    String reason = "Search error";
+
+    if (isTimeout(e)) {
+      status = HttpServletResponse.SC_GATEWAY_TIMEOUT;
+      message = String.format("Request timed out after waiting for %s", REQUEST_TIMEOUT.time());
+    } else if (isResponseSizeLimitReached(e)) {
+      status = HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE;
+      reason = "Response is too long";
+      message = String.format("Elasticsearch response is too long, max is %dMb",
+              searchConfigurationProperties.getElasticMaxResponseSizeMb());
+    }
+
+    return new AppException(status, reason, message, e);
+  }
+
+  private void logSearchRequest(Query searchRequest, SearchRequest elasticSearchRequest, Long latency) {
+    if (elasticLoggingConfig.getEnabled() || latency > elasticLoggingConfig.getThreshold()) {
+      String request =
+          elasticSearchRequest != null
+              ? elasticSearchRequest.query().toString()
+              : searchRequest.toString();
+      this.log.debug(String.format("Elastic request-payload: %s", request));
     }
   }
 
@@ -411,8 +1020,8 @@ abstract class CoreQueryBase {
 
   abstract void queryFailedAuditLogger(Query request);
 
-  private void auditLog(Query searchRequest, SearchResponse searchResponse) {
-    if (searchResponse != null) {
+  void auditLog(Query searchRequest, boolean succeeded) {
+    if (succeeded) {
       this.querySuccessAuditLogger(searchRequest);
       return;
     }
@@ -425,11 +1034,11 @@ abstract class CoreQueryBase {
         (msg != null && (msg.contains("listener timeout") || msg.contains("timeout on connection")));
   }
 
-  private boolean isJacksonSizeLimitReached(Throwable t) {
+  private boolean isResponseSizeLimitReached(Throwable t) {
       int depth = 0;
       // Limit to 10 iterations to prevent infinite loops in case of circular references
       while (t != null && depth < 10) {
-          if (t instanceof StreamConstraintsException) {
+          if (t instanceof StreamConstraintsException || t instanceof ContentTooLongException) {
               return true;
           }
           t = t.getCause();
@@ -438,6 +1047,33 @@ abstract class CoreQueryBase {
       return false;
   }
 
+  // MessageDigest is stateful and not thread safe, so each cursor gets its own instance
+  String hashCursor(String rawCursor) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("MD5");
+      return HexFormat.of().withUpperCase().formatHex(digest.digest(rawCursor.getBytes()));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Everything outside the request body that shapes the built query: partition, collaboration
+   * context and the caller's data groups. Callers with equal keys get identical query DSL.
+   */
+  String getCallerScopeKey() {
+    List<String> dataGroups =
+        userContext.getDataGroups() == null ? List.of() : userContext.getDataGroups();
+    String scope =
+        String.join(
+            "|",
+            Strings.nullToEmpty(dpsHeaders.getPartitionId()),
+            Strings.nullToEmpty(dpsHeaders.getCollaboration()),
+            String.valueOf(userHasFullDataAccess()),
+            String.join(",", new TreeSet<>(dataGroups)));
+    return Hashing.sha256().hashString(scope, StandardCharsets.UTF_8).toString();
+  }
+
   private boolean userHasFullDataAccess() {
     return userContext.isRootUser();
   }
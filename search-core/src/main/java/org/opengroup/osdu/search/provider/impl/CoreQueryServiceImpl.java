@@ -18,26 +18,49 @@
 
 package org.opengroup.osdu.search.provider.impl;
 
+import static org.opengroup.osdu.search.config.SearchConfigurationProperties.AUTOCOMPLETE_FEATURE_NAME;
+
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ExpandWildcard;
 import co.elastic.clients.elasticsearch._types.SearchType;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
 import jakarta.inject.Inject;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import org.elasticsearch.client.Response;
+import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
+import org.opengroup.osdu.core.common.model.http.AppError;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.opengroup.osdu.core.common.model.search.AggregationResponse;
 import org.opengroup.osdu.core.common.model.search.Query;
 import org.opengroup.osdu.core.common.model.search.QueryRequest;
 import org.opengroup.osdu.core.common.model.search.QueryResponse;
+import org.opengroup.osdu.search.cache.QueryResultCache;
+import org.opengroup.osdu.search.cache.QueryResultCache.CachedQueryResponse;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
 import org.opengroup.osdu.search.logging.AuditLogger;
+import org.opengroup.osdu.search.model.BatchQueryRequest;
+import org.opengroup.osdu.search.model.BatchQueryResponse;
 import org.opengroup.osdu.search.provider.interfaces.IQueryService;
 import org.opengroup.osdu.search.util.ElasticClientHandler;
 import org.opengroup.osdu.search.util.IAggregationParserUtil;
 import org.opengroup.osdu.search.util.ISortParserUtil;
+import org.opengroup.osdu.search.util.QueryResponseStreamWriter;
+import org.opengroup.osdu.search.util.RequestContextExecutor;
 import org.opengroup.osdu.search.util.SuggestionsQueryUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -52,16 +75,157 @@ public class CoreQueryServiceImpl extends CoreQueryBase implements IQueryService
 
   @Autowired private ISortParserUtil sortParserUtil;
 
+  @Autowired private QueryResponseStreamWriter queryResponseStreamWriter;
+
+  @Autowired private RequestContextExecutor requestContextExecutor;
+
+  @Autowired private SearchConfigurationProperties searchConfigurationProperties;
+
+  @Autowired private QueryResultCache queryResultCache;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Inject private JaxRsDpsLog log;
+
   @Override
   public QueryResponse queryIndex(QueryRequest searchRequest) throws IOException {
     ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
     return this.executeQuery(searchRequest, client);
   }
 
+  @Override
+  public void queryIndex(QueryRequest searchRequest, OutputStream outputStream)
+      throws IOException {
+    ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
+    if (!this.searchConfigurationProperties.isQueryResultCacheEnabled()) {
+      outputStream.write(this.getQueryResponseBody(searchRequest, client));
+      return;
+    }
+
+    String generation = this.getIndexGeneration(this.getIndex(searchRequest), client);
+    if (generation == null) {
+      outputStream.write(this.getQueryResponseBody(searchRequest, client));
+      return;
+    }
+    String cacheKey = this.getResultCacheKey(searchRequest);
+    CachedQueryResponse cachedResponse = this.queryResultCache.get(cacheKey);
+    if (cachedResponse != null && generation.equals(cachedResponse.generation())) {
+      this.auditLog(searchRequest, true);
+      outputStream.write(cachedResponse.body());
+      return;
+    }
+
+    byte[] body = this.getQueryResponseBody(searchRequest, client);
+    this.queryResultCache.put(cacheKey, new CachedQueryResponse(generation, body));
+    outputStream.write(body);
+  }
+
+  /**
+   * Renders the whole response before anything reaches the caller, so that a failure while the
+   * Elasticsearch body is converted still leaves the servlet response uncommitted and is reported
+   * as an error instead of a truncated 200. Passthrough skips decoding the hits into maps, the raw
+   * body itself is heap-buffered within the response size limit like on the typed client path.
+   */
+  private byte[] getQueryResponseBody(QueryRequest searchRequest, ElasticsearchClient client)
+      throws IOException {
+    if (!this.searchConfigurationProperties.isQueryPassthroughEnabled()) {
+      return this.objectMapper.writeValueAsBytes(this.executeQuery(searchRequest, client));
+    }
+    Response response = this.makeRawSearchRequest(searchRequest, client);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    try (InputStream content = response.getEntity().getContent()) {
+      this.queryResponseStreamWriter.write(
+          content, body, featureFlag.isFeatureEnabled(AUTOCOMPLETE_FEATURE_NAME));
+    }
+    return body.toByteArray();
+  }
+
+  private String getResultCacheKey(QueryRequest searchRequest) throws IOException {
+    String request =
+        Hashing.sha256().hashBytes(this.objectMapper.writeValueAsBytes(searchRequest)).toString();
+    return request + ":" + this.getCallerScopeKey();
+  }
+
+  /**
+   * Hash of the refreshes that made changes visible to searches, taken per resolved index together
+   * with its name and uuid, so that neither refreshes moving between indices nor a recreated index
+   * can repeat an earlier generation. Null when the indices cannot be resolved, the query then
+   * bypasses the cache and reports the error.
+   */
+  private String getIndexGeneration(String index, ElasticsearchClient client) {
+    String indexKey = this.dpsHeaders.getPartitionId() + ":" + index;
+    String generation = this.queryResultCache.getGeneration(indexKey);
+    if (generation != null) {
+      return generation;
+    }
+    try {
+      IndicesStatsResponse stats =
+          client.indices().stats(s -> s.index(index).metric("refresh"));
+      SortedMap<String, Long> refreshes = new TreeMap<>();
+      stats
+          .indices()
+          .forEach(
+              (name, indexStats) ->
+                  refreshes.put(
+                      name + "/" + indexStats.uuid(),
+                      indexStats.total().refresh().externalTotal()));
+      generation =
+          Hashing.sha256().hashString(refreshes.toString(), StandardCharsets.UTF_8).toString();
+    } catch (Exception e) {
+      this.log.warning(
+          String.format("Unable to read refresh stats of %s, query result is not cached", index));
+      return null;
+    }
+    this.queryResultCache.putGeneration(indexKey, generation);
+    return generation;
+  }
+
+  @Override
+  public CompletableFuture<QueryResponse> queryIndexAsync(QueryRequest searchRequest) {
+    ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
+    ElasticsearchAsyncClient asyncClient = this.elasticClientHandler.getOrCreateAsyncRestClient();
+    CompletableFuture<SearchResponse<Map<String, Object>>> searchResponse =
+        this.makeSearchRequestAsync(
+            searchRequest, client, asyncClient, this.requestContextExecutor.forCurrentRequest());
+    return propagateCancellation(searchResponse, searchResponse.thenApply(this::getQueryResponse));
+  }
+
+  @Override
+  public BatchQueryResponse queryIndex(BatchQueryRequest batchRequest) {
+    List<QueryRequest> queries = batchRequest.getQueries();
+    int batchQueryMaximum = this.searchConfigurationProperties.getBatchQueryMaximum();
+    if (queries.size() > batchQueryMaximum) {
+      throw new AppException(
+          HttpServletResponse.SC_BAD_REQUEST,
+          "Bad Request",
+          String.format("A batch can contain at most %d queries", batchQueryMaximum));
+    }
+
+    ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
+    List<BatchQueryResponse.Item> items = new ArrayList<>();
+    for (MultiSearchResult result : this.makeMultiSearchRequest(queries, client)) {
+      if (result.exception() != null) {
+        AppError error = result.exception().getError();
+        items.add(BatchQueryResponse.Item.builder().status(error.getCode()).error(error).build());
+      } else {
+        items.add(
+            BatchQueryResponse.Item.builder()
+                .status(HttpServletResponse.SC_OK)
+                .response(this.getQueryResponse(result.response()))
+                .build());
+      }
+    }
+    return new BatchQueryResponse(items);
+  }
+
   private QueryResponse executeQuery(QueryRequest searchRequest, ElasticsearchClient client)
       throws AppException {
     SearchResponse<Map<String, Object>> searchResponse =
         this.makeSearchRequest(searchRequest, client);
+    return this.getQueryResponse(searchResponse);
+  }
+
+  private QueryResponse getQueryResponse(ResponseBody<Map<String, Object>> searchResponse) {
     List<Map<String, Object>> results = this.getHitsFromSearchResponse(searchResponse);
     List<AggregationResponse> aggregations = getAggregationFromSearchResponse(searchResponse);
 
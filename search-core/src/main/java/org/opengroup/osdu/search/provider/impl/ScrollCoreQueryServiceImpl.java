@@ -28,11 +28,7 @@ import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.xml.bind.DatatypeConverter;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 import org.apache.http.ContentTooLongException;
@@ -62,12 +58,6 @@ public class ScrollCoreQueryServiceImpl extends CoreQueryBase implements IScroll
   @Autowired private ResponseExceptionParser exceptionParser;
   @Autowired private IQueryPerformanceLogger tracingLogger;
 
-  private final MessageDigest digest;
-
-  public ScrollCoreQueryServiceImpl() throws NoSuchAlgorithmException {
-    this.digest = MessageDigest.getInstance("MD5");
-  }
-
   @Override
   public CursorQueryResponse queryIndex(CursorQueryRequest searchRequest) throws Exception {
 
@@ -166,7 +156,7 @@ public class ScrollCoreQueryServiceImpl extends CoreQueryBase implements IScroll
 
     long startTime = System.currentTimeMillis();
     ScrollResponse<Map<String, Object>> scrollResponse =
-        client.scroll(scrollRequest, (Type) Map.class);
+        this.executeIsolated(() -> client.scroll(scrollRequest, this.getDocumentType()));
     Long latency = System.currentTimeMillis() - startTime;
 
     List<Map<String, Object>> results = getHitsFromSearchResponse(scrollResponse);
@@ -229,8 +219,7 @@ public class ScrollCoreQueryServiceImpl extends CoreQueryBase implements IScroll
 
   String refreshCursorCache(String rawCursor, String userId) {
     if (rawCursor != null) {
-      this.digest.update(rawCursor.getBytes());
-      String hashCursor = DatatypeConverter.printHexBinary(this.digest.digest()).toUpperCase();
+      String hashCursor = this.hashCursor(rawCursor);
       this.cursorCache.put(
           hashCursor, CursorSettings.builder().cursor(rawCursor).userId(userId).build());
       return hashCursor;
@@ -14,26 +14,38 @@
 
 package org.opengroup.osdu.search.provider.impl;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.*;
 import co.elastic.clients.elasticsearch.core.*;
+import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
 import co.elastic.clients.json.JsonData;
-import co.elastic.clients.json.JsonpMapper;
 import co.elastic.clients.json.JsonpSerializable;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.CountingOutputStream;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.xml.bind.DatatypeConverter;
 import org.apache.http.ContentTooLongException;
 import org.apache.http.HttpStatus;
+import org.elasticsearch.client.ResponseException;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.opengroup.osdu.core.common.model.search.CursorQueryRequest;
 import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
 import org.opengroup.osdu.core.common.model.search.Query;
+import org.opengroup.osdu.core.common.model.search.QueryUtils;
+import org.opengroup.osdu.search.cache.PointInTimeReuseCache;
+import org.opengroup.osdu.search.cache.SearchAfterPrefetchCache;
+import org.opengroup.osdu.search.cache.SearchAfterPrefetchCache.PrefetchedPage;
 import org.opengroup.osdu.search.cache.SearchAfterSettingsCache;
 import org.opengroup.osdu.search.logging.AuditLogger;
 import org.opengroup.osdu.search.model.SearchAfterSettings;
@@ -41,17 +53,28 @@ import org.opengroup.osdu.search.provider.interfaces.ISearchAfterQueryService;
 import org.opengroup.osdu.search.util.ElasticClientHandler;
 import org.opengroup.osdu.search.util.IQueryPerformanceLogger;
 import org.opengroup.osdu.search.util.ISortParserUtil;
+import org.opengroup.osdu.search.util.RequestContextExecutor;
 import org.opengroup.osdu.search.util.ResponseExceptionParser;
+import org.opengroup.osdu.search.util.SearchAfterCursorCodec;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
-import java.lang.reflect.Type;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
 
 
 @Service
@@ -62,6 +85,12 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
     @Inject
     private SearchAfterSettingsCache searchAfterSettingsCache;
     @Inject
+    private SearchAfterPrefetchCache searchAfterPrefetchCache;
+    @Inject
+    private SearchAfterCursorCodec searchAfterCursorCodec;
+    @Inject
+    private PointInTimeReuseCache pointInTimeReuseCache;
+    @Inject
     private AuditLogger auditLogger;
     @Inject
     private JaxRsDpsLog logger;
@@ -71,24 +100,30 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
     private IQueryPerformanceLogger tracingLogger;
     @Inject
     private ISortParserUtil sortParserUtil;
+    @Inject
+    private RequestContextExecutor requestContextExecutor;
+    @Inject
+    private JacksonJsonpMapper elasticJsonpMapper;
+    @Inject
+    private ObjectMapper objectMapper;
 
     private final Time SEARCH_AFTER_TIMEOUT = Time.of(t -> t.time("90s"));
-    private final MessageDigest digest;
-    private final JsonpMapper mapper;
-
-    public SearchAfterQueryServiceImpl() throws NoSuchAlgorithmException {
-        this.digest = MessageDigest.getInstance("MD5");
-        this.mapper = new JacksonJsonpMapper();
-    }
+    private static final int EXPORT_PAGE_SIZE = 1000;
 
     @Override
     SearchRequest.Builder createElasticRequest(Query request, String index) throws AppException, IOException {
         // build query
         SearchRequest.Builder searchSourceBuilder = this.createSearchSourceBuilder(request);
-        // Add PIT for SearchAfter Query. [indicesOptions] cannot be used with point in time
-        String pitId = openPointInTime(index, this.elasticClientHandler.getOrCreateRestClient());
-        searchSourceBuilder.pit(pit -> pit.id(pitId).keepAlive(SEARCH_AFTER_TIMEOUT))
-                .searchType(SearchType.QueryThenFetch).batchedReduceSize(512L);
+        if (this.isLazyPointInTimeEnabled()) {
+            // one hit more than the page tells whether there is a second page that needs a point in time
+            searchSourceBuilder.index(index).ignoreUnavailable(true)
+                    .size(QueryUtils.getResultSizeForQuery(request.getLimit()) + 1);
+        } else {
+            // Add PIT for SearchAfter Query. [indicesOptions] cannot be used with point in time
+            String pitId = getPointInTime(request, index, this.elasticClientHandler.getOrCreateRestClient());
+            searchSourceBuilder.pit(pit -> pit.id(pitId).keepAlive(SEARCH_AFTER_TIMEOUT));
+        }
+        searchSourceBuilder.searchType(SearchType.QueryThenFetch).batchedReduceSize(512L);
 
         // All PIT search requests add an implicit sort tiebreaker field called _shard_doc
         if (request.getSort() == null) {
@@ -119,72 +154,296 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
                 queryResponse = this.initPaginationQueryQuery(searchRequest, client);
             }
             else {
-                SearchAfterSettings cursorSettings = this.searchAfterSettingsCache.get(searchRequest.getCursor());
-                if (cursorSettings != null) {
-                    checkAuthority(cursorSettings);
-                    if (!cursorSettings.isClosed()) {
-                        queryResponse = executeCursorPaginationQuery(searchRequest, client, cursorSettings);
-                    } else {
-                        queryResponse = CursorQueryResponse.getEmptyResponse();
-                        queryResponse.setTotalCount(cursorSettings.getTotalCount());
-                        this.searchAfterSettingsCache.delete(searchRequest.getCursor());
-                    }
+                SearchAfterSettings cursorSettings = this.getCursorSettings(searchRequest.getCursor());
+                if (!cursorSettings.isClosed()) {
+                    queryResponse = executeCursorPaginationQuery(searchRequest, client, cursorSettings);
                 } else {
-                    throw new AppException(HttpServletResponse.SC_BAD_REQUEST, "Can't find the given cursor", "The given cursor is invalid or expired");
+                    queryResponse = this.getClosedCursorResponse(searchRequest, cursorSettings);
                 }
             }
 
             return queryResponse;
-        } catch (AppException e) {
-            throw e;
-        } catch (ElasticsearchException e) {
-            String invalidScrollMessage = "No search context found for id";
-            if (e.status() == 404 && (e.getMessage().startsWith(invalidScrollMessage))
-                    || this.exceptionParser.parseException(e).stream()
-                    .anyMatch(r -> r.contains(invalidScrollMessage)))
-                throw new AppException(
+        } catch (Exception e) {
+            throw this.getCursorQueryException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<CursorQueryResponse> queryIndexAsync(CursorQueryRequest searchRequest) {
+        CompletableFuture<CursorQueryResponse> queryResponse;
+        Executor executor = this.requestContextExecutor.forCurrentRequest();
+        try {
+            ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
+            ElasticsearchAsyncClient asyncClient = this.elasticClientHandler.getOrCreateAsyncRestClient();
+            if (Strings.isNullOrEmpty(searchRequest.getCursor())) {
+                queryResponse = this.initPaginationQueryAsync(searchRequest, client, asyncClient, executor);
+            }
+            else {
+                SearchAfterSettings cursorSettings = this.getCursorSettings(searchRequest.getCursor());
+                if (!cursorSettings.isClosed()) {
+                    queryResponse = this.executeCursorPaginationQueryAsync(searchRequest, client, asyncClient, cursorSettings, executor);
+                } else {
+                    queryResponse = CompletableFuture.completedFuture(this.getClosedCursorResponse(searchRequest, cursorSettings));
+                }
+            }
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(this.getCursorQueryException(e));
+        }
+
+        return propagateCancellation(queryResponse, queryResponse.handleAsync((response, throwable) -> {
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause()
+                        : throwable;
+                throw this.getCursorQueryException(cause instanceof Exception e ? e : new CompletionException(cause));
+            }
+            return response;
+        }, executor));
+    }
+
+    /**
+     * Pages through a point in time on the request thread and writes each page before the next one
+     * is fetched. A slow reader blocks the write, which holds back the next search, so only one page
+     * per stream is kept in memory whatever the size of the result.
+     *
+     * <p>With {@code queryExportSlices} above one the point in time is split into that many slices,
+     * capped at half of the partition bulkhead, which are read concurrently and written in arrival
+     * order.
+     *
+     * <p>The last line is the status of the export, {@code {"exportStatus":"complete","count":n}}.
+     * A failure before any record was sent is an error response; once records were sent it ends the
+     * stream with {@code {"exportStatus":"failed",...}} and the error, so a stream without a status
+     * line was cut off.
+     */
+    @Override
+    public void export(CursorQueryRequest searchRequest, OutputStream outputStream) throws Exception {
+        if (searchRequest.getLimit() <= 0) {
+            searchRequest.setLimit(EXPORT_PAGE_SIZE);
+        }
+        ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
+        // an export takes at most half of the bulkhead of the partition, the other searches keep the rest
+        int slices = Math.max(1, Math.min(this.searchConfigurationProperties.getQueryExportSlices(),
+                this.getMaxConcurrentCalls(Integer.MAX_VALUE) / 2));
+        // pages are flushed as a whole, not after every record
+        ObjectWriter writer = this.objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        CountingOutputStream sent = new CountingOutputStream(outputStream);
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(sent)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            try {
+                long count = slices > 1
+                        ? this.exportSlices(searchRequest, client, slices, generator, writer)
+                        : this.exportPages(searchRequest, client, generator, writer);
+                Map<String, Object> status = new LinkedHashMap<>();
+                status.put("exportStatus", "complete");
+                status.put("count", count);
+                this.writeExportStatus(status, generator, writer);
+            } catch (Exception e) {
+                AppException exception = this.getCursorQueryException(
+                        e instanceof CompletionException && e.getCause() instanceof Exception cause ? cause : e);
+                if (sent.getCount() == 0) {
+                    throw exception;
+                }
+                // the response is committed, the records sent cannot be taken back
+                logger.error("Export failed after the first page", exception);
+                Map<String, Object> status = new LinkedHashMap<>();
+                status.put("exportStatus", "failed");
+                status.put("code", exception.getError().getCode());
+                status.put("reason", exception.getError().getReason());
+                status.put("message", exception.getError().getMessage());
+                this.writeExportStatus(status, generator, writer);
+            }
+        } catch (Exception e) {
+            throw this.getCursorQueryException(
+                    e instanceof CompletionException && e.getCause() instanceof Exception cause ? cause : e);
+        }
+    }
+
+    private long exportPages(CursorQueryRequest searchRequest, ElasticsearchClient client,
+                             JsonGenerator generator, ObjectWriter writer) throws IOException {
+        String pitId = openPointInTime(getIndex(searchRequest), client);
+        long count = 0;
+        boolean succeeded = false;
+        try {
+            List<SortOptions> sortOptionsList = this.getSortOptions(searchRequest, client);
+            SearchResponse<Map<String, Object>> searchResponse =
+                    this.search(this.buildPaginationRequest(searchRequest, pitId, sortOptionsList, null), client);
+            while (true) {
+                pitId = searchResponse.pitId() != null ? searchResponse.pitId() : pitId;
+                count += this.writePage(searchResponse, generator, writer);
+
+                List<Hit<Map<String, Object>>> hits = searchResponse.hits().hits();
+                if (hits.size() < searchRequest.getLimit()) {
+                    break;
+                }
+                SearchRequest elasticSearchRequest = this.buildPaginationRequest(
+                        searchRequest, pitId, sortOptionsList, hits.get(hits.size() - 1).sort());
+                searchResponse = this.search(elasticSearchRequest, client);
+            }
+            succeeded = true;
+        } finally {
+            this.auditLog(searchRequest, succeeded);
+            closePointInTime(pitId, client);
+        }
+        return count;
+    }
+
+    /**
+     * Every slice has at most one page in flight. The searches are sent from the request thread
+     * through the async client, so no thread is held while Elasticsearch works, and the next page of
+     * a slice is only requested once its previous page has been written.
+     */
+    private long exportSlices(CursorQueryRequest searchRequest, ElasticsearchClient client, int slices,
+                              JsonGenerator generator, ObjectWriter writer) throws IOException {
+        ElasticsearchAsyncClient asyncClient = this.elasticClientHandler.getOrCreateAsyncRestClient();
+        String pitId = openPointInTime(getIndex(searchRequest), client);
+        List<SortOptions> sortOptionsList = searchRequest.getSort() != null
+                ? this.getSortOptions(searchRequest, client)
+                : List.of(SortOptions.of(so -> so.field(f -> f.field("_shard_doc").order(SortOrder.Asc))));
+        Map<Integer, CompletableFuture<SearchResponse<Map<String, Object>>>> pages = new HashMap<>();
+        long count = 0;
+        boolean succeeded = false;
+        try {
+            for (int slice = 0; slice < slices; slice++) {
+                pages.put(slice, this.searchSlice(searchRequest, pitId, sortOptionsList, slice, slices, null, asyncClient));
+            }
+            while (!pages.isEmpty()) {
+                CompletableFuture.anyOf(pages.values().toArray(new CompletableFuture[0])).join();
+                for (Integer slice : new ArrayList<>(pages.keySet())) {
+                    CompletableFuture<SearchResponse<Map<String, Object>>> page = pages.get(slice);
+                    if (!page.isDone()) {
+                        continue;
+                    }
+                    SearchResponse<Map<String, Object>> searchResponse = page.join();
+                    pitId = searchResponse.pitId() != null ? searchResponse.pitId() : pitId;
+                    count += this.writePage(searchResponse, generator, writer);
+
+                    List<Hit<Map<String, Object>>> hits = searchResponse.hits().hits();
+                    if (hits.size() < searchRequest.getLimit()) {
+                        pages.remove(slice);
+                    } else {
+                        pages.put(slice, this.searchSlice(searchRequest, pitId, sortOptionsList, slice, slices,
+                                hits.get(hits.size() - 1).sort(), asyncClient));
+                    }
+                }
+            }
+            succeeded = true;
+        } finally {
+            pages.values().forEach(page -> page.cancel(true));
+            this.auditLog(searchRequest, succeeded);
+            closePointInTime(pitId, client);
+        }
+        return count;
+    }
+
+    private CompletableFuture<SearchResponse<Map<String, Object>>> searchSlice(
+            CursorQueryRequest searchRequest, String pitId, List<SortOptions> sortOptionsList, int slice, int slices,
+            List<FieldValue> searchAfter, ElasticsearchAsyncClient asyncClient) throws IOException {
+        SearchRequest.Builder sourceBuilder = this.createSearchSourceBuilder(searchRequest);
+        sourceBuilder.pit(pit -> pit.id(pitId).keepAlive(SEARCH_AFTER_TIMEOUT))
+                .slice(s -> s.id(String.valueOf(slice)).max(slices))
+                .sort(sortOptionsList);
+        if (searchAfter != null) {
+            sourceBuilder.searchAfter(searchAfter);
+        }
+        SearchRequest elasticSearchRequest = sourceBuilder.build();
+        return this.executeIsolatedAsync(() -> asyncClient.search(elasticSearchRequest, this.getDocumentType()));
+    }
+
+    private int writePage(SearchResponse<Map<String, Object>> searchResponse, JsonGenerator generator,
+                          ObjectWriter writer) throws IOException {
+        List<Map<String, Object>> results = this.getHitsFromSearchResponse(searchResponse);
+        for (Map<String, Object> result : results) {
+            writer.writeValue(generator, result);
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        return results.size();
+    }
+
+    private void writeExportStatus(Map<String, Object> status, JsonGenerator generator, ObjectWriter writer) throws IOException {
+        writer.writeValue(generator, status);
+        generator.writeRaw('\n');
+        generator.flush();
+    }
+
+    private SearchAfterSettings getCursorSettings(String cursor) {
+        SearchAfterSettings cursorSettings = this.readCursor(cursor);
+        if (cursorSettings == null) {
+            throw new AppException(HttpServletResponse.SC_BAD_REQUEST, "Can't find the given cursor", "The given cursor is invalid or expired");
+        }
+        checkAuthority(cursorSettings);
+        return cursorSettings;
+    }
+
+    private CursorQueryResponse getClosedCursorResponse(CursorQueryRequest searchRequest, SearchAfterSettings cursorSettings) {
+        CursorQueryResponse queryResponse = CursorQueryResponse.getEmptyResponse();
+        queryResponse.setTotalCount(cursorSettings.getTotalCount());
+        this.deleteCursor(searchRequest.getCursor());
+        return queryResponse;
+    }
+
+    private SearchAfterSettings readCursor(String cursor) {
+        return this.searchAfterCursorCodec.isStatelessCursor(cursor)
+                ? this.searchAfterCursorCodec.decode(cursor)
+                : this.searchAfterSettingsCache.get(cursor);
+    }
+
+    // a stateless cursor has nothing to delete, it ends with its point in time
+    private void deleteCursor(String cursor) {
+        if (!this.searchAfterCursorCodec.isStatelessCursor(cursor)) {
+            this.searchAfterSettingsCache.delete(cursor);
+        }
+    }
+
+    private AppException getCursorQueryException(Exception e) {
+        if (e instanceof AppException appException) {
+            return appException;
+        }
+        String invalidScrollMessage = "No search context found for id";
+        if (e instanceof ResponseException responseException) {
+            // pages searched through the low-level client, the message carries the response body
+            if (responseException.getResponse().getStatusLine().getStatusCode() == 404 && e.getMessage().contains(invalidScrollMessage))
+                return new AppException(
                         HttpStatus.SC_BAD_REQUEST,
                         "Can't find the given cursor",
                         "The given cursor is invalid or expired",
                         e);
-            throw new AppException(
-                    HttpStatus.SC_INTERNAL_SERVER_ERROR,
-                    "Search error",
-                    "Error processing search request",
-                    e);
         }
-        catch (IOException e) {
-            if (e.getCause() instanceof ContentTooLongException) {
-                throw new AppException(
-                        HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
-                        "Response is too long",
-                        "Elasticsearch response is too long, max is 100Mb",
+        else if (e instanceof ElasticsearchException elasticsearchException) {
+            if (elasticsearchException.status() == 404 && (e.getMessage().startsWith(invalidScrollMessage))
+                    || this.exceptionParser.parseException(e).stream()
+                    .anyMatch(r -> r.contains(invalidScrollMessage)))
+                return new AppException(
+                        HttpStatus.SC_BAD_REQUEST,
+                        "Can't find the given cursor",
+                        "The given cursor is invalid or expired",
                         e);
-            }
-            throw new AppException(
-                    HttpStatus.SC_INTERNAL_SERVER_ERROR,
-                    "Search error",
-                    "Error processing search request",
-                    e);
         }
-        catch (Exception e) {
-            throw new AppException(
-                    HttpStatus.SC_INTERNAL_SERVER_ERROR,
-                    "Search error",
-                    "Error processing search request",
+        else if (e instanceof IOException && e.getCause() instanceof ContentTooLongException) {
+            return new AppException(
+                    HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+                    "Response is too long",
+                    "Elasticsearch response is too long, max is 100Mb",
                     e);
         }
+        return new AppException(
+                HttpStatus.SC_INTERNAL_SERVER_ERROR,
+                "Search error",
+                "Error processing search request",
+                e);
     }
 
     @Override
     public void close(String cursor) throws Exception {
-        SearchAfterSettings cursorSettings = this.searchAfterSettingsCache.get(cursor);
+        SearchAfterSettings cursorSettings = this.readCursor(cursor);
         if(cursorSettings == null)
             return;
 
         checkAuthority(cursorSettings);
-        this.searchAfterSettingsCache.delete(cursor);
-        if(!cursorSettings.isClosed()) {
+        this.deleteCursor(cursor);
+        this.searchAfterPrefetchCache.delete(cursor);
+        if(!cursorSettings.isClosed() && !this.isPointInTimeReuseEnabled()) {
             ElasticsearchClient client = this.elasticClientHandler.getOrCreateRestClient();
             closePointInTime(cursorSettings.getPitId(), client);
         }
@@ -212,10 +471,24 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
                 builder.index(index)
                         .ignoreUnavailable(true)
                         .keepAlive(SEARCH_AFTER_TIMEOUT));
-        OpenPointInTimeResponse openResponse = client.openPointInTime(openRequest);
+        OpenPointInTimeResponse openResponse = this.executeIsolated(() -> client.openPointInTime(openRequest));
         return openResponse.id();
     }
 
+    private String getPointInTime(Query request, String index, ElasticsearchClient client) throws IOException {
+        if (!this.isPointInTimeReuseEnabled()) {
+            return openPointInTime(index, client);
+        }
+        String key = String.join("|", Strings.nullToEmpty(this.dpsHeaders.getPartitionId()),
+                this.dpsHeaders.getUserEmail(), index, this.getRequestKey(request));
+        String pitId = this.pointInTimeReuseCache.get(key);
+        if (pitId == null) {
+            pitId = openPointInTime(index, client);
+            this.pointInTimeReuseCache.put(key, pitId);
+        }
+        return pitId;
+    }
+
     private void checkAuthority(SearchAfterSettings cursorSettings) {
         if (!this.dpsHeaders.getUserEmail().equals(cursorSettings.getUserId())) {
             throw new AppException(HttpServletResponse.SC_FORBIDDEN, "cursor issuer doesn't match the cursor consumer", "cursor sharing is forbidden");
@@ -237,14 +510,128 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
 
         // Set TrackTotalCount = true to get the total count in the first query
         searchRequest.setTrackTotalCount(true);
-        SearchResponse<Map<String, Object>> searchResponse = this.makeSearchRequest(searchRequest, client);
+        PartialSearchResponse searchResponse = this.isPartialResultsEnabled()
+                ? this.searchWithinResponseSizeLimit(this.buildSearchRequest(searchRequest, client), client)
+                : new PartialSearchResponse(this.makeSearchRequest(searchRequest, client), false);
         List<SortOptions> sortOptionsList = this.getSortOptions(searchRequest, client);
+        if (this.isLazyPointInTimeEnabled() && this.hasMorePages(searchRequest, searchResponse.response(), searchResponse.truncated())) {
+            SearchRequest elasticSearchRequest = this.buildFirstPageRequest(searchRequest, client, sortOptionsList);
+            searchResponse = this.isPartialResultsEnabled()
+                    ? this.searchWithinResponseSizeLimit(elasticSearchRequest, client)
+                    : new PartialSearchResponse(this.search(elasticSearchRequest, client), false);
+        }
+        CursorQueryResponse response = processInitialSearchResponse(searchResponse.response(), searchRequest, client,
+                sortOptionsList, searchResponse.truncated());
+
+        Long latency = System.currentTimeMillis() - startTime;
+        tracingLogger.log(searchRequest, latency, 200);
+
+        return response;
+    }
+
+    private CompletableFuture<CursorQueryResponse> initPaginationQueryAsync(CursorQueryRequest searchRequest, ElasticsearchClient client,
+                                                                            ElasticsearchAsyncClient asyncClient, Executor executor) throws IOException {
+        Long startTime = System.currentTimeMillis();
+
+        // Set TrackTotalCount = true to get the total count in the first query
+        searchRequest.setTrackTotalCount(true);
+        // resolved up front as it needs the request scoped field mappings
+        List<SortOptions> sortOptionsList = this.getSortOptions(searchRequest, client);
+        CompletableFuture<SearchResponse<Map<String, Object>>> searchResponse =
+                this.makeSearchRequestAsync(searchRequest, client, asyncClient, executor);
+        if (this.isLazyPointInTimeEnabled()) {
+            CompletableFuture<SearchResponse<Map<String, Object>>> firstResponse = searchResponse;
+            searchResponse = propagateCancellation(firstResponse, firstResponse.thenComposeAsync(response ->
+                    this.hasMorePages(searchRequest, response, false)
+                            ? this.searchFirstPageAsync(searchRequest, client, asyncClient, sortOptionsList)
+                            : CompletableFuture.completedFuture(response), executor));
+        }
+        return propagateCancellation(searchResponse, searchResponse.thenApplyAsync(response -> {
+            CursorQueryResponse queryResponse = processInitialSearchResponse(response, searchRequest, client, sortOptionsList, false);
+
+            Long latency = System.currentTimeMillis() - startTime;
+            tracingLogger.log(searchRequest, latency, 200);
+
+            return queryResponse;
+        }, executor));
+    }
+
+    private CursorQueryResponse processInitialSearchResponse(SearchResponse<Map<String, Object>> searchResponse, CursorQueryRequest searchRequest,
+                                                             ElasticsearchClient client, List<SortOptions> sortOptionsList, boolean truncated) {
         SearchAfterSettings cursorSettings = SearchAfterSettings
                 .builder()
                 .userId(dpsHeaders.getUserEmail())
                 .sortOptionsJsons(this.serializeSortOptions(sortOptionsList))
                 .totalCount(searchResponse.hits().total().value()).build();
-        CursorQueryResponse response = processSearchResponse(searchResponse, searchRequest, client, cursorSettings);
+        if (searchResponse.pitId() == null && this.isLazyPointInTimeEnabled()) {
+            return processSinglePageResponse(searchResponse, searchRequest, cursorSettings);
+        }
+        return processSearchResponse(searchResponse, searchRequest, client, cursorSettings, truncated);
+    }
+
+    /**
+     * First page of a new cursor searched without a point in time, which holds all hits of the
+     * query. Its cursor is issued closed, like the one of a last page, and only reports the total.
+     */
+    private CursorQueryResponse processSinglePageResponse(SearchResponse<Map<String, Object>> searchResponse,
+                                                          CursorQueryRequest searchRequest, SearchAfterSettings cursorSettings) {
+        CursorQueryResponse queryResponse = CursorQueryResponse.getEmptyResponse();
+        queryResponse.setTotalCount(cursorSettings.getTotalCount());
+        List<Map<String, Object>> results = this.getHitsFromSearchResponse(searchResponse);
+        if (results != null && !results.isEmpty()) {
+            this.querySuccessAuditLogger(searchRequest);
+            cursorSettings.setFieldValueJsons(new ArrayList<>());
+            cursorSettings.setClosed(true);
+            queryResponse.setCursor(this.storeCursor(cursorSettings, () -> this.hashCursor(UUID.randomUUID().toString())));
+            queryResponse.setResults(results);
+        }
+        return queryResponse;
+    }
+
+    // the first search asks for one hit more than the page holds
+    private boolean hasMorePages(CursorQueryRequest searchRequest, SearchResponse<Map<String, Object>> searchResponse, boolean truncated) {
+        HitsMetadata<Map<String, Object>> searchHits = searchResponse.hits();
+        return truncated || (searchHits != null && searchHits.hits() != null
+                && searchHits.hits().size() > QueryUtils.getResultSizeForQuery(searchRequest.getLimit()));
+    }
+
+    /**
+     * The first page again, now on a point in time. The hits of the search without one are dropped,
+     * pages have to come from the same point in time and carry its tiebreaker to be continued.
+     */
+    private SearchRequest buildFirstPageRequest(CursorQueryRequest searchRequest, ElasticsearchClient client,
+                                                List<SortOptions> sortOptionsList) throws IOException {
+        String pitId = this.getPointInTime(searchRequest, getIndex(searchRequest), client);
+        return this.buildPaginationRequest(searchRequest, pitId, sortOptionsList, null);
+    }
+
+    private CompletableFuture<SearchResponse<Map<String, Object>>> searchFirstPageAsync(
+            CursorQueryRequest searchRequest, ElasticsearchClient client, ElasticsearchAsyncClient asyncClient,
+            List<SortOptions> sortOptionsList) {
+        try {
+            SearchRequest elasticSearchRequest = this.buildFirstPageRequest(searchRequest, client, sortOptionsList);
+            return this.executeIsolatedAsync(() -> asyncClient.search(elasticSearchRequest, this.getDocumentType()));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CursorQueryResponse executeCursorPaginationQuery(CursorQueryRequest searchRequest, ElasticsearchClient client, SearchAfterSettings cursorSettings) throws IOException {
+        Long startTime = System.currentTimeMillis();
+
+        SearchResponse<Map<String, Object>> prefetchedPage = this.awaitPrefetchedPage(searchRequest, cursorSettings);
+        PartialSearchResponse searchResponse;
+        if (prefetchedPage != null) {
+            searchResponse = new PartialSearchResponse(prefetchedPage, false);
+        } else {
+            SearchRequest elasticSearchRequest = this.buildCursorPaginationRequest(searchRequest, cursorSettings);
+            searchResponse = this.isPartialResultsEnabled()
+                    ? this.searchWithinResponseSizeLimit(elasticSearchRequest, client)
+                    : new PartialSearchResponse(this.search(elasticSearchRequest, client), false);
+        }
+
+        CursorQueryResponse response = processSearchResponse(searchResponse.response(), searchRequest, client,
+                cursorSettings, searchResponse.truncated());
 
         Long latency = System.currentTimeMillis() - startTime;
         tracingLogger.log(searchRequest, latency, 200);
@@ -252,29 +639,61 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
         return response;
     }
 
-    private CursorQueryResponse executeCursorPaginationQuery(CursorQueryRequest searchRequest, ElasticsearchClient client, SearchAfterSettings cursorSettings) throws IOException {
+    private CompletableFuture<CursorQueryResponse> executeCursorPaginationQueryAsync(CursorQueryRequest searchRequest, ElasticsearchClient client,
+                                                                                     ElasticsearchAsyncClient asyncClient, SearchAfterSettings cursorSettings,
+                                                                                     Executor executor) throws IOException {
         Long startTime = System.currentTimeMillis();
 
+        CompletableFuture<SearchResponse<Map<String, Object>>> prefetchedPage = this.takePrefetchedPage(searchRequest, cursorSettings);
+        SearchRequest elasticSearchRequest = this.buildCursorPaginationRequest(searchRequest, cursorSettings);
+        // a failed prefetch is searched again once it failed, off the request thread
+        String partitionId = this.dpsHeaders.getPartitionId();
+        Supplier<CompletableFuture<SearchResponse<Map<String, Object>>>> search =
+                () -> this.executeIsolatedAsync(partitionId, () -> asyncClient.search(elasticSearchRequest, this.getDocumentType()));
+        CompletableFuture<SearchResponse<Map<String, Object>>> searchResponse;
+        if (prefetchedPage != null) {
+            searchResponse = propagateCancellation(prefetchedPage, prefetchedPage.exceptionallyCompose(e ->
+                    prefetchedPage.isCancelled() ? CompletableFuture.failedFuture(e) : search.get()));
+        } else {
+            searchResponse = search.get();
+        }
+
+        return propagateCancellation(searchResponse, searchResponse.thenApplyAsync(response -> {
+            CursorQueryResponse queryResponse = processSearchResponse(response, searchRequest, client, cursorSettings, false);
+
+            Long latency = System.currentTimeMillis() - startTime;
+            tracingLogger.log(searchRequest, latency, 200);
+
+            return queryResponse;
+        }, executor));
+    }
+
+    private SearchRequest buildCursorPaginationRequest(CursorQueryRequest searchRequest, SearchAfterSettings cursorSettings) throws IOException {
         // build query
         List<SortOptions> sortOptionsList = this.deserialize(cursorSettings.getSortOptionsJsons(), SortOptions.class);
         List<FieldValue> fieldValues = this.deserialize(cursorSettings.getFieldValueJsons(), FieldValue.class);
+        return this.buildPaginationRequest(searchRequest, cursorSettings.getPitId(), sortOptionsList, fieldValues);
+    }
+
+    private SearchRequest buildPaginationRequest(CursorQueryRequest searchRequest, String pitId,
+                                                 List<SortOptions> sortOptionsList, List<FieldValue> fieldValues) throws IOException {
         SearchRequest.Builder sourceBuilder = this.createSearchSourceBuilder(searchRequest);
-        sourceBuilder.pit(pit -> pit.id(cursorSettings.getPitId()).keepAlive(SEARCH_AFTER_TIMEOUT))
+        sourceBuilder.pit(pit -> pit.id(pitId).keepAlive(SEARCH_AFTER_TIMEOUT))
                 .sort(sortOptionsList)
-                .searchAfter(fieldValues)
                 .searchType(SearchType.QueryThenFetch).batchedReduceSize(512L);
-        SearchRequest elasticSearchRequest = sourceBuilder.build();
-        SearchResponse<Map<String, Object>> searchResponse = client.search(elasticSearchRequest, (Type) Map.class);
-
-        CursorQueryResponse response = processSearchResponse(searchResponse, searchRequest, client, cursorSettings);
-
-        Long latency = System.currentTimeMillis() - startTime;
-        tracingLogger.log(searchRequest, latency, 200);
-
-        return response;
+        // the first page starts at the beginning
+        if (fieldValues != null) {
+            sourceBuilder.searchAfter(fieldValues);
+        }
+        return sourceBuilder.build();
     }
 
-    private CursorQueryResponse processSearchResponse(SearchResponse<Map<String, Object>> searchResponse, CursorQueryRequest searchRequest, ElasticsearchClient client, SearchAfterSettings cursorSettings) {
+    /**
+     * A truncated page holds fewer hits than asked for without being the last one, its cursor stays
+     * open and continues after the last hit returned.
+     */
+    private CursorQueryResponse processSearchResponse(SearchResponse<Map<String, Object>> searchResponse, CursorQueryRequest searchRequest,
+                                                      ElasticsearchClient client, SearchAfterSettings cursorSettings, boolean truncated) {
         CursorQueryResponse queryResponse = CursorQueryResponse.getEmptyResponse();
 
         // We enforce trackTotalCount to be true in the first call only
@@ -283,36 +702,147 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
                 : searchResponse.hits().total().value();
         queryResponse.setTotalCount(totalCount);
 
-        boolean isCursorClosed = closePointInTimeIfNeeded(searchRequest, searchResponse, client);
+        boolean isCursorClosed = !truncated && closePointInTimeIfNeeded(searchRequest, searchResponse, client);
         List<Map<String, Object>> results = this.getHitsFromSearchResponse(searchResponse);
         if (results != null && !results.isEmpty()) {
             this.querySuccessAuditLogger(searchRequest);
-            String cursor = this.refreshCursorCache(searchResponse, isCursorClosed, cursorSettings);
+            String cursor = this.refreshCursorCache(searchResponse, isCursorClosed, cursorSettings, searchRequest.getCursor());
             queryResponse.setCursor(cursor);
             queryResponse.setResults(results);
+            if (!isCursorClosed && cursor != null && this.searchConfigurationProperties.isSearchAfterPrefetchEnabled()) {
+                this.prefetchNextPage(searchRequest, cursor, cursorSettings);
+            }
         }
         else if(searchRequest.getCursor() != null) {
-            this.searchAfterSettingsCache.delete(searchRequest.getCursor());
+            this.deleteCursor(searchRequest.getCursor());
         }
 
         return queryResponse;
     }
 
+    /**
+     * Searches the page after the one being returned and keeps it under the cursor until the
+     * consumer asks for it. Runs with the request bound, the next page is built like any other.
+     */
+    private void prefetchNextPage(CursorQueryRequest searchRequest, String cursor, SearchAfterSettings cursorSettings) {
+        try {
+            SearchRequest elasticSearchRequest = this.buildCursorPaginationRequest(searchRequest, cursorSettings);
+            ElasticsearchAsyncClient asyncClient = this.elasticClientHandler.getOrCreateAsyncRestClient();
+            // a prefetch never waits for a slot of the partition, it is skipped when none is free
+            CompletableFuture<SearchResponse<Map<String, Object>>> response =
+                    this.tryExecuteIsolatedAsync(() -> asyncClient.search(elasticSearchRequest, this.getDocumentType()));
+            if (response == null) {
+                return;
+            }
+            PrefetchedPage pending = new PrefetchedPage(this.getRequestKey(searchRequest), cursorSettings.getPitId(),
+                    List.copyOf(cursorSettings.getFieldValueJsons()), response, 0);
+            this.searchAfterPrefetchCache.put(cursor, pending);
+            // weighed off the IO thread, the page counts against the budget from then on; this mostly
+            // happens after the response was sent, so it runs without the request
+            response.thenAcceptAsync(page -> this.searchAfterPrefetchCache.replace(cursor, pending, pending.withSize(this.getSize(page))),
+                    this.requestContextExecutor.withoutRequest());
+        } catch (Exception e) {
+            // the consumer still gets the page, it is searched when asked for
+            logger.warning("Failed to prefetch the next page of the cursor", e);
+        }
+    }
+
+    /**
+     * The prefetched page of the cursor, waited for until the request deadline while in flight;
+     * {@code null} when there is none or it failed, the page is searched again then.
+     */
+    private SearchResponse<Map<String, Object>> awaitPrefetchedPage(CursorQueryRequest searchRequest, SearchAfterSettings cursorSettings) {
+        CompletableFuture<SearchResponse<Map<String, Object>>> prefetchedPage = this.takePrefetchedPage(searchRequest, cursorSettings);
+        if (prefetchedPage == null) {
+            return null;
+        }
+        try {
+            return this.getWithinDeadline(prefetchedPage);
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The prefetched page of the cursor when it was searched for the position and request being
+     * served, whether it has arrived or is still in flight; the position is checked against the
+     * cursor settings, as another instance may have served the cursor in between.
+     */
+    private CompletableFuture<SearchResponse<Map<String, Object>>> takePrefetchedPage(CursorQueryRequest searchRequest,
+                                                                                   SearchAfterSettings cursorSettings) {
+        if (!this.searchConfigurationProperties.isSearchAfterPrefetchEnabled()) {
+            return null;
+        }
+        PrefetchedPage page = this.searchAfterPrefetchCache.take(searchRequest.getCursor());
+        if (page == null) {
+            return null;
+        }
+        CompletableFuture<SearchResponse<Map<String, Object>>> response = page.response();
+        if (response.isCompletedExceptionally()
+                || !page.pitId().equals(cursorSettings.getPitId())
+                || !page.fieldValueJsons().equals(cursorSettings.getFieldValueJsons())
+                || !page.requestKey().equals(this.getRequestKey(searchRequest))) {
+            response.cancel(true);
+            return null;
+        }
+        return response;
+    }
+
+    /**
+     * Pages larger than elasticMaxResponseSizeMb are cut after the last hit that fits instead of
+     * failing with 413, large documents are then paged by bytes rather than by count.
+     */
+    private boolean isPartialResultsEnabled() {
+        return this.searchConfigurationProperties.isSearchAfterPartialResultsEnabled();
+    }
+
+    private boolean isLazyPointInTimeEnabled() {
+        return this.searchConfigurationProperties.isSearchAfterLazyPointInTimeEnabled();
+    }
+
+    /**
+     * New cursors with the same query share a point in time, so none closes it when it ends, as
+     * another one may still read it; they lapse after their keep alive instead.
+     */
+    private boolean isPointInTimeReuseEnabled() {
+        Integer expiration = this.searchConfigurationProperties.getSearchAfterPointInTimeReuseExpiration();
+        return expiration != null && expiration > 0;
+    }
+
+    // the cursor changes from page to page and the total count is only tracked by the first one
+    private String getRequestKey(Query searchRequest) {
+        ObjectNode request = this.objectMapper.valueToTree(searchRequest);
+        request.remove(List.of("cursor", "trackTotalCount"));
+        return Hashing.sha256().hashString(request.toString(), StandardCharsets.UTF_8).toString();
+    }
+
+    /** Serialized size of the hits; reads no request state, a page that cannot be weighed keeps its size. */
+    private long getSize(SearchResponse<Map<String, Object>> searchResponse) {
+        CountingOutputStream size = new CountingOutputStream(OutputStream.nullOutputStream());
+        try {
+            this.objectMapper.writeValue(size, this.getHitsFromSearchResponse(searchResponse));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return size.getCount();
+    }
+
     private boolean closePointInTimeIfNeeded(CursorQueryRequest searchRequest, SearchResponse<Map<String, Object>>  searchResponse, ElasticsearchClient client) {
         String pitId = searchResponse.pitId();
         HitsMetadata<Map<String, Object>> searchHits = searchResponse.hits();
         if (pitId != null && (searchHits == null || searchHits.hits() == null || searchHits.hits().size() < searchRequest.getLimit())) {
-            closePointInTime(pitId, client);
+            if (!this.isPointInTimeReuseEnabled()) {
+                closePointInTime(pitId, client);
+            }
             return true;
         }
         return false;
     }
 
-    String refreshCursorCache(SearchResponse<Map<String, Object>> searchResponse, boolean isCursorClosed, SearchAfterSettings cursorSettings) {
+    String refreshCursorCache(SearchResponse<Map<String, Object>> searchResponse, boolean isCursorClosed,
+                              SearchAfterSettings cursorSettings, String cursor) {
         String pitId = searchResponse.pitId();
         if (pitId != null) {
-            this.digest.update(pitId.getBytes());
-            String hashCursor = DatatypeConverter.printHexBinary(this.digest.digest()).toUpperCase();
             List<FieldValue> searchAfterValues;
             HitsMetadata<Map<String, Object>> searchHits = searchResponse.hits();
             if (searchHits.hits() != null && !searchHits.hits().isEmpty()) {
@@ -325,14 +855,36 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
             cursorSettings.setPitId(pitId);
             cursorSettings.setFieldValueJsons(this.serializeFieldValues(searchAfterValues));
             cursorSettings.setClosed(isCursorClosed);
-            this.searchAfterSettingsCache.put(hashCursor, cursorSettings);
-            return hashCursor;
+            return this.storeCursor(cursorSettings, () -> this.getCursorKey(cursor, pitId));
         }
         else {
             return null;
         }
     }
 
+    private String storeCursor(SearchAfterSettings cursorSettings, Supplier<String> cursorKey) {
+        if (this.searchAfterCursorCodec.isEnabled()) {
+            return this.searchAfterCursorCodec.encode(cursorSettings);
+        }
+        String hashCursor = cursorKey.get();
+        this.searchAfterSettingsCache.put(hashCursor, cursorSettings);
+        return hashCursor;
+    }
+
+    /**
+     * Cursors sharing a reused point in time cannot be keyed on it, each gets a key of its own when
+     * issued and keeps it from page to page.
+     */
+    private String getCursorKey(String cursor, String pitId) {
+        if (!this.isPointInTimeReuseEnabled()) {
+            return this.hashCursor(pitId);
+        }
+        if (cursor != null && !this.searchAfterCursorCodec.isStatelessCursor(cursor)) {
+            return cursor;
+        }
+        return this.hashCursor(pitId + UUID.randomUUID());
+    }
+
     private List<String> serializeFieldValues(List<FieldValue> fieldValues) {
         if(fieldValues == null || fieldValues.isEmpty()) {
             return new ArrayList<>();
@@ -350,7 +902,7 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
     private List<String> serialize(List<JsonpSerializable> objects) {
         List<String> stringValues = new ArrayList<>();
         for(JsonpSerializable object : objects) {
-            stringValues.add(JsonData.of(object).toJson(mapper).toString());
+            stringValues.add(JsonData.of(object).toJson(elasticJsonpMapper).toString());
         }
         return stringValues;
     }
@@ -359,7 +911,7 @@ public class SearchAfterQueryServiceImpl extends CoreQueryBase implements ISearc
         List<T> objects = new ArrayList<>();
         if(jsons != null) {
             for (String json : jsons) {
-                objects.add(JsonData.fromJson(json).to(clazz, mapper));
+                objects.add(JsonData.fromJson(json).to(clazz, elasticJsonpMapper));
             }
         }
         return objects;
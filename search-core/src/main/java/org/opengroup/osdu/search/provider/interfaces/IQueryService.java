@@ -14,9 +14,19 @@
 
 package org.opengroup.osdu.search.provider.interfaces;
 
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
 import org.opengroup.osdu.core.common.model.search.QueryRequest;
 import org.opengroup.osdu.core.common.model.search.QueryResponse;
+import org.opengroup.osdu.search.model.BatchQueryRequest;
+import org.opengroup.osdu.search.model.BatchQueryResponse;
 public interface IQueryService {
 
     QueryResponse queryIndex(QueryRequest searchRequest) throws Exception;
+
+    void queryIndex(QueryRequest searchRequest, OutputStream outputStream) throws Exception;
+
+    CompletableFuture<QueryResponse> queryIndexAsync(QueryRequest searchRequest);
+
+    BatchQueryResponse queryIndex(BatchQueryRequest batchRequest) throws Exception;
 }
@@ -17,7 +17,16 @@ package org.opengroup.osdu.search.provider.interfaces;
 import org.opengroup.osdu.core.common.model.search.CursorQueryRequest;
 import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
 
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+
 public interface ISearchAfterQueryService {
     CursorQueryResponse queryIndex(CursorQueryRequest searchRequest) throws Exception;
+    CompletableFuture<CursorQueryResponse> queryIndexAsync(CursorQueryRequest searchRequest);
     void close(String cursor) throws Exception;
+
+    /**
+     * Writes every hit of the query to the stream as newline delimited JSON, one page at a time.
+     */
+    void export(CursorQueryRequest searchRequest, OutputStream outputStream) throws Exception;
 }
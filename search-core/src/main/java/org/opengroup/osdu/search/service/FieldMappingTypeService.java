@@ -20,7 +20,17 @@ package org.opengroup.osdu.search.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ExpandWildcard;
+import co.elastic.clients.elasticsearch._types.mapping.BooleanProperty;
+import co.elastic.clients.elasticsearch._types.mapping.ByteNumberProperty;
+import co.elastic.clients.elasticsearch._types.mapping.DocValuesPropertyBase;
+import co.elastic.clients.elasticsearch._types.mapping.DoubleNumberProperty;
 import co.elastic.clients.elasticsearch._types.mapping.FieldMapping;
+import co.elastic.clients.elasticsearch._types.mapping.IntegerNumberProperty;
+import co.elastic.clients.elasticsearch._types.mapping.KeywordProperty;
+import co.elastic.clients.elasticsearch._types.mapping.LongNumberProperty;
+import co.elastic.clients.elasticsearch._types.mapping.NumberPropertyBase;
+import co.elastic.clients.elasticsearch._types.mapping.Property;
+import co.elastic.clients.elasticsearch._types.mapping.ShortNumberProperty;
 import co.elastic.clients.elasticsearch.indices.GetFieldMappingRequest;
 import co.elastic.clients.elasticsearch.indices.GetFieldMappingResponse;
 import co.elastic.clients.elasticsearch.indices.get_field_mapping.TypeFieldMappings;
@@ -30,6 +40,7 @@ import java.util.*;
 import org.opengroup.osdu.core.common.model.http.DpsHeaders;
 import org.opengroup.osdu.core.common.search.Preconditions;
 import org.opengroup.osdu.search.cache.IFieldTypeMappingCache;
+import org.opengroup.osdu.search.util.DocValueFields;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.annotation.RequestScope;
@@ -72,14 +83,108 @@ public class FieldMappingTypeService implements IFieldMappingTypeService {
     return fieldTypeMap;
   }
 
+  public Map<String, String> getDocValueFields(
+      ElasticsearchClient restClient, Collection<String> fieldNames, String indexPattern)
+      throws IOException {
+    List<String> fields = new ArrayList<>(new TreeSet<>(fieldNames));
+    String cacheKey = this.getDocValueFieldsCacheKey(fields, indexPattern);
+    Map<String, String> cachedTypes = this.typeMappingCache.get(cacheKey);
+    if (cachedTypes != null) {
+      return cachedTypes;
+    }
+
+    Map<String, String> fieldTypeMap = new HashMap<>();
+    Set<String> sourceOnlyFields = new HashSet<>();
+    GetFieldMappingResponse response = this.getFieldMappings(restClient, fields, indexPattern);
+
+    for (TypeFieldMappings typeFieldMappings : response.result().values()) {
+      for (Map.Entry<String, FieldMapping> fieldMapping :
+          typeFieldMappings.mappings().entrySet()) {
+        if (fieldMapping.getValue().mapping().isEmpty()) {
+          continue;
+        }
+        String fieldName = fieldMapping.getKey();
+        String type = getDocValueType(fieldMapping.getValue());
+        // the field has to be readable from doc values with the same type in every index
+        if (type == null || !type.equals(fieldTypeMap.getOrDefault(fieldName, type))) {
+          sourceOnlyFields.add(fieldName);
+        } else {
+          fieldTypeMap.put(fieldName, type);
+        }
+      }
+    }
+    fieldTypeMap.keySet().removeAll(sourceOnlyFields);
+
+    this.typeMappingCache.put(cacheKey, fieldTypeMap);
+    return fieldTypeMap;
+  }
+
+  private String getDocValueType(FieldMapping fieldMapping) {
+    if (fieldMapping.mapping().size() != 1) {
+      return null;
+    }
+    Property property = fieldMapping.mapping().values().iterator().next();
+    String type = property._kind().jsonValue();
+    if (!DocValueFields.TYPES.contains(type)) {
+      return null;
+    }
+    if (property._get() instanceof DocValuesPropertyBase docValuesProperty
+        && Boolean.FALSE.equals(docValuesProperty.docValues())) {
+      return null;
+    }
+    if (!hasSourceValues(property)) {
+      return null;
+    }
+    return type;
+  }
+
+  /**
+   * Whether the doc values hold the values of the source. Normalized, substituted null and skipped
+   * long or malformed values are in the source only, or in another form.
+   */
+  private static boolean hasSourceValues(Property property) {
+    Object value = property._get();
+    if (value instanceof KeywordProperty keyword) {
+      return keyword.ignoreAbove() == null
+          && keyword.normalizer() == null
+          && keyword.nullValue() == null;
+    }
+    if (value instanceof NumberPropertyBase number
+        && Boolean.TRUE.equals(number.ignoreMalformed())) {
+      return false;
+    }
+    Object nullValue = null;
+    if (value instanceof LongNumberProperty number) {
+      nullValue = number.nullValue();
+    } else if (value instanceof IntegerNumberProperty number) {
+      nullValue = number.nullValue();
+    } else if (value instanceof ShortNumberProperty number) {
+      nullValue = number.nullValue();
+    } else if (value instanceof ByteNumberProperty number) {
+      nullValue = number.nullValue();
+    } else if (value instanceof DoubleNumberProperty number) {
+      nullValue = number.nullValue();
+    } else if (value instanceof BooleanProperty bool) {
+      nullValue = bool.nullValue();
+    }
+    return nullValue == null;
+  }
+
   private GetFieldMappingResponse getFieldMappings(
       ElasticsearchClient restClient, String fieldName, String indexPattern) throws IOException {
     Preconditions.checkNotNull(restClient, "restClient cannot be null");
     Preconditions.checkNotNullOrEmpty(fieldName, "fieldName cannot be null or empty");
+    return this.getFieldMappings(restClient, List.of(fieldName), indexPattern);
+  }
+
+  private GetFieldMappingResponse getFieldMappings(
+      ElasticsearchClient restClient, List<String> fieldNames, String indexPattern)
+      throws IOException {
+    Preconditions.checkNotNull(restClient, "restClient cannot be null");
     Preconditions.checkNotNullOrEmpty(indexPattern, "indexPattern cannot be null or empty");
 
     GetFieldMappingRequest.Builder request = new GetFieldMappingRequest.Builder();
-    request.fields(fieldName);
+    request.fields(fieldNames);
 
     if (!Strings.isNullOrEmpty(indexPattern)) {
       request.index(indexPattern);
@@ -93,6 +198,14 @@ public class FieldMappingTypeService implements IFieldMappingTypeService {
     return restClient.indices().getFieldMapping(request.build());
   }
 
+  private String getDocValueFieldsCacheKey(List<String> fieldNames, String indexPattern) {
+    return String.format(
+        "%s-doc-value-fields-%s-%s",
+        this.headers.getPartitionIdWithFallbackToAccountId(),
+        indexPattern,
+        String.join(",", fieldNames));
+  }
+
   private String getSortableTextFieldCacheKey(String fieldName, String indexPattern) {
     return String.format(
         "%s-sortable-text-%s-%s",
@@ -20,10 +20,19 @@ package org.opengroup.osdu.search.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Map;
 
 public interface IFieldMappingTypeService {
 
   Map<String, String> getSortableTextFields(
       ElasticsearchClient restClient, String fieldName, String indexPattern) throws IOException;
+
+  /**
+   * Returns the mapping type of each of the given fields that can be read from doc values in every
+   * index of the pattern, fields missing from the result have to be read from {@code _source}.
+   */
+  Map<String, String> getDocValueFields(
+      ElasticsearchClient restClient, Collection<String> fieldNames, String indexPattern)
+      throws IOException;
 }
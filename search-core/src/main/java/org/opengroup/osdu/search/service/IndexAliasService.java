@@ -14,9 +14,17 @@
 
 package org.opengroup.osdu.search.service;
 
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
 public interface IndexAliasService {
     Map<String, String> getIndicesAliases(List<String> kinds);
+
+    /**
+     * Caches the existing aliases of the given kinds of a partition outside of any request.
+     * Missing aliases are not created.
+     */
+    void preloadIndicesAliases(String partitionId, ElasticsearchClient restClient, List<String> kinds) throws IOException;
 }
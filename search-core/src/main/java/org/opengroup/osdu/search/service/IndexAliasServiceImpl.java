@@ -35,6 +35,7 @@ import java.util.Set;
 import java.util.stream.Collectors;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.search.ElasticIndexNameResolver;
+import org.opengroup.osdu.search.cache.IIndexAliasCache;
 import org.opengroup.osdu.search.cache.MultiPartitionIndexAliasCache;
 import org.opengroup.osdu.search.util.ElasticClientHandler;
 import org.springframework.stereotype.Component;
@@ -48,6 +49,7 @@ public class IndexAliasServiceImpl implements IndexAliasService {
   @Inject private ElasticIndexNameResolver elasticIndexNameResolver;
   @Inject private JaxRsDpsLog log;
   @Inject private MultiPartitionIndexAliasCache indexAliasCache;
+  @Inject private IIndexAliasCache partitionsIndexAliasCache;
 
   @Override
   public Map<String, String> getIndicesAliases(List<String> kinds) {
@@ -95,6 +97,21 @@ public class IndexAliasServiceImpl implements IndexAliasService {
     return aliases;
   }
 
+  @Override
+  public void preloadIndicesAliases(
+      String partitionId, ElasticsearchClient restClient, List<String> kinds) throws IOException {
+    Set<String> allExistingAliases = getAllExistingAliases(restClient);
+    for (String kind : kinds) {
+      if (!elasticIndexNameResolver.isIndexAliasSupported(kind)) {
+        continue;
+      }
+      String alias = elasticIndexNameResolver.getIndexAliasFromKind(kind);
+      if (allExistingAliases.contains(alias)) {
+        partitionsIndexAliasCache.put(MultiPartitionIndexAliasCache.getKey(partitionId, kind), alias);
+      }
+    }
+  }
+
   private Set<String> getAllExistingAliases(ElasticsearchClient restClient) throws IOException {
     GetAliasRequest request = new GetAliasRequest.Builder().build();
     GetAliasResponse response = restClient.indices().getAlias(request);
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.ContentDecoder;
+import org.apache.http.nio.IOControl;
+import org.apache.http.nio.protocol.AbstractAsyncResponseConsumer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+import org.elasticsearch.client.HttpAsyncResponseConsumerFactory;
+
+/**
+ * Buffers an Elasticsearch response up to a byte budget instead of failing once it is exceeded,
+ * the rest of the body is read and dropped so the connection stays usable. {@link
+ * #completeAfterLastHit} turns the buffered prefix of a search response into a complete response
+ * holding the hits that were received entirely.
+ *
+ * <p>A factory serves a single request, retries on another node replace its consumer.
+ */
+public class BoundedResponseConsumerFactory implements HttpAsyncResponseConsumerFactory {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+  // closes the hits array, the hits object and the response
+  private static final byte[] HITS_END = "]}}".getBytes(StandardCharsets.UTF_8);
+
+  private final int bufferLimit;
+  private volatile BoundedResponseConsumer consumer;
+
+  public BoundedResponseConsumerFactory(int bufferLimit) {
+    this.bufferLimit = bufferLimit;
+  }
+
+  @Override
+  public HttpAsyncResponseConsumer<HttpResponse> createHttpAsyncResponseConsumer() {
+    this.consumer = new BoundedResponseConsumer(bufferLimit);
+    return this.consumer;
+  }
+
+  /** Whether the body of the last response was cut at the budget. */
+  public boolean isTruncated() {
+    return consumer != null && consumer.truncated;
+  }
+
+  /**
+   * Cuts a truncated search response after its last complete hit and closes it again. Everything
+   * Elasticsearch writes after the hits, e.g. aggregations, is lost. Null when not a single hit
+   * was received entirely.
+   */
+  public static byte[] completeAfterLastHit(byte[] body) throws IOException {
+    long end = -1;
+    try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+      if (parser.nextToken() == JsonToken.START_OBJECT && moveToField(parser, "hits")
+          && parser.currentToken() == JsonToken.START_OBJECT && moveToField(parser, "hits")
+          && parser.currentToken() == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          parser.skipChildren();
+          end = parser.currentLocation().getByteOffset();
+        }
+      }
+    } catch (JsonParseException e) {
+      // the body ends within the hit following the last complete one
+    }
+    if (end < 0) {
+      return null;
+    }
+    byte[] completed = Arrays.copyOf(body, (int) end + HITS_END.length);
+    System.arraycopy(HITS_END, 0, completed, (int) end, HITS_END.length);
+    return completed;
+  }
+
+  // leaves the parser on the value of the field, Elasticsearch writes "hits" last in both objects
+  private static boolean moveToField(JsonParser parser, String name) throws IOException {
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.currentName();
+      parser.nextToken();
+      if (name.equals(fieldName)) {
+        return true;
+      }
+      parser.skipChildren();
+    }
+    return false;
+  }
+
+  private static class BoundedResponseConsumer extends AbstractAsyncResponseConsumer<HttpResponse> {
+
+    private final int bufferLimit;
+    private final ByteBuffer chunk = ByteBuffer.allocate(8192);
+    private volatile HttpResponse response;
+    private volatile ContentType contentType;
+    private volatile ByteArrayOutputStream body;
+    private volatile boolean truncated;
+
+    BoundedResponseConsumer(int bufferLimit) {
+      this.bufferLimit = bufferLimit;
+    }
+
+    @Override
+    protected void onResponseReceived(HttpResponse response) {
+      this.response = response;
+    }
+
+    @Override
+    protected void onEntityEnclosed(HttpEntity entity, ContentType contentType) {
+      this.contentType = contentType;
+      this.body = new ByteArrayOutputStream((int) Math.min(Math.max(entity.getContentLength(), 4096), bufferLimit));
+    }
+
+    @Override
+    protected void onContentReceived(ContentDecoder decoder, IOControl ioControl) throws IOException {
+      int read;
+      while ((read = decoder.read(chunk.clear())) > 0) {
+        int kept = Math.min(read, bufferLimit - body.size());
+        if (kept > 0) {
+          body.write(chunk.array(), 0, kept);
+        }
+        if (kept < read) {
+          truncated = true;
+        }
+      }
+    }
+
+    @Override
+    protected HttpResponse buildResult(HttpContext context) {
+      if (body != null) {
+        response.setEntity(new ByteArrayEntity(body.toByteArray(), contentType));
+      }
+      return response;
+    }
+
+    @Override
+    protected void releaseResources() {
+      body = null;
+    }
+  }
+}
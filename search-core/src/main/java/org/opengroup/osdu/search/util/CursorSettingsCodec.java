@@ -0,0 +1,270 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.opengroup.osdu.core.common.model.search.CursorSettings;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+
+/**
+ * Compact, versioned binary form of the cursor state. Strings are written once as UTF-8 instead of
+ * being escaped inside JSON, and point in time and scroll ids, which Elasticsearch hands out as
+ * base64url, are stored as the bytes they encode.
+ *
+ * <p>The first byte is the format version and the second the kind of settings, so a reader can
+ * tell the formats apart and never decodes one kind of settings as the other.
+ */
+public final class CursorSettingsCodec {
+
+  private static final byte VERSION = 1;
+  private static final byte SEARCH_AFTER_SETTINGS = 'A';
+  private static final byte SCROLL_SETTINGS = 'S';
+
+  private static final byte NULL = 0;
+  private static final byte TEXT = 1;
+  private static final byte BASE64URL = 2;
+  private static final byte BASE64URL_UNPADDED = 3;
+
+  private CursorSettingsCodec() {}
+
+  public static byte[] toBytes(SearchAfterSettings settings) {
+    return write(SEARCH_AFTER_SETTINGS, out -> {
+      writeId(out, settings.getPitId());
+      writeString(out, settings.getUserId());
+      writeStrings(out, settings.getSortOptionsJsons());
+      writeStrings(out, settings.getFieldValueJsons());
+      out.writeBoolean(settings.isClosed());
+      writeVarLong(out, settings.getTotalCount());
+    });
+  }
+
+  /** Null when the bytes are not search_after settings of a known version. */
+  public static SearchAfterSettings toSearchAfterSettings(byte[] bytes) {
+    return read(bytes, SEARCH_AFTER_SETTINGS, in -> SearchAfterSettings.builder()
+        .pitId(readId(in))
+        .userId(readString(in))
+        .sortOptionsJsons(readStrings(in))
+        .fieldValueJsons(readStrings(in))
+        .closed(in.readBoolean())
+        .totalCount(readVarLong(in))
+        .build());
+  }
+
+  public static byte[] toBytes(CursorSettings settings) {
+    return write(SCROLL_SETTINGS, out -> {
+      writeId(out, settings.getCursor());
+      writeString(out, settings.getUserId());
+    });
+  }
+
+  /** Null when the bytes are not scroll settings of a known version. */
+  public static CursorSettings toCursorSettings(byte[] bytes) {
+    return read(bytes, SCROLL_SETTINGS, in -> CursorSettings.builder()
+        .cursor(readId(in))
+        .userId(readString(in))
+        .build());
+  }
+
+  /** Text form for caches that store strings. */
+  public static String encode(SearchAfterSettings settings) {
+    return Base64.getEncoder().withoutPadding().encodeToString(toBytes(settings));
+  }
+
+  public static SearchAfterSettings decodeSearchAfterSettings(String encoded) {
+    byte[] bytes = fromBase64(encoded);
+    return bytes != null ? toSearchAfterSettings(bytes) : null;
+  }
+
+  public static String encode(CursorSettings settings) {
+    return Base64.getEncoder().withoutPadding().encodeToString(toBytes(settings));
+  }
+
+  public static CursorSettings decodeCursorSettings(String encoded) {
+    byte[] bytes = fromBase64(encoded);
+    return bytes != null ? toCursorSettings(bytes) : null;
+  }
+
+  private static byte[] fromBase64(String encoded) {
+    try {
+      return Base64.getDecoder().decode(encoded);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static byte[] write(byte kind, Writer writer) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeByte(VERSION);
+      out.writeByte(kind);
+      writer.write(out);
+    } catch (IOException e) {
+      // a byte array stream does not fail
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static <T> T read(byte[] bytes, byte kind, Reader<T> reader) {
+    if (bytes.length < 2 || bytes[0] != VERSION || bytes[1] != kind) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2))) {
+      return reader.read(in);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static void writeId(DataOutputStream out, String id) throws IOException {
+    if (id == null) {
+      out.writeByte(NULL);
+      return;
+    }
+    byte[] raw = decodeId(id, Base64.getUrlEncoder());
+    if (raw != null) {
+      out.writeByte(BASE64URL);
+      writeBytes(out, raw);
+      return;
+    }
+    raw = decodeId(id, Base64.getUrlEncoder().withoutPadding());
+    if (raw != null) {
+      out.writeByte(BASE64URL_UNPADDED);
+      writeBytes(out, raw);
+      return;
+    }
+    out.writeByte(TEXT);
+    writeBytes(out, id.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // only ids that encode back to exactly the same text are stored as bytes
+  private static byte[] decodeId(String id, Base64.Encoder encoder) {
+    try {
+      byte[] raw = Base64.getUrlDecoder().decode(id);
+      return encoder.encodeToString(raw).equals(id) ? raw : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static String readId(DataInputStream in) throws IOException {
+    byte format = in.readByte();
+    return switch (format) {
+      case NULL -> null;
+      case TEXT -> new String(readBytes(in), StandardCharsets.UTF_8);
+      case BASE64URL -> Base64.getUrlEncoder().encodeToString(readBytes(in));
+      case BASE64URL_UNPADDED -> Base64.getUrlEncoder().withoutPadding().encodeToString(readBytes(in));
+      default -> throw new IOException("Unknown id format " + format);
+    };
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      writeVarLong(out, 0);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    // lengths are shifted by one, zero stands for null
+    writeVarLong(out, bytes.length + 1L);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    long length = readVarLong(in);
+    if (length == 0) {
+      return null;
+    }
+    return new String(readBytes(in, length - 1), StandardCharsets.UTF_8);
+  }
+
+  private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+    List<String> strings = values != null ? values : List.of();
+    writeVarLong(out, strings.size());
+    for (String value : strings) {
+      writeString(out, value);
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    long size = readVarLong(in);
+    if (size > in.available()) {
+      throw new IOException("Truncated cursor settings");
+    }
+    List<String> values = new ArrayList<>((int) size);
+    for (int i = 0; i < size; i++) {
+      values.add(readString(in));
+    }
+    return values;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    writeVarLong(out, bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    return readBytes(in, readVarLong(in));
+  }
+
+  private static byte[] readBytes(DataInputStream in, long length) throws IOException {
+    if (length > in.available()) {
+      throw new IOException("Truncated cursor settings");
+    }
+    byte[] bytes = new byte[(int) length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static long readVarLong(DataInputStream in) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = in.readByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed length");
+  }
+
+  @FunctionalInterface
+  private interface Writer {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface Reader<T> {
+    T read(DataInputStream in) throws IOException;
+  }
+}
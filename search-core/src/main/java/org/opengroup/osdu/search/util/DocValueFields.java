@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.opengroup.osdu.search.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rebuilds hit documents from {@code docvalue_fields}. Doc values are returned as arrays per field,
+ * sorted and without duplicates, and carry no trace of whether the source held a scalar, an array
+ * or an array of objects. A mapping cannot tell those apart either, so only the record attributes
+ * that every record holds as a single top level scalar are read from doc values; everything else
+ * keeps being read from {@code _source}.
+ */
+public final class DocValueFields {
+
+  public static final Set<String> TYPES =
+      Set.of("keyword", "long", "integer", "short", "byte", "double", "boolean");
+
+  // record attributes written as single scalar values, never as arrays
+  public static final Set<String> SCALAR_FIELDS =
+      Set.of(
+          "id",
+          "kind",
+          "namespace",
+          "type",
+          "version",
+          "authority",
+          "source",
+          "createUser",
+          "modifyUser");
+
+  private DocValueFields() {}
+
+  public static Map<String, Object> toDocument(Map<String, ? extends List<?>> fields) {
+    Map<String, Object> document = new LinkedHashMap<>();
+    for (Map.Entry<String, ? extends List<?>> field : fields.entrySet()) {
+      List<?> values = field.getValue();
+      if (values == null || values.isEmpty()) {
+        continue;
+      }
+      document.put(field.getKey(), values.size() == 1 ? values.get(0) : values);
+    }
+    return document;
+  }
+}
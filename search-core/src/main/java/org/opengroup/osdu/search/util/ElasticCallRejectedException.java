@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import lombok.Getter;
+import org.opengroup.osdu.core.common.model.http.AppException;
+
+/**
+ * An Elasticsearch call that was not sent because its partition is overloaded or its cluster
+ * failing. Answered with 503 and a {@code Retry-After} header.
+ */
+@Getter
+public class ElasticCallRejectedException extends AppException {
+
+  private final long retryAfterSeconds;
+
+  public ElasticCallRejectedException(String message, long retryAfterSeconds) {
+    super(503, "Search error", message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
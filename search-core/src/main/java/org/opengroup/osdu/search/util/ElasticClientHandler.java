@@ -18,37 +18,66 @@
 
 package org.opengroup.osdu.search.util;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.TransportOptions;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.io.Closeable;
 import java.io.IOException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
+import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 
-import com.fasterxml.jackson.core.JsonFactory;
-import com.fasterxml.jackson.core.StreamReadConstraints;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.Header;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpStatus;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.TrustSelfSignedStrategy;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
 import org.apache.http.message.BasicHeader;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.ssl.SSLContextBuilder;
+import org.apache.http.ssl.SSLContexts;
+import org.elasticsearch.client.Node;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.Sniffer;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.opengroup.osdu.core.common.model.indexer.IElasticSettingService;
 import org.opengroup.osdu.core.common.model.search.ClusterSettings;
 import org.opengroup.osdu.core.common.model.tenant.TenantInfo;
 import org.opengroup.osdu.search.cache.ElasticsearchClientCache;
+import org.opengroup.osdu.search.config.ElasticConnectionPool;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -63,6 +92,8 @@ public class ElasticClientHandler implements Closeable {
   private static final int REST_CLIENT_CONNECT_TIMEOUT = 60000;
   private static final int REST_CLIENT_SOCKET_TIMEOUT = 60000;
   private static final int REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS = 60;
+  private static final String POOL_CONNECTIONS_METRIC = "search.elastic.pool.connections";
+  private static final long TRANSPORT_DRAIN_POLL_MILLIS = 500;
 
   @Value("#{new Boolean('${security.https.certificate.trust:false}')}")
   private Boolean isSecurityHttpsCertificateTrust;
@@ -71,12 +102,41 @@ public class ElasticClientHandler implements Closeable {
   @Autowired private ElasticsearchClientCache clientCache;
   @Autowired private SearchConfigurationProperties searchConfigurationProperties;
   @Autowired private TenantInfo tenantInfo;
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private ElasticIOReactor ioReactor;
+  @Autowired private JacksonJsonpMapper elasticJsonpMapper;
+
+  // transports by cluster endpoint and pool settings, shared by the partitions using both
+  private final Map<String, ElasticTransport> transports = new HashMap<>();
+  // settings the cached client of each partition was created with
+  private final Map<String, ClusterSettings> clusterSettings = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          new ThreadFactoryBuilder().setNameFormat("elastic-client-refresh-%d").setDaemon(true).build());
+
+  @PostConstruct
+  void scheduleClientRefresh() {
+    if (!searchConfigurationProperties.isElasticClientRefreshEnabled()) {
+      return;
+    }
+    long interval = searchConfigurationProperties.getElasticClientRefreshInterval();
+    scheduler.scheduleWithFixedDelay(this::refreshClients, interval, interval, TimeUnit.SECONDS);
+  }
 
   public ElasticsearchClient getOrCreateRestClient() {
     String partitionId = tenantInfo.getDataPartitionId();
     return getOrCreateRestClient(partitionId);
   }
   
+  /**
+   * Async view of the cached client for the current partition. Both clients share the same
+   * transport, so this is cheap and does not open any additional connections.
+   */
+  public ElasticsearchAsyncClient getOrCreateAsyncRestClient() {
+    ElasticsearchClient client = getOrCreateRestClient();
+    return new ElasticsearchAsyncClient(client._transport(), client._transportOptions());
+  }
+
   /**
    * Thread-safe method to get or create a REST client for a specific partition.
    * This method prevents race conditions by using atomic computeIfAbsent operation.
@@ -91,15 +151,90 @@ public class ElasticClientHandler implements Closeable {
     
     // Use atomic computeIfAbsent to prevent race conditions
     // This ensures only one thread creates the client for each partition
-    return clientCache.computeIfAbsent(partitionId, pid -> {
-      log.info("Creating new ElasticsearchClient for partition: {}", pid);
+    return clientCache.computeIfAbsent(
+        partitionId, pid -> createCachedClient(pid, elasticSettingService::getElasticClusterInformation));
+  }
+
+  /**
+   * Same as {@link #getOrCreateRestClient(String)} for callers outside of a request, which resolve
+   * the cluster settings of the partition themselves.
+   */
+  public ElasticsearchClient getOrCreateRestClient(
+      String partitionId, ClusterSettings clusterSettings) {
+    if (partitionId == null || partitionId.trim().isEmpty()) {
+      throw new IllegalArgumentException("Partition ID cannot be null or empty");
+    }
+    return clientCache.computeIfAbsent(partitionId, pid -> createCachedClient(pid, () -> clusterSettings));
+  }
+
+  private ElasticsearchClient createCachedClient(
+      String partitionId, Supplier<ClusterSettings> clusterSettingsSupplier) {
+    log.info("Creating new ElasticsearchClient for partition: {}", partitionId);
+    try {
+      ClusterSettings settings = clusterSettingsSupplier.get();
+      ElasticsearchClient client = getCloudRestClient(settings, partitionId);
+      clusterSettings.put(partitionId, settings);
+      return client;
+    } catch (Exception e) {
+      log.error("Failed to create ElasticsearchClient for partition: {}", partitionId, e);
+      throw e; // Re-throw to prevent caching of null values
+    }
+  }
+
+  /**
+   * Re-resolves the cluster settings of the cached clients ahead of their expiration, so requests
+   * do not wait for a client to be rebuilt. A client whose settings did not change is kept and its
+   * expiration restarts; otherwise it is atomically replaced by a client for the new settings and
+   * closed once its requests drained. Clients that cannot be refreshed are left to expire.
+   */
+  void refreshClients() {
+    Set<String> partitionIds = clientCache.getPartitionIds();
+    if (partitionIds.isEmpty()) {
+      return;
+    }
+    Map<String, ClusterSettings> allSettings;
+    try {
+      allSettings = elasticSettingService.getAllClustersSettings();
+    } catch (Exception e) {
+      log.warn("Failed to resolve cluster settings, Elasticsearch clients are not refreshed", e);
+      return;
+    }
+    for (String partitionId : partitionIds) {
       try {
-        return getCloudRestClient(elasticSettingService.getElasticClusterInformation());
+        refreshClient(partitionId, allSettings.get(partitionId));
       } catch (Exception e) {
-        log.error("Failed to create ElasticsearchClient for partition: {}", pid, e);
-        throw e; // Re-throw to prevent caching of null values
+        log.warn("Failed to refresh ElasticsearchClient for partition: {}", partitionId, e);
       }
-    });
+    }
+  }
+
+  private void refreshClient(String partitionId, ClusterSettings settings) throws IOException {
+    ElasticsearchClient current = clientCache.get(partitionId);
+    if (current == null || settings == null) {
+      return;
+    }
+    if (isSameCluster(clusterSettings.get(partitionId), settings)) {
+      clientCache.replace(partitionId, current, current);
+      return;
+    }
+    log.info("Cluster settings of partition {} changed, replacing its ElasticsearchClient", partitionId);
+    ElasticsearchClient client = getCloudRestClient(settings, partitionId);
+    if (clientCache.replace(partitionId, current, client)) {
+      clusterSettings.put(partitionId, settings);
+      current._transport().close();
+    } else {
+      // evicted or replaced in the meantime
+      client._transport().close();
+    }
+  }
+
+  private static boolean isSameCluster(ClusterSettings previous, ClusterSettings current) {
+    return previous != null
+        && Objects.equals(previous.getHost(), current.getHost())
+        && previous.getPort() == current.getPort()
+        && Objects.equals(previous.getUserNameAndPassword(), current.getUserNameAndPassword())
+        && previous.isHttps() == current.isHttps()
+        && previous.isTls() == current.isTls();
   }
 
     /**
@@ -114,17 +249,17 @@ public class ElasticClientHandler implements Closeable {
      */
   @Deprecated
   public ElasticsearchClient createRestClient(final ClusterSettings clusterSettings) {
-    return getCloudRestClient(clusterSettings);
+    return getCloudRestClient(clusterSettings, null);
   }
 
-  private ElasticsearchClient getCloudRestClient(final ClusterSettings clusterSettings) {
+  private ElasticsearchClient getCloudRestClient(
+      final ClusterSettings clusterSettings, String partitionId) {
 
     String cluster = null;
     String host = null;
     int port = CLOUD_REST_CLIENT_PORT;
     String protocolScheme = "https";
     String tls = "true";
-    RestClient restClient = null;
 
     try {
       cluster = clusterSettings.getHost();
@@ -141,32 +276,23 @@ public class ElasticClientHandler implements Closeable {
           Base64.getEncoder().encodeToString(clusterSettings.getUserNameAndPassword().getBytes());
       String basicAuthenticationHeaderVal = String.format("Basic %s", basicEncoded);
 
-      RestClientBuilder builder =
-          createClientBuilder(host, basicAuthenticationHeaderVal, port, protocolScheme, tls);
-
-      restClient = builder.build();
-
-      JsonFactory factory = JsonFactory.builder()
-           .streamReadConstraints(StreamReadConstraints.builder()
-                 .maxDocumentLength(
-                         searchConfigurationProperties.getElasticMaxResponseSizeMb() * 1024 * 1024
-                 ).build()
-           ).build();
-
-      ObjectMapper objectMapper = new ObjectMapper(factory);
-      JacksonJsonpMapper mapper = new JacksonJsonpMapper(objectMapper);
-
-      RestClientTransport transport =
-          new RestClientTransport(restClient, mapper);
-
-      return new ElasticsearchClient(transport);
+      ElasticTransport transport =
+          partitionId == null
+              ? createTransport(
+                  null, host, port, protocolScheme, tls, null, basicAuthenticationHeaderVal)
+              : acquireTransport(
+                  partitionId, host, port, protocolScheme, tls, basicAuthenticationHeaderVal);
+      // the transport may be shared with other partitions, the credentials go with each request
+      TransportOptions options =
+          transport.options().toBuilder()
+              .addHeader("Authorization", basicAuthenticationHeaderVal)
+              .build();
+      return new ElasticsearchClient(transport, options);
     } catch (AppException e) {
-      log.error("AppException while creating ElasticsearchClient. Cleaning up resources.", e);
-      closeRestClient(restClient);
+      log.error("AppException while creating ElasticsearchClient.", e);
       throw e;
     } catch (Exception e) {
-      log.error("Exception while creating ElasticsearchClient. Cleaning up resources.", e);
-      closeRestClient(restClient);
+      log.error("Exception while creating ElasticsearchClient.", e);
       throw new AppException(
           HttpStatus.SC_INTERNAL_SERVER_ERROR,
           "search client error",
@@ -178,29 +304,199 @@ public class ElasticClientHandler implements Closeable {
     }
   }
 
+  /**
+   * Transport of the partition's cluster endpoint, shared with all partitions on the same endpoint
+   * with the same pool settings, so each partition gets the pool it is configured with. The
+   * sniffer of the transport uses the credentials of the partition acquiring it last; it is
+   * rebuilt when those differ from the ones it sniffs with.
+   */
+  private ElasticTransport acquireTransport(
+      String partitionId,
+      String host,
+      int port,
+      String protocolScheme,
+      String tls,
+      String authorization) {
+    String endpoint = getTransportKey(host, port, protocolScheme, tls, getConnectionPool(partitionId));
+    synchronized (transports) {
+      ElasticTransport transport = transports.get(endpoint);
+      if (transport == null) {
+        log.info("Creating new Elasticsearch transport for endpoint: {}", endpoint);
+        transport =
+            createTransport(endpoint, host, port, protocolScheme, tls, partitionId, authorization);
+        transports.put(endpoint, transport);
+        if (transport.connectionManager != null) {
+          registerPoolGauges(endpoint, transport.connectionManager);
+        }
+      } else {
+        transport.references++;
+        ClusterSniffer sniffer = transport.sniffer;
+        if (sniffer != null && !sniffer.authorization.equals(authorization)) {
+          log.info("Credentials of endpoint {} changed, replacing its sniffer", endpoint);
+          transport.sniffer =
+              createSniffer(
+                  transport.restClient(),
+                  host,
+                  port,
+                  protocolScheme,
+                  tls,
+                  authorization,
+                  transport.failureListener);
+          sniffer.close();
+        }
+      }
+      return transport;
+    }
+  }
+
+  static String getTransportKey(
+      String host, int port, String protocolScheme, String tls, ElasticConnectionPool pool) {
+    String endpoint =
+        String.format("%s://%s:%d/tls=%s", protocolScheme, host.trim().toLowerCase(), port, tls);
+    if (pool == null) {
+      return endpoint;
+    }
+    return String.format(
+        "%s/pool=%s,%s,%s",
+        endpoint,
+        pool.getMaxConnTotal(),
+        pool.getMaxConnPerRoute(),
+        pool.getConnectionRequestTimeout());
+  }
+
+  private ElasticTransport createTransport(
+      String endpoint,
+      String host,
+      int port,
+      String protocolScheme,
+      String tls,
+      String partitionId,
+      String authorization) {
+    ElasticNodeBalancer nodeBalancer =
+        new ElasticNodeBalancer(endpoint == null ? null : meterRegistry);
+    RestClientBuilder builder =
+        createClientBuilder(host, port, protocolScheme, tls, partitionId, nodeBalancer);
+    builder.setNodeSelector(nodeBalancer);
+    SniffOnFailure failureListener = null;
+    if (searchConfigurationProperties.isElasticSniffingEnabled()) {
+      failureListener = new SniffOnFailure();
+      builder.setFailureListener(failureListener);
+    }
+
+    RestClient restClient = builder.build();
+    try {
+      ClusterSniffer sniffer =
+          createSniffer(restClient, host, port, protocolScheme, tls, authorization, failureListener);
+
+      return new ElasticTransport(
+          endpoint,
+          restClient,
+          elasticJsonpMapper,
+          sniffer,
+          failureListener,
+          nodeBalancer.getConnectionManager());
+    } catch (RuntimeException e) {
+      log.error("Exception while creating Elasticsearch transport. Cleaning up resources.", e);
+      closeRestClient(restClient);
+      if (nodeBalancer.getConnectionManager() != null) {
+        shutdown(nodeBalancer.getConnectionManager());
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Keeps the nodes of the client in line with the cluster, the configured hosts only seed the
+   * first round. Sniffs again shortly after a node failed.
+   *
+   * <p>The client carries no credentials, they go with each request of a partition, so the nodes
+   * are sniffed through a client of their own with the given credentials. It follows the nodes it
+   * sniffs as well.
+   */
+  private ClusterSniffer createSniffer(
+      RestClient restClient,
+      String host,
+      int port,
+      String protocolScheme,
+      String tls,
+      String authorization,
+      SniffOnFailure failureListener) {
+    if (failureListener == null) {
+      return null;
+    }
+    ElasticNodeBalancer nodeBalancer = new ElasticNodeBalancer(null);
+    RestClient sniffClient =
+        createClientBuilder(host, port, protocolScheme, tls, null, nodeBalancer)
+            .setDefaultHeaders(new Header[] {new BasicHeader("Authorization", authorization)})
+            .build();
+    ClusterSniffer clusterSniffer =
+        new ClusterSniffer(sniffClient, nodeBalancer.getConnectionManager(), authorization);
+    try {
+      ElasticsearchNodesSniffer nodesSniffer =
+          new ElasticsearchNodesSniffer(
+              sniffClient,
+              ElasticsearchNodesSniffer.DEFAULT_SNIFF_REQUEST_TIMEOUT,
+              "https".equals(protocolScheme)
+                  ? ElasticsearchNodesSniffer.Scheme.HTTPS
+                  : ElasticsearchNodesSniffer.Scheme.HTTP);
+      clusterSniffer.sniffer =
+          Sniffer.builder(restClient)
+              .setSniffIntervalMillis(searchConfigurationProperties.getElasticSniffInterval())
+              .setSniffAfterFailureDelayMillis(
+                  searchConfigurationProperties.getElasticSniffAfterFailureDelay())
+              .setNodesSniffer(
+                  () -> {
+                    List<Node> nodes = nodesSniffer.sniff();
+                    if (!nodes.isEmpty()) {
+                      sniffClient.setNodes(nodes);
+                    }
+                    return nodes;
+                  })
+              .build();
+    } catch (RuntimeException e) {
+      clusterSniffer.close();
+      throw e;
+    }
+    failureListener.sniffer = clusterSniffer.sniffer;
+    return clusterSniffer;
+  }
+
+  /**
+   * Builds the REST client of a cluster endpoint. Credentials are not part of it, the client may
+   * serve several partitions.
+   *
+   * @param host one or more comma separated nodes of the cluster, each optionally with its own
+   *     port
+   * @param partitionId partition whose connection pool settings size the client; {@code null} for
+   *     uncached clients, which use the defaults
+   * @param nodeBalancer to be passed to {@link #configureHttpClient}
+   */
   protected RestClientBuilder createClientBuilder(
       String host,
-      String basicAuthenticationHeaderVal,
       int port,
       String protocolScheme,
-      String tls) {
+      String tls,
+      String partitionId,
+      ElasticNodeBalancer nodeBalancer) {
 
-    RestClientBuilder builder = RestClient.builder(new HttpHost(host, port, protocolScheme));
+    HttpHost[] hosts = parseHosts(host, port, protocolScheme);
+    RestClientBuilder builder = RestClient.builder(hosts);
     builder.setRequestConfigCallback(
         requestConfigBuilder ->
             requestConfigBuilder
                 .setConnectTimeout(REST_CLIENT_CONNECT_TIMEOUT)
-                .setSocketTimeout(REST_CLIENT_SOCKET_TIMEOUT));
+                .setSocketTimeout(REST_CLIENT_SOCKET_TIMEOUT)
+                .setConnectionRequestTimeout(
+                    getConnectionPool(partitionId).getConnectionRequestTimeout()));
     
     Header[] defaultHeaders =
         new Header[] {
           new BasicHeader("client.transport.nodes_sampler_interval", "30s"),
           new BasicHeader("client.transport.ping_timeout", "30s"),
           new BasicHeader("client.transport.sniff", "false"),
-          new BasicHeader("request.headers.X-Found-Cluster", host),
-          new BasicHeader("cluster.name", host),
+          new BasicHeader("request.headers.X-Found-Cluster", hosts[0].getHostName()),
+          new BasicHeader("cluster.name", hosts[0].getHostName()),
           new BasicHeader("xpack.security.transport.ssl.enabled", tls),
-          new BasicHeader("Authorization", basicAuthenticationHeaderVal),
         };
     log.debug(
         String.format(
@@ -212,23 +508,273 @@ public class ElasticClientHandler implements Closeable {
       SSLContext sslContext = createSSLContext();
       builder.setHttpClientConfigCallback(
           httpClientBuilder ->
-              httpClientBuilder
-                  .setSSLContext(sslContext)
-                  .setSSLHostnameVerifier(NoopHostnameVerifier.INSTANCE)
-                  .setConnectionTimeToLive(REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS, TimeUnit.SECONDS));
+              configureHttpClient(
+                  httpClientBuilder,
+                  partitionId,
+                  sslContext,
+                  NoopHostnameVerifier.INSTANCE,
+                  nodeBalancer));
     } else {
-        builder.setHttpClientConfigCallback(
-                httpClientBuilder ->
-                        httpClientBuilder.setConnectionTimeToLive(
-                                REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS, TimeUnit.SECONDS
-                        )
-        );
+      builder.setHttpClientConfigCallback(
+          httpClientBuilder ->
+              configureHttpClient(httpClientBuilder, partitionId, null, null, nodeBalancer));
     }
 
     builder.setDefaultHeaders(defaultHeaders);
     return builder;
   }
 
+  /**
+   * Gives the client a connection manager sized for the partition on the shared IO reactor and
+   * lets {@code nodeBalancer} balance over its connections. The builder ignores its own pool, TLS
+   * and connection time to live settings once a connection manager is set, so all of them are
+   * applied to the connection manager.
+   *
+   * @param sslContext {@code null} for the system default
+   * @param hostnameVerifier {@code null} for the default verifier
+   */
+  protected HttpAsyncClientBuilder configureHttpClient(
+      HttpAsyncClientBuilder httpClientBuilder,
+      String partitionId,
+      SSLContext sslContext,
+      HostnameVerifier hostnameVerifier,
+      ElasticNodeBalancer nodeBalancer) {
+    PoolingNHttpClientConnectionManager connectionManager =
+        createConnectionManager(partitionId, sslContext, hostnameVerifier);
+    // the connection manager runs on the shared reactor, the client must neither start nor stop it
+    return nodeBalancer.instrument(
+        httpClientBuilder
+            .setConnectionManager(connectionManager)
+            .setConnectionManagerShared(true),
+        connectionManager);
+  }
+
+  protected static HttpHost[] parseHosts(String host, int port, String protocolScheme) {
+    return Arrays.stream(host.split(","))
+        .map(String::trim)
+        .filter(node -> !node.isEmpty())
+        .map(
+            node -> {
+              int separator = node.lastIndexOf(':');
+              if (separator > 0 && node.indexOf(':') == separator) {
+                return new HttpHost(
+                    node.substring(0, separator),
+                    Integer.parseInt(node.substring(separator + 1)),
+                    protocolScheme);
+              }
+              return new HttpHost(node, port, protocolScheme);
+            })
+        .toArray(HttpHost[]::new);
+  }
+
+  protected ElasticConnectionPool getConnectionPool(String partitionId) {
+    return searchConfigurationProperties.getElasticConnectionPool(partitionId);
+  }
+
+  PoolingNHttpClientConnectionManager createConnectionManager(
+      String partitionId, SSLContext sslContext, HostnameVerifier hostnameVerifier) {
+    ElasticConnectionPool pool = getConnectionPool(partitionId);
+    Registry<SchemeIOSessionStrategy> sessionStrategies =
+        RegistryBuilder.<SchemeIOSessionStrategy>create()
+            .register("http", NoopIOSessionStrategy.INSTANCE)
+            .register(
+                "https",
+                new SSLIOSessionStrategy(
+                    sslContext != null ? sslContext : SSLContexts.createSystemDefault(),
+                    hostnameVerifier != null
+                        ? hostnameVerifier
+                        : SSLIOSessionStrategy.getDefaultHostnameVerifier()))
+            .build();
+    PoolingNHttpClientConnectionManager connectionManager =
+        new PoolingNHttpClientConnectionManager(
+            ioReactor.get(),
+            null,
+            sessionStrategies,
+            null,
+            null,
+            REST_CLIENT_CONNECTION_KEEPALIVE_SECONDS,
+            TimeUnit.SECONDS);
+    connectionManager.setMaxTotal(pool.getMaxConnTotal());
+    connectionManager.setDefaultMaxPerRoute(pool.getMaxConnPerRoute());
+    log.info("Elasticsearch connection pool of partition {}: {}", partitionId, pool);
+    return connectionManager;
+  }
+
+  /**
+   * Publishes the pool of a transport once, tagged with its endpoint; partitions sharing the
+   * transport share its connections, so the pool is not repeated per partition.
+   */
+  void registerPoolGauges(String endpoint, PoolingNHttpClientConnectionManager connectionManager) {
+    // a recreated transport replaces the gauges of the one it supersedes
+    removePoolGauges(endpoint);
+    registerPoolGauge(endpoint, "leased", connectionManager, PoolStats::getLeased);
+    registerPoolGauge(endpoint, "pending", connectionManager, PoolStats::getPending);
+    registerPoolGauge(endpoint, "available", connectionManager, PoolStats::getAvailable);
+    registerPoolGauge(endpoint, "max", connectionManager, PoolStats::getMax);
+  }
+
+  private void registerPoolGauge(
+      String endpoint,
+      String state,
+      PoolingNHttpClientConnectionManager connectionManager,
+      ToIntFunction<PoolStats> value) {
+    Gauge.builder(
+            POOL_CONNECTIONS_METRIC,
+            connectionManager,
+            manager -> value.applyAsInt(manager.getTotalStats()))
+        .tags("endpoint", endpoint, "state", state)
+        .description("Connections of the Elasticsearch transport of the endpoint")
+        .register(meterRegistry);
+  }
+
+  private void removePoolGauges(String endpoint) {
+    meterRegistry
+        .find(POOL_CONNECTIONS_METRIC)
+        .tags("endpoint", endpoint)
+        .meters()
+        .forEach(meterRegistry::remove);
+  }
+
+  private void shutdown(PoolingNHttpClientConnectionManager connectionManager) {
+    try {
+      connectionManager.shutdown();
+    } catch (IOException e) {
+      log.error("Failed to shut down Elasticsearch connection pool", e);
+    }
+  }
+
+  /**
+   * Transport of one cluster endpoint. Every partition client on the endpoint closes it once when
+   * it is evicted or replaced, the last close releases the client, its connections and its sniffer
+   * as soon as the requests in flight completed. Transports of uncached clients are not shared and
+   * close on the first call.
+   */
+  private final class ElasticTransport extends RestClientTransport {
+
+    private final String endpoint;
+    private final SniffOnFailure failureListener;
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    // guarded by transports, replaced when the credentials of the endpoint change
+    private volatile ClusterSniffer sniffer;
+    // guarded by transports
+    private int references = 1;
+
+    private ElasticTransport(
+        String endpoint,
+        RestClient restClient,
+        JacksonJsonpMapper mapper,
+        ClusterSniffer sniffer,
+        SniffOnFailure failureListener,
+        PoolingNHttpClientConnectionManager connectionManager) {
+      super(restClient, mapper);
+      this.endpoint = endpoint;
+      this.sniffer = sniffer;
+      this.failureListener = failureListener;
+      this.connectionManager = connectionManager;
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (endpoint != null) {
+        synchronized (transports) {
+          if (--references > 0) {
+            return;
+          }
+          transports.remove(endpoint, this);
+          if (connectionManager != null) {
+            removePoolGauges(endpoint);
+          }
+        }
+        log.info("Closing Elasticsearch transport for endpoint: {}", endpoint);
+        if (connectionManager != null) {
+          closeWhenDrained(System.currentTimeMillis() + REST_CLIENT_SOCKET_TIMEOUT);
+          return;
+        }
+      }
+      release();
+    }
+
+    private void closeWhenDrained(long deadline) {
+      PoolStats stats = connectionManager.getTotalStats();
+      if (stats.getLeased() + stats.getPending() > 0 && System.currentTimeMillis() < deadline) {
+        try {
+          scheduler.schedule(
+              () -> closeWhenDrained(deadline), TRANSPORT_DRAIN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+          return;
+        } catch (RejectedExecutionException e) {
+          log.debug("Elasticsearch transport for endpoint {} closed without draining", endpoint);
+        }
+      }
+      try {
+        release();
+      } catch (IOException e) {
+        log.error("Failed to close Elasticsearch transport for endpoint: {}", endpoint, e);
+      }
+    }
+
+    private void release() throws IOException {
+      ClusterSniffer clusterSniffer;
+      synchronized (transports) {
+        clusterSniffer = sniffer;
+      }
+      if (clusterSniffer != null) {
+        clusterSniffer.close();
+      }
+      try {
+        super.close();
+      } finally {
+        if (connectionManager != null) {
+          shutdown(connectionManager);
+        }
+      }
+    }
+  }
+
+  /** Sniffer of a transport with the client it sniffs the nodes through. */
+  private final class ClusterSniffer {
+
+    private final RestClient sniffClient;
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final String authorization;
+    private Sniffer sniffer;
+
+    private ClusterSniffer(
+        RestClient sniffClient,
+        PoolingNHttpClientConnectionManager connectionManager,
+        String authorization) {
+      this.sniffClient = sniffClient;
+      this.connectionManager = connectionManager;
+      this.authorization = authorization;
+    }
+
+    private void close() {
+      try {
+        if (sniffer != null) {
+          sniffer.close();
+        }
+      } finally {
+        closeRestClient(sniffClient);
+        if (connectionManager != null) {
+          shutdown(connectionManager);
+        }
+      }
+    }
+  }
+
+  /** Sniffs again after a node failed, through whichever sniffer the transport currently has. */
+  private static final class SniffOnFailure extends RestClient.FailureListener {
+
+    private volatile Sniffer sniffer;
+
+    @Override
+    public void onFailure(Node node) {
+      Sniffer current = sniffer;
+      if (current != null) {
+        current.sniffOnFailure();
+      }
+    }
+  }
+
   private SSLContext createSSLContext() {
     SSLContextBuilder sslContextBuilder = new SSLContextBuilder();
     try {
@@ -270,6 +816,7 @@ public class ElasticClientHandler implements Closeable {
   @Override
   public void close() throws IOException {
     log.info("Closing ElasticClientHandler and clearing all cached clients");
+    scheduler.shutdownNow();
     clearAllClients();
   }
 }
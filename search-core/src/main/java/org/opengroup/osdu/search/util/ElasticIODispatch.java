@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import java.io.IOException;
+import org.apache.http.impl.nio.DefaultNHttpClientConnection;
+import org.apache.http.impl.nio.reactor.AbstractIODispatch;
+import org.apache.http.nio.NHttpClientEventHandler;
+import org.apache.http.nio.protocol.HttpAsyncRequestExecutor;
+import org.apache.http.nio.reactor.IOSession;
+
+/**
+ * Event dispatch of the IO reactor shared by the Elasticsearch clients. Equivalent to the one an
+ * async HTTP client runs on its own reactor: connections are opened by the clients' connection
+ * managers, the dispatch only drives their exchanges.
+ */
+class ElasticIODispatch extends AbstractIODispatch<DefaultNHttpClientConnection> {
+
+  private final NHttpClientEventHandler handler = new HttpAsyncRequestExecutor();
+
+  @Override
+  protected DefaultNHttpClientConnection createConnection(IOSession session) {
+    throw new IllegalStateException("Connection must be created by connection manager");
+  }
+
+  @Override
+  protected void onConnected(DefaultNHttpClientConnection conn) {
+    Object attachment = conn.getContext().getAttribute(IOSession.ATTACHMENT_KEY);
+    try {
+      handler.connected(conn, attachment);
+    } catch (Exception e) {
+      handler.exception(conn, e);
+    }
+  }
+
+  @Override
+  protected void onClosed(DefaultNHttpClientConnection conn) {
+    handler.closed(conn);
+  }
+
+  @Override
+  protected void onException(DefaultNHttpClientConnection conn, IOException e) {
+    handler.exception(conn, e);
+  }
+
+  @Override
+  protected void onInputReady(DefaultNHttpClientConnection conn) {
+    conn.consumeInput(handler);
+  }
+
+  @Override
+  protected void onOutputReady(DefaultNHttpClientConnection conn) {
+    conn.produceOutput(handler);
+  }
+
+  @Override
+  protected void onTimeout(DefaultNHttpClientConnection conn) {
+    try {
+      handler.timeout(conn);
+    } catch (Exception e) {
+      handler.exception(conn, e);
+    }
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.net.SocketAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.nio.reactor.IOEventDispatch;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.nio.reactor.IOReactorStatus;
+import org.apache.http.nio.reactor.SessionRequest;
+import org.apache.http.nio.reactor.SessionRequestCallback;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * The one IO reactor of all Elasticsearch clients, sized by {@code elastic-io-thread-count}.
+ * Every client has its own connection manager on top of it, so clients of different clusters keep
+ * separate pools while sharing the IO threads.
+ *
+ * <p>Connection managers shut down their reactor when they are shut down, so they are handed a
+ * view of the reactor that ignores shutdown; the reactor itself lives as long as the application.
+ */
+@Component
+@Slf4j
+public class ElasticIOReactor implements DisposableBean {
+
+  private final SearchConfigurationProperties searchConfigurationProperties;
+  private DefaultConnectingIOReactor ioReactor;
+
+  public ElasticIOReactor(SearchConfigurationProperties searchConfigurationProperties) {
+    this.searchConfigurationProperties = searchConfigurationProperties;
+  }
+
+  /** Starts the reactor on first use. */
+  public synchronized ConnectingIOReactor get() {
+    if (ioReactor == null) {
+      ioReactor = start();
+    }
+    return new SharedIOReactor(ioReactor);
+  }
+
+  private DefaultConnectingIOReactor start() {
+    IOReactorConfig.Builder config = IOReactorConfig.custom();
+    if (searchConfigurationProperties.getElasticIoThreadCount() > 0) {
+      config.setIoThreadCount(searchConfigurationProperties.getElasticIoThreadCount());
+    }
+    try {
+      DefaultConnectingIOReactor reactor =
+          new DefaultConnectingIOReactor(
+              config.build(),
+              new ThreadFactoryBuilder().setNameFormat("elastic-io-%d").setDaemon(true).build());
+      Thread dispatcher =
+          new ThreadFactoryBuilder()
+              .setNameFormat("elastic-io-dispatcher")
+              .setDaemon(true)
+              .build()
+              .newThread(() -> dispatch(reactor));
+      dispatcher.start();
+      return reactor;
+    } catch (IOReactorException e) {
+      throw new AppException(
+          HttpStatus.SC_INTERNAL_SERVER_ERROR,
+          "search client error",
+          "error starting search client IO reactor",
+          e);
+    }
+  }
+
+  private static void dispatch(DefaultConnectingIOReactor reactor) {
+    try {
+      reactor.execute(new ElasticIODispatch());
+    } catch (IOException | RuntimeException e) {
+      log.error("Elasticsearch IO reactor terminated", e);
+    }
+  }
+
+  @Override
+  public synchronized void destroy() throws IOException {
+    if (ioReactor != null) {
+      ioReactor.shutdown();
+    }
+  }
+
+  private static final class SharedIOReactor implements ConnectingIOReactor {
+
+    private final ConnectingIOReactor delegate;
+
+    private SharedIOReactor(ConnectingIOReactor delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public SessionRequest connect(
+        SocketAddress remoteAddress,
+        SocketAddress localAddress,
+        Object attachment,
+        SessionRequestCallback callback) {
+      return delegate.connect(remoteAddress, localAddress, attachment, callback);
+    }
+
+    @Override
+    public IOReactorStatus getStatus() {
+      return delegate.getStatus();
+    }
+
+    @Override
+    public void execute(IOEventDispatch eventDispatch) {
+      throw new IllegalStateException("The shared IO reactor is already running");
+    }
+
+    @Override
+    public void shutdown(long waitMs) {
+      // owned by ElasticIOReactor
+    }
+
+    @Override
+    public void shutdown() {
+      // owned by ElasticIOReactor
+    }
+  }
+}
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.opengroup.osdu.search.util;
+
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JSON mapper shared by all Elasticsearch transports and the cursor services. Jackson caches the
+ * (de)serializers it builds per {@link ObjectMapper}, so a single instance keeps them warm for
+ * every partition; Blackbird replaces reflective property access with generated lambdas for
+ * documents bound to classes. Hits are decoded as maps and do not use those lambdas.
+ */
+@Configuration
+public class ElasticJsonpMapperConfiguration {
+
+    @Bean
+    public JacksonJsonpMapper elasticJsonpMapper(SearchConfigurationProperties searchConfigurationProperties) {
+        return createJsonpMapper(searchConfigurationProperties.getElasticMaxResponseSizeMb());
+    }
+
+    public static JacksonJsonpMapper createJsonpMapper(int maxResponseSizeMb) {
+        JsonFactory factory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxDocumentLength(maxResponseSizeMb * 1024L * 1024L)
+                        .build())
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.registerModule(new BlackbirdModule());
+        return new JacksonJsonpMapper(objectMapper);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.NodeSelector;
+
+/**
+ * Sends every request of a partition client to the node with the fewest outstanding requests,
+ * counted as the connections the client holds or waits for per node. The REST client rotates
+ * between equally loaded nodes, so an idle cluster is still used round-robin while a slow node,
+ * which keeps its connections longer, gets fewer requests.
+ *
+ * <p>The latency of every response is published per node as {@code search.elastic.node.latency}.
+ */
+public class ElasticNodeBalancer implements NodeSelector {
+
+  private static final String REQUEST_START = ElasticNodeBalancer.class.getName() + ".start";
+  private static final String NODE_LATENCY_METRIC = "search.elastic.node.latency";
+
+  private final MeterRegistry meterRegistry;
+  private volatile PoolingNHttpClientConnectionManager connectionManager;
+
+  /**
+   * @param meterRegistry {@code null} for uncached clients, which publish no latency metrics
+   */
+  public ElasticNodeBalancer(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  /** Balances over the connections of {@code connectionManager} and times the responses. */
+  public HttpAsyncClientBuilder instrument(
+      HttpAsyncClientBuilder httpClientBuilder,
+      PoolingNHttpClientConnectionManager connectionManager) {
+    this.connectionManager = connectionManager;
+    if (meterRegistry == null) {
+      return httpClientBuilder;
+    }
+    return httpClientBuilder
+        .addInterceptorLast(
+            (HttpRequestInterceptor)
+                (request, context) -> context.setAttribute(REQUEST_START, System.nanoTime()))
+        .addInterceptorLast((HttpResponseInterceptor) (response, context) -> recordLatency(context));
+  }
+
+  PoolingNHttpClientConnectionManager getConnectionManager() {
+    return connectionManager;
+  }
+
+  @Override
+  public void select(Iterable<Node> nodes) {
+    PoolingNHttpClientConnectionManager manager = connectionManager;
+    if (manager == null) {
+      return;
+    }
+    Map<HttpHost, Integer> outstanding = new HashMap<>();
+    for (HttpRoute route : manager.getRoutes()) {
+      PoolStats stats = manager.getStats(route);
+      outstanding.merge(route.getTargetHost(), stats.getLeased() + stats.getPending(), Integer::sum);
+    }
+    int least = Integer.MAX_VALUE;
+    for (Node node : nodes) {
+      least = Math.min(least, outstanding.getOrDefault(node.getHost(), 0));
+    }
+    for (Iterator<Node> iterator = nodes.iterator(); iterator.hasNext(); ) {
+      if (outstanding.getOrDefault(iterator.next().getHost(), 0) > least) {
+        iterator.remove();
+      }
+    }
+  }
+
+  private void recordLatency(HttpContext context) {
+    Object start = context.getAttribute(REQUEST_START);
+    HttpHost node = HttpCoreContext.adapt(context).getTargetHost();
+    if (!(start instanceof Long startTime) || node == null) {
+      return;
+    }
+    Timer.builder(NODE_LATENCY_METRIC)
+        .tags("node", node.toHostString())
+        .description("Latency of Elasticsearch responses per node")
+        .register(meterRegistry)
+        .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public String toString() {
+    return "LEAST_OUTSTANDING_REQUESTS";
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.opengroup.osdu.search.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hit {@code _source} that keeps the Elasticsearch tokens until the document is actually read.
+ *
+ * <p>A hit that is only returned to the caller is replayed token by token into the response and
+ * never becomes a map. {@link #get(Object)} decodes just the requested top level field; any other
+ * map operation decodes the whole document once, after which the hit behaves like the map it
+ * replaces.
+ *
+ * <p>The tokens are decoded with the mapper that read the response, so its stream constraints and
+ * modules apply. A hit may be shared by coalesced searches: every map operation holds the monitor
+ * of the hit, only iterating the entries of a hit that is modified concurrently is not safe.
+ */
+@JsonDeserialize(using = LazyHit.Deserializer.class)
+@JsonSerialize(using = LazyHit.Serializer.class)
+public final class LazyHit extends AbstractMap<String, Object> {
+
+  private static final TypeReference<LinkedHashMap<String, Object>> DOCUMENT_TYPE =
+      new TypeReference<>() {};
+
+  private final TokenBuffer source;
+  private Map<String, Object> decodedFields;
+  private Map<String, Object> document;
+
+  LazyHit(TokenBuffer source) {
+    this.source = source;
+  }
+
+  /** Whether the whole document or any of its fields has been decoded. */
+  public synchronized boolean isDecoded() {
+    return document != null || decodedFields != null;
+  }
+
+  @Override
+  public synchronized Object get(Object key) {
+    if (document != null) {
+      return document.get(key);
+    }
+    if (decodedFields != null && decodedFields.containsKey(key)) {
+      return decodedFields.get(key);
+    }
+    Object value = decodeField(key);
+    if (decodedFields == null) {
+      decodedFields = new HashMap<>();
+    }
+    decodedFields.put((String) key, value);
+    return value;
+  }
+
+  @Override
+  public synchronized Set<Entry<String, Object>> entrySet() {
+    return getDocument().entrySet();
+  }
+
+  @Override
+  public synchronized Object put(String key, Object value) {
+    return getDocument().put(key, value);
+  }
+
+  @Override
+  public synchronized Object remove(Object key) {
+    return getDocument().remove(key);
+  }
+
+  @Override
+  public synchronized boolean containsKey(Object key) {
+    return getDocument().containsKey(key);
+  }
+
+  @Override
+  public synchronized int size() {
+    return getDocument().size();
+  }
+
+  private synchronized Map<String, Object> getDocument() {
+    if (document == null) {
+      try (JsonParser parser = source.asParser(getCodec())) {
+        parser.nextToken();
+        Map<String, Object> decoded = parser.readValueAs(DOCUMENT_TYPE);
+        // fields handed out by get() must stay the instances the caller may have modified
+        if (decodedFields != null) {
+          decoded.putAll(decodedFields);
+          decodedFields = null;
+        }
+        document = decoded;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return document;
+  }
+
+  private Object decodeField(Object key) {
+    try (JsonParser parser = source.asParser(getCodec())) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.currentName();
+        parser.nextToken();
+        if (fieldName.equals(key)) {
+          return parser.readValueAs(Object.class);
+        }
+        parser.skipChildren();
+      }
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private ObjectCodec getCodec() {
+    ObjectCodec codec = source.getCodec();
+    if (codec == null) {
+      throw new IllegalStateException("LazyHit has to be read by an ObjectMapper");
+    }
+    return codec;
+  }
+
+  static class Deserializer extends StdDeserializer<LazyHit> {
+
+    public Deserializer() {
+      super(LazyHit.class);
+    }
+
+    @Override
+    public LazyHit deserialize(JsonParser parser, DeserializationContext context)
+        throws IOException {
+      return new LazyHit(context.bufferAsCopyOfValue(parser));
+    }
+  }
+
+  static class Serializer extends StdSerializer<LazyHit> {
+
+    public Serializer() {
+      super(LazyHit.class);
+    }
+
+    @Override
+    public void serialize(LazyHit hit, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      if (hit.isDecoded()) {
+        provider.defaultSerializeValue(hit.getDocument(), generator);
+      } else {
+        hit.source.serialize(generator);
+      }
+    }
+  }
+}
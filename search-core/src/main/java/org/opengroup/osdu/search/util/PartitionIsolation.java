@@ -0,0 +1,357 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.client.ResponseException;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.search.config.SearchIsolationConfig;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a degraded cluster from taking the other partitions down with it. Every partition gets a
+ * bulkhead, a bounded number of concurrent Elasticsearch calls with a short queue, and a circuit
+ * breaker that fails its calls fast once too many of the recent ones failed. Rejected calls raise
+ * {@link ElasticCallRejectedException}.
+ *
+ * <p>Failures are I/O errors, 5xx and 429 responses; other responses count as successes and
+ * cancelled calls are not counted.
+ *
+ * <p>Metrics: {@code search.elastic.circuit.state} (0 closed, 1 half open, 2 open),
+ * {@code search.elastic.calls.active} and {@code search.elastic.calls.rejected}, all tagged with
+ * the partition.
+ */
+@Slf4j
+@Component
+public class PartitionIsolation {
+
+  private static final String CIRCUIT_OPEN = "circuit_open";
+  private static final String BULKHEAD_FULL = "bulkhead_full";
+
+  private final SearchIsolationConfig config;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, Partition> partitions = new ConcurrentHashMap<>();
+
+  public PartitionIsolation(SearchIsolationConfig config, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public boolean isEnabled() {
+    return Boolean.TRUE.equals(config.getEnabled());
+  }
+
+  /** Calls one partition may have running at once, unbounded while isolation is disabled. */
+  public int getMaxConcurrentCalls() {
+    return isEnabled() ? config.getMaxConcurrentCalls() : Integer.MAX_VALUE;
+  }
+
+  public <T> T execute(String partitionId, ElasticCall<T> call) throws IOException {
+    Partition partition = getPartition(partitionId);
+    partition.acquire();
+    Throwable failure = null;
+    try {
+      return call.execute();
+    } catch (IOException | RuntimeException | Error e) {
+      failure = e;
+      throw e;
+    } finally {
+      partition.release(failure);
+    }
+  }
+
+  /** The slot of the call is held until the returned future completes. */
+  public <T> CompletableFuture<T> executeAsync(
+      String partitionId, Supplier<CompletableFuture<T>> call) {
+    Partition partition = getPartition(partitionId);
+    try {
+      partition.acquire();
+    } catch (ElasticCallRejectedException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    CompletableFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException | Error e) {
+      partition.release(e);
+      throw e;
+    }
+    future.whenComplete((result, throwable) -> partition.release(throwable));
+    return future;
+  }
+
+  /**
+   * Like {@link #executeAsync} for calls that may be skipped, such as prefetches: neither queues
+   * nor waits for a slot and returns {@code null} without calling when none is free.
+   */
+  public <T> CompletableFuture<T> tryExecuteAsync(
+      String partitionId, Supplier<CompletableFuture<T>> call) {
+    Partition partition = getPartition(partitionId);
+    if (!partition.tryAcquire()) {
+      return null;
+    }
+    CompletableFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException | Error e) {
+      partition.release(e);
+      throw e;
+    }
+    future.whenComplete((result, throwable) -> partition.release(throwable));
+    return future;
+  }
+
+  State getState(String partitionId) {
+    return getPartition(partitionId).getState();
+  }
+
+  private Partition getPartition(String partitionId) {
+    return partitions.computeIfAbsent(partitionId, Partition::new);
+  }
+
+  static Outcome getOutcome(Throwable throwable) {
+    if (throwable == null) {
+      return Outcome.SUCCESS;
+    }
+    Throwable cause = throwable;
+    while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+        && cause.getCause() != null) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof CancellationException || cause instanceof ElasticCallRejectedException) {
+      return Outcome.IGNORED;
+    }
+    if (cause instanceof ElasticsearchException e) {
+      return isFailureStatus(e.status()) ? Outcome.FAILURE : Outcome.SUCCESS;
+    }
+    if (cause instanceof ResponseException e) {
+      return isFailureStatus(e.getResponse().getStatusLine().getStatusCode())
+          ? Outcome.FAILURE
+          : Outcome.SUCCESS;
+    }
+    if (cause instanceof AppException e) {
+      return isFailureStatus(e.getError().getCode()) ? Outcome.FAILURE : Outcome.SUCCESS;
+    }
+    return Outcome.FAILURE;
+  }
+
+  private static boolean isFailureStatus(int status) {
+    return status >= 500 || status == 429;
+  }
+
+  enum Outcome {
+    SUCCESS,
+    FAILURE,
+    IGNORED
+  }
+
+  enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  private final class Partition {
+
+    private final String partitionId;
+    private final Semaphore calls;
+    private final AtomicInteger queuedCalls = new AtomicInteger();
+    // outcomes of the last calls while closed, guarded by this
+    private final boolean[] failures;
+    private int windowPosition;
+    private int windowCalls;
+    private int windowFailures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialCalls;
+    private int trialSuccesses;
+
+    private Partition(String partitionId) {
+      this.partitionId = partitionId;
+      this.calls = new Semaphore(config.getMaxConcurrentCalls());
+      this.failures = new boolean[config.getSlidingWindowSize()];
+      Gauge.builder("search.elastic.circuit.state", this, partition -> partition.getState().ordinal())
+          .tags("partition", partitionId)
+          .description("Circuit breaker of the Elasticsearch calls of the partition")
+          .register(meterRegistry);
+      Gauge.builder(
+              "search.elastic.calls.active",
+              calls,
+              semaphore -> config.getMaxConcurrentCalls() - semaphore.availablePermits())
+          .tags("partition", partitionId)
+          .description("Elasticsearch calls of the partition in flight")
+          .register(meterRegistry);
+    }
+
+    void acquire() {
+      if (isOpen()) {
+        throw reject(CIRCUIT_OPEN);
+      }
+      if (!calls.tryAcquire() && !awaitSlot()) {
+        throw reject(BULKHEAD_FULL);
+      }
+      if (!tryEnter()) {
+        calls.release();
+        throw reject(CIRCUIT_OPEN);
+      }
+    }
+
+    boolean tryAcquire() {
+      if (isOpen() || !calls.tryAcquire()) {
+        return false;
+      }
+      if (!tryEnter()) {
+        calls.release();
+        return false;
+      }
+      return true;
+    }
+
+    void release(Throwable throwable) {
+      calls.release();
+      record(getOutcome(throwable));
+    }
+
+    private boolean awaitSlot() {
+      if (queuedCalls.incrementAndGet() > config.getMaxQueuedCalls()) {
+        queuedCalls.decrementAndGet();
+        return false;
+      }
+      try {
+        return calls.tryAcquire(config.getMaxQueueWait(), TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        queuedCalls.decrementAndGet();
+      }
+    }
+
+    private synchronized State getState() {
+      return state;
+    }
+
+    private synchronized boolean isOpen() {
+      return state == State.OPEN && getOpenMillisRemaining() > 0;
+    }
+
+    private synchronized boolean tryEnter() {
+      if (state == State.OPEN) {
+        if (getOpenMillisRemaining() > 0) {
+          return false;
+        }
+        log.info("Probing the Elasticsearch cluster of partition {} again", partitionId);
+        state = State.HALF_OPEN;
+        trialCalls = 0;
+        trialSuccesses = 0;
+      }
+      if (state == State.HALF_OPEN) {
+        if (trialCalls >= config.getHalfOpenCalls()) {
+          return false;
+        }
+        trialCalls++;
+      }
+      return true;
+    }
+
+    private synchronized void record(Outcome outcome) {
+      if (state == State.OPEN) {
+        // a call admitted before the circuit opened
+        return;
+      }
+      if (state == State.HALF_OPEN) {
+        if (outcome == Outcome.FAILURE) {
+          open();
+        } else if (outcome == Outcome.IGNORED) {
+          trialCalls--;
+        } else if (++trialSuccesses >= config.getHalfOpenCalls()) {
+          log.info("Closing the circuit of the Elasticsearch calls of partition {}", partitionId);
+          state = State.CLOSED;
+          windowPosition = 0;
+          windowCalls = 0;
+          windowFailures = 0;
+        }
+        return;
+      }
+      if (outcome == Outcome.IGNORED) {
+        return;
+      }
+      boolean failure = outcome == Outcome.FAILURE;
+      if (windowCalls == failures.length) {
+        if (failures[windowPosition]) {
+          windowFailures--;
+        }
+      } else {
+        windowCalls++;
+      }
+      failures[windowPosition] = failure;
+      windowPosition = (windowPosition + 1) % failures.length;
+      if (failure) {
+        windowFailures++;
+      }
+      if (windowCalls >= config.getMinimumCalls()
+          && windowFailures >= config.getFailureRateThreshold() * windowCalls) {
+        open();
+      }
+    }
+
+    private void open() {
+      log.warn(
+          "Opening the circuit of the Elasticsearch calls of partition {} for {}ms",
+          partitionId,
+          config.getOpenDuration());
+      state = State.OPEN;
+      openedAt = System.currentTimeMillis();
+    }
+
+    private long getOpenMillisRemaining() {
+      return openedAt + config.getOpenDuration() - System.currentTimeMillis();
+    }
+
+    private ElasticCallRejectedException reject(String reason) {
+      meterRegistry
+          .counter("search.elastic.calls.rejected", "partition", partitionId, "reason", reason)
+          .increment();
+      if (CIRCUIT_OPEN.equals(reason)) {
+        long retryAfterMillis;
+        synchronized (this) {
+          retryAfterMillis = Math.max(getOpenMillisRemaining(), 0L);
+        }
+        return new ElasticCallRejectedException(
+            "The search cluster of the partition is unavailable, please re-try after some time.",
+            Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999)));
+      }
+      return new ElasticCallRejectedException(
+          "Too many concurrent searches on the partition, please re-try after some time.", 1L);
+    }
+  }
+}
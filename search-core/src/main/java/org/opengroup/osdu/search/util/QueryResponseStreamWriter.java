@@ -0,0 +1,234 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.opengroup.osdu.core.common.model.search.AggregationResponse;
+import org.opengroup.osdu.core.common.model.search.RecordMetaAttribute;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts a raw Elasticsearch search response into the {@code QueryResponse} JSON format without
+ * materializing the hits. Each hit {@code _source} and its highlight are copied token by token to
+ * the output, only the envelope (total count, aggregations and suggestions) is parsed.
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryResponseStreamWriter {
+
+  private static final String HIGHLIGHT = "highlight";
+  private static final String DOC_VALUE_FIELDS = "fields";
+  private static final TypeReference<Map<String, List<Object>>> DOC_VALUE_FIELDS_TYPE =
+      new TypeReference<>() {};
+  private static final String SUGGESTION_NAME = "autocomplete";
+
+  private final ObjectMapper objectMapper;
+
+  public void write(
+      InputStream elasticResponse, OutputStream outputStream, boolean includePhraseSuggestions)
+      throws IOException {
+    JsonFactory factory = objectMapper.getFactory();
+    try (JsonParser parser = factory.createParser(elasticResponse);
+        JsonGenerator generator = factory.createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IOException("Unexpected Elasticsearch response format");
+      }
+
+      long totalCount = 0;
+      JsonNode aggregations = null;
+      JsonNode suggest = null;
+
+      generator.writeStartObject();
+      generator.writeArrayFieldStart("results");
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        switch (fieldName) {
+          case "hits" -> totalCount = writeHits(parser, generator);
+          case "aggregations" -> aggregations = objectMapper.readTree(parser);
+          case "suggest" -> suggest = objectMapper.readTree(parser);
+          default -> parser.skipChildren();
+        }
+      }
+      generator.writeEndArray();
+
+      List<AggregationResponse> aggregationResponses = getAggregations(aggregations);
+      generator.writeFieldName("aggregations");
+      generator.writeObject(aggregationResponses != null ? aggregationResponses : new ArrayList<>());
+      generator.writeFieldName("phraseSuggestions");
+      generator.writeObject(
+          includePhraseSuggestions ? getPhraseSuggestions(suggest) : new ArrayList<>());
+      generator.writeNumberField("totalCount", totalCount);
+      generator.writeEndObject();
+    }
+  }
+
+  private long writeHits(JsonParser parser, JsonGenerator generator) throws IOException {
+    long totalCount = 0;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if ("total".equals(fieldName)) {
+        JsonNode total = objectMapper.readTree(parser);
+        totalCount = total.isNumber() ? total.asLong() : total.path("value").asLong();
+      } else if ("hits".equals(fieldName) && token == JsonToken.START_ARRAY) {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+          writeHit(parser, generator);
+        }
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return totalCount;
+  }
+
+  private void writeHit(JsonParser parser, JsonGenerator generator) throws IOException {
+    boolean started = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String fieldName = parser.getCurrentName();
+      JsonToken token = parser.nextToken();
+      if ("_source".equals(fieldName) && token == JsonToken.START_OBJECT) {
+        if (!started) {
+          generator.writeStartObject();
+          started = true;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          generator.copyCurrentStructure(parser);
+        }
+      } else if (DOC_VALUE_FIELDS.equals(fieldName) && token == JsonToken.START_OBJECT) {
+        // docvalue_fields requests skip _source, the hit is rebuilt from the doc values
+        Map<String, List<Object>> fields = objectMapper.readValue(parser, DOC_VALUE_FIELDS_TYPE);
+        if (!started) {
+          generator.writeStartObject();
+          started = true;
+        }
+        for (Map.Entry<String, Object> field : DocValueFields.toDocument(fields).entrySet()) {
+          generator.writeObjectField(field.getKey(), field.getValue());
+        }
+      } else if (HIGHLIGHT.equals(fieldName) && token == JsonToken.START_OBJECT) {
+        JsonNode highlight = objectMapper.readTree(parser);
+        if (highlight.isEmpty()) {
+          continue;
+        }
+        if (!started) {
+          generator.writeStartObject();
+          started = true;
+        }
+        generator.writeObjectFieldStart(HIGHLIGHT);
+        Iterator<Map.Entry<String, JsonNode>> fields = highlight.fields();
+        while (fields.hasNext()) {
+          Map.Entry<String, JsonNode> entry = fields.next();
+          if (!entry.getKey().equalsIgnoreCase(RecordMetaAttribute.X_ACL.getValue())) {
+            generator.writeFieldName(entry.getKey());
+            generator.writeTree(entry.getValue());
+          }
+        }
+        generator.writeEndObject();
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (started) {
+      generator.writeEndObject();
+    } else {
+      generator.writeNull();
+    }
+  }
+
+  private List<AggregationResponse> getAggregations(JsonNode aggregations) {
+    if (aggregations == null) {
+      return null;
+    }
+
+    JsonNode kindAgg;
+    JsonNode nested = getTypedField(aggregations, AggregationParserUtil.NESTED_AGGREGATION_NAME);
+    if (nested != null) {
+      kindAgg = getTermsAggregationFromNested(nested);
+    } else {
+      kindAgg = getTypedField(aggregations, AggregationParserUtil.TERM_AGGREGATION_NAME);
+    }
+    if (kindAgg == null || !kindAgg.path("buckets").isArray()) {
+      return null;
+    }
+
+    List<AggregationResponse> results = new ArrayList<>();
+    for (JsonNode bucket : kindAgg.path("buckets")) {
+      JsonNode key = bucket.has("key_as_string") ? bucket.get("key_as_string") : bucket.get("key");
+      results.add(
+          AggregationResponse.builder()
+              .key(key != null ? key.asText() : null)
+              .count(bucket.path("doc_count").asLong())
+              .build());
+    }
+    return results;
+  }
+
+  private JsonNode getTermsAggregationFromNested(JsonNode nested) {
+    JsonNode inner = getTypedField(nested, AggregationParserUtil.NESTED_AGGREGATION_NAME);
+    if (inner != null) {
+      return getTermsAggregationFromNested(inner);
+    }
+    return getTypedField(nested, AggregationParserUtil.TERM_AGGREGATION_NAME);
+  }
+
+  private List<String> getPhraseSuggestions(JsonNode suggest) {
+    List<String> phraseSuggestions = new ArrayList<>();
+    JsonNode suggestions = suggest != null ? getTypedField(suggest, SUGGESTION_NAME) : null;
+    if (suggestions == null) {
+      return phraseSuggestions;
+    }
+    for (JsonNode suggestion : suggestions) {
+      for (JsonNode option : suggestion.path("options")) {
+        JsonNode text = option.get("text");
+        if (text != null && !text.isNull()) {
+          phraseSuggestions.add(text.asText());
+        }
+      }
+    }
+    return phraseSuggestions;
+  }
+
+  // the search endpoint always sets typed_keys, so names are prefixed with their type, e.g. "sterms#agg"
+  private JsonNode getTypedField(JsonNode node, String name) {
+    Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> entry = fields.next();
+      String key = entry.getKey();
+      if (key.equals(name) || key.endsWith("#" + name)) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
+import org.opengroup.osdu.core.common.model.http.DpsHeaders;
+import org.opengroup.osdu.search.config.AsyncQueryConfig;
+import org.opengroup.osdu.search.context.RequestDeadline;
+import org.opengroup.osdu.search.context.UserContext;
+import org.opengroup.osdu.search.logging.AuditLogger;
+import org.springframework.aop.scope.ScopedObject;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Runs the continuations of asynchronous searches. Request scoped beans (headers, user context,
+ * audit logger) live on the servlet request, which the container may recycle as soon as the
+ * response is complete, so the servlet request itself never leaves the request thread. Instead the
+ * request scoped beans are resolved on the request thread and every task sees a copy of them,
+ * bound as read-only request attributes without the servlet request behind them.
+ *
+ * <p>The beans stay owned by the originating request: their destruction callbacks run when it
+ * completes, never when a task does. A bean first created inside a task is not destroyed, and one
+ * that needs the servlet request fails instead of reading a recycled one.
+ */
+@Component
+public class RequestContextExecutor implements DisposableBean {
+
+  private static final String THREAD_NAME_PREFIX = "search-async-";
+
+  private final ExecutorService executor;
+  // request scoped beans read by the continuations, resolved before the snapshot is taken
+  private final List<Object> continuationBeans;
+
+  @Autowired
+  public RequestContextExecutor(
+      AsyncQueryConfig asyncQueryConfig,
+      DpsHeaders dpsHeaders,
+      JaxRsDpsLog log,
+      UserContext userContext,
+      RequestDeadline requestDeadline,
+      AuditLogger auditLogger) {
+    this.continuationBeans = List.of(dpsHeaders, log, userContext, requestDeadline, auditLogger);
+    this.executor =
+        Executors.newFixedThreadPool(
+            asyncQueryConfig.getPoolSize(),
+            new ThreadFactoryBuilder()
+                .setNameFormat(THREAD_NAME_PREFIX + "%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  /**
+   * Must be called on the request thread; the returned executor carries a snapshot of the request
+   * scoped beans of that request to the worker thread.
+   */
+  public Executor forCurrentRequest() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+      return executor;
+    }
+    for (Object bean : continuationBeans) {
+      if (bean instanceof ScopedObject scopedObject) {
+        scopedObject.getTargetObject();
+      }
+    }
+    RequestScopeSnapshot snapshot = new RequestScopeSnapshot(servletAttributes.getRequest());
+    return task -> executor.execute(() -> runInSnapshot(snapshot, task));
+  }
+
+  /**
+   * Executor for work that reads no request state, such as callbacks that usually complete after
+   * the response was sent.
+   */
+  public Executor withoutRequest() {
+    return executor;
+  }
+
+  private static void runInSnapshot(RequestScopeSnapshot snapshot, Runnable task) {
+    RequestAttributes previous = RequestContextHolder.getRequestAttributes();
+    RequestContextHolder.setRequestAttributes(snapshot);
+    try {
+      task.run();
+    } finally {
+      RequestContextHolder.setRequestAttributes(previous);
+    }
+  }
+
+  /** Request attributes copied off the servlet request, without a reference to the request. */
+  static class RequestScopeSnapshot implements RequestAttributes {
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    RequestScopeSnapshot(HttpServletRequest request) {
+      Enumeration<String> names = request.getAttributeNames();
+      while (names.hasMoreElements()) {
+        String name = names.nextElement();
+        Object value = request.getAttribute(name);
+        if (value != null) {
+          attributes.put(name, value);
+        }
+      }
+    }
+
+    @Override
+    public Object getAttribute(String name, int scope) {
+      return scope == SCOPE_REQUEST ? attributes.get(name) : null;
+    }
+
+    @Override
+    public void setAttribute(String name, Object value, int scope) {
+      if (scope == SCOPE_REQUEST) {
+        attributes.put(name, value);
+      }
+    }
+
+    @Override
+    public void removeAttribute(String name, int scope) {
+      if (scope == SCOPE_REQUEST) {
+        attributes.remove(name);
+      }
+    }
+
+    @Override
+    public String[] getAttributeNames(int scope) {
+      return scope == SCOPE_REQUEST ? attributes.keySet().toArray(new String[0]) : new String[0];
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback, int scope) {
+      // destruction belongs to the originating request
+    }
+
+    @Override
+    public Object resolveReference(String key) {
+      return null;
+    }
+
+    @Override
+    public String getSessionId() {
+      throw new IllegalStateException("No session outside of the request thread");
+    }
+
+    @Override
+    public Object getSessionMutex() {
+      return this;
+    }
+  }
+
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
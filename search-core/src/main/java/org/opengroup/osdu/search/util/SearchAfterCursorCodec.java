@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Carries the state of a search_after cursor in the cursor itself instead of the settings cache,
+ * enabled with {@code searchAfterStatelessCursorsEnabled}. The settings, in the binary form of
+ * {@link CursorSettingsCodec}, are encrypted and
+ * authenticated with AES-GCM under a key derived from {@code searchAfterCursorSecret}, which all
+ * replicas share, so any replica can continue a cursor and nobody can read or alter its content.
+ * The time the cursor was issued is authenticated along with the settings, a cursor is rejected
+ * once it is older than {@code searchAfterStatelessCursorExpiration}, like an expired cache entry.
+ *
+ * <p>Cursors kept in the cache are plain hashes; stateless ones are told apart by their prefix,
+ * so cursors issued before the switch keep working until they expire.
+ */
+@Component
+public class SearchAfterCursorCodec {
+
+  private static final String PREFIX = "sac1.";
+  private static final byte VERSION = 2;
+  private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+  private static final int NONCE_LENGTH = 12;
+  private static final int TAG_LENGTH_BITS = 128;
+
+  private final SecretKey key;
+  private final long expirationMillis;
+  private final LongSupplier clock;
+  private final SecureRandom random = new SecureRandom();
+
+  @Autowired
+  public SearchAfterCursorCodec(SearchConfigurationProperties searchConfigurationProperties) {
+    this(searchConfigurationProperties, System::currentTimeMillis);
+  }
+
+  SearchAfterCursorCodec(SearchConfigurationProperties searchConfigurationProperties, LongSupplier clock) {
+    this.clock = clock;
+    this.expirationMillis =
+        TimeUnit.SECONDS.toMillis(searchConfigurationProperties.getSearchAfterStatelessCursorExpiration());
+    if (!searchConfigurationProperties.isSearchAfterStatelessCursorsEnabled()) {
+      this.key = null;
+      return;
+    }
+    String secret = searchConfigurationProperties.getSearchAfterCursorSecret();
+    if (Strings.isNullOrEmpty(secret)) {
+      throw new IllegalStateException(
+          "searchAfterCursorSecret is required when searchAfterStatelessCursorsEnabled is set");
+    }
+    this.key =
+        new SecretKeySpec(
+            Hashing.sha256().hashString(secret, StandardCharsets.UTF_8).asBytes(), "AES");
+  }
+
+  public boolean isEnabled() {
+    return key != null;
+  }
+
+  /** Whether the cursor holds its own state, cursors kept in the cache are plain hashes. */
+  public boolean isStatelessCursor(String cursor) {
+    return isEnabled() && cursor != null && cursor.startsWith(PREFIX);
+  }
+
+  public String encode(SearchAfterSettings settings) {
+    try {
+      byte[] nonce = new byte[NONCE_LENGTH];
+      random.nextBytes(nonce);
+      Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+      cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+      cipher.updateAAD(new byte[] {VERSION});
+      byte[] content = CursorSettingsCodec.toBytes(settings);
+      byte[] encrypted =
+          cipher.doFinal(
+              ByteBuffer.allocate(Long.BYTES + content.length)
+                  .putLong(clock.getAsLong())
+                  .put(content)
+                  .array());
+      ByteBuffer token = ByteBuffer.allocate(1 + NONCE_LENGTH + encrypted.length);
+      token.put(VERSION).put(nonce).put(encrypted);
+      return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Unable to encode the cursor", e);
+    }
+  }
+
+  /**
+   * Settings of the cursor, null when it was altered, is malformed, was issued under another key or
+   * has expired.
+   */
+  public SearchAfterSettings decode(String cursor) {
+    try {
+      ByteBuffer token =
+          ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor.substring(PREFIX.length())));
+      if (token.remaining() <= 1 + NONCE_LENGTH || token.get() != VERSION) {
+        return null;
+      }
+      byte[] nonce = new byte[NONCE_LENGTH];
+      token.get(nonce);
+      Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+      cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+      cipher.updateAAD(new byte[] {VERSION});
+      ByteBuffer content =
+          ByteBuffer.wrap(cipher.doFinal(token.array(), token.position(), token.remaining()));
+      long issuedAt = content.getLong();
+      if (clock.getAsLong() - issuedAt > expirationMillis) {
+        return null;
+      }
+      byte[] settings = new byte[content.remaining()];
+      content.get(settings);
+      return CursorSettingsCodec.toSearchAfterSettings(settings);
+    } catch (IllegalArgumentException | BufferUnderflowException | GeneralSecurityException e) {
+      return null;
+    }
+  }
+}
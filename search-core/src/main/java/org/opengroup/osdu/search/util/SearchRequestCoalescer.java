@@ -0,0 +1,125 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets concurrent identical searches share one Elasticsearch call. The first caller for a key runs
+ * the search, callers arriving while it is in flight wait for its outcome instead of sending their
+ * own. Nothing is kept once the search completes, so this is not a cache.
+ *
+ * <p>A follower waits no longer than its own time budget. When the leader has not answered by
+ * then, or failed on its own deadline while the follower still has time, the follower runs the
+ * search itself.
+ *
+ * <p>{@code search.coalescing.requests} counts callers by role; the coalescing ratio is followers
+ * over all callers.
+ */
+@Component
+public class SearchRequestCoalescer {
+
+  private static final String METRIC_NAME = "search.coalescing.requests";
+
+  private final Map<String, CompletableFuture<SearchResponse<Map<String, Object>>>> inFlight =
+      new ConcurrentHashMap<>();
+  private final Counter leaders;
+  private final Counter followers;
+
+  public SearchRequestCoalescer(MeterRegistry meterRegistry) {
+    this.leaders = meterRegistry.counter(METRIC_NAME, "role", "leader");
+    this.followers = meterRegistry.counter(METRIC_NAME, "role", "follower");
+  }
+
+  /**
+   * @param timeoutMillis how long the caller may wait for the search of an identical request in
+   *     flight, its remaining deadline
+   */
+  public SearchResponse<Map<String, Object>> execute(
+      String key, long timeoutMillis, SearchCall search) throws IOException {
+    CompletableFuture<SearchResponse<Map<String, Object>>> pending = new CompletableFuture<>();
+    CompletableFuture<SearchResponse<Map<String, Object>>> leader =
+        this.inFlight.putIfAbsent(key, pending);
+    if (leader != null) {
+      this.followers.increment();
+      return await(leader, timeoutMillis, search);
+    }
+
+    this.leaders.increment();
+    try {
+      SearchResponse<Map<String, Object>> response = search.execute();
+      pending.complete(response);
+      return response;
+    } catch (IOException | RuntimeException | Error e) {
+      pending.completeExceptionally(e);
+      throw e;
+    } finally {
+      this.inFlight.remove(key, pending);
+    }
+  }
+
+  private SearchResponse<Map<String, Object>> await(
+      CompletableFuture<SearchResponse<Map<String, Object>>> leader,
+      long timeoutMillis,
+      SearchCall search)
+      throws IOException {
+    long waitStart = System.nanoTime();
+    try {
+      return leader.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      // the search runs under the deadline of this caller and fails on it
+      return search.execute();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a coalesced search");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - waitStart);
+      if (cause instanceof AppException appException
+          && appException.getError().getCode() == HttpServletResponse.SC_GATEWAY_TIMEOUT
+          && waitedMillis < timeoutMillis) {
+        // the leader ran out of its own time, this caller has some left
+        return search.execute();
+      }
+      // otherwise followers fail exactly like the leader did
+      if (cause instanceof IOException ioException) {
+        throw ioException;
+      }
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      if (cause instanceof Error error) {
+        throw error;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
@@ -0,0 +1,257 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.opengroup.osdu.search.config.SearchRetryConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Retries searches rejected by an overloaded cluster (429, 503) with full jitter exponential
+ * backoff, and optionally hedges slow searches with a duplicate request.
+ *
+ * <p>Retries are bounded by a budget: every search earns {@code budget-ratio} of a retry, every
+ * retry spends one, so a cluster that rejects everything sees at most that fraction of extra load.
+ * Hedges fire once a search has been running longer than the configured percentile of recent
+ * search latencies; the first successful response wins and the other request is aborted. Hedges
+ * are started by a scheduler of their own and are skipped rather than queued when the partition
+ * has no slot free, a duplicate must never wait behind the searches it is meant to overtake.
+ *
+ * <p>Metrics: {@code search.retry.attempts}, {@code search.retry.hedges},
+ * {@code search.retry.hedges.skipped} and {@code search.retry.budget.exhausted}.
+ */
+@Component
+public class SearchRetryPolicy implements DisposableBean {
+
+  private static final int LATENCY_SAMPLES = 1024;
+  // below this many samples the percentile is not meaningful, no search is hedged
+  private static final int MINIMUM_LATENCY_SAMPLES = 100;
+  private static final int HEDGE_DELAY_REFRESH_INTERVAL = 64;
+  private static final long MILLI_TOKENS = 1000L;
+
+  private final SearchRetryConfig config;
+  private final Counter retries;
+  private final Counter hedges;
+  private final Counter skippedHedges;
+  private final Counter budgetExhausted;
+  private final AtomicLong budget;
+  private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_SAMPLES);
+  private final AtomicLong recordedLatencies = new AtomicLong();
+  private volatile long hedgeDelayMillis = -1L;
+  private final ScheduledThreadPoolExecutor hedgeScheduler;
+
+  public SearchRetryPolicy(SearchRetryConfig config, MeterRegistry meterRegistry) {
+    this.config = config;
+    this.retries = meterRegistry.counter("search.retry.attempts");
+    this.hedges = meterRegistry.counter("search.retry.hedges");
+    this.skippedHedges = meterRegistry.counter("search.retry.hedges.skipped");
+    this.budgetExhausted = meterRegistry.counter("search.retry.budget.exhausted");
+    this.budget = new AtomicLong(config.getBudgetCapacity() * MILLI_TOKENS);
+    this.hedgeScheduler =
+        new ScheduledThreadPoolExecutor(
+            1, new ThreadFactoryBuilder().setNameFormat("search-hedge-%d").setDaemon(true).build());
+    // searches that complete before their hedge delay leave no task behind
+    this.hedgeScheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  public boolean isEnabled() {
+    return Boolean.TRUE.equals(config.getEnabled());
+  }
+
+  public boolean isHedgingEnabled() {
+    return Boolean.TRUE.equals(config.getHedgingEnabled());
+  }
+
+  /**
+   * Runs the search, retrying rejections while attempts, budget and the remaining time allow.
+   * The last rejection is rethrown as is.
+   */
+  public SearchResponse<Map<String, Object>> execute(SearchCall search, LongSupplier remainingMillis)
+      throws IOException {
+    deposit();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return search.execute();
+      } catch (ElasticsearchException e) {
+        if (!isRetryable(e) || attempt >= config.getMaxAttempts()) {
+          throw e;
+        }
+        long backoff = getBackoffMillis(attempt);
+        if (backoff >= remainingMillis.getAsLong()) {
+          throw e;
+        }
+        if (!tryAcquireRetry()) {
+          budgetExhausted.increment();
+          throw e;
+        }
+        retries.increment();
+        try {
+          Thread.sleep(backoff);
+        } catch (InterruptedException interruptedException) {
+          Thread.currentThread().interrupt();
+          throw e;
+        }
+      }
+    }
+  }
+
+  /**
+   * Starts the search and, if it is still running after the hedge delay, the duplicate. The
+   * duplicate returns {@code null} when it cannot be started right away, the hedge is then skipped.
+   * Completes with the first successful response, or with the failure of the last request.
+   */
+  public <T> CompletableFuture<T> hedge(
+      Supplier<CompletableFuture<T>> search, Supplier<CompletableFuture<T>> duplicate) {
+    CompletableFuture<T> response = new CompletableFuture<>();
+    List<CompletableFuture<T>> requests = new CopyOnWriteArrayList<>();
+    AtomicInteger running = new AtomicInteger(1);
+    // whichever way the response completes, nobody needs the remaining requests
+    response.whenComplete((result, throwable) -> requests.forEach(request -> request.cancel(true)));
+    start(search, response, requests, running);
+
+    long delay = hedgeDelayMillis;
+    if (delay >= 0 && !response.isDone()) {
+      ScheduledFuture<?> scheduledHedge =
+          hedgeScheduler.schedule(
+              () -> {
+                if (response.isDone()) {
+                  return;
+                }
+                running.incrementAndGet();
+                if (start(duplicate, response, requests, running)) {
+                  hedges.increment();
+                } else {
+                  skippedHedges.increment();
+                }
+              },
+              delay,
+              TimeUnit.MILLISECONDS);
+      response.whenComplete((result, throwable) -> scheduledHedge.cancel(false));
+    }
+    return response;
+  }
+
+  @Override
+  public void destroy() {
+    hedgeScheduler.shutdownNow();
+  }
+
+  /** Whether a request was started, one that returned {@code null} was skipped. */
+  private <T> boolean start(
+      Supplier<CompletableFuture<T>> search,
+      CompletableFuture<T> response,
+      List<CompletableFuture<T>> requests,
+      AtomicInteger running) {
+    long startTime = System.currentTimeMillis();
+    CompletableFuture<T> request;
+    try {
+      request = search.get();
+    } catch (RuntimeException e) {
+      // a request that could not be started counts as failed, or the response never completes
+      if (running.decrementAndGet() == 0) {
+        response.completeExceptionally(e);
+      }
+      return false;
+    }
+    if (request == null) {
+      // the requests already started decide, they may all have failed in the meantime
+      if (running.decrementAndGet() == 0 && !requests.isEmpty()) {
+        requests
+            .get(requests.size() - 1)
+            .whenComplete((result, throwable) -> response.completeExceptionally(throwable));
+      }
+      return false;
+    }
+    requests.add(request);
+    if (response.isDone()) {
+      request.cancel(true);
+      return true;
+    }
+    request.whenComplete(
+        (result, throwable) -> {
+          if (throwable == null) {
+            recordLatency(System.currentTimeMillis() - startTime);
+            response.complete(result);
+          } else if (running.decrementAndGet() == 0) {
+            response.completeExceptionally(throwable);
+          }
+        });
+    return true;
+  }
+
+  long getBackoffMillis(int attempt) {
+    long ceiling = Math.min(config.getMaxBackoff(), config.getInitialBackoff() << Math.min(attempt - 1, 20));
+    return ThreadLocalRandom.current().nextLong(ceiling + 1);
+  }
+
+  long getHedgeDelayMillis() {
+    return hedgeDelayMillis;
+  }
+
+  void recordLatency(long latencyMillis) {
+    long sample = recordedLatencies.getAndIncrement();
+    latencies.set((int) (sample % LATENCY_SAMPLES), latencyMillis);
+    long samples = sample + 1;
+    if (samples == MINIMUM_LATENCY_SAMPLES
+        || (samples > MINIMUM_LATENCY_SAMPLES && samples % HEDGE_DELAY_REFRESH_INTERVAL == 0)) {
+      int size = (int) Math.min(samples, LATENCY_SAMPLES);
+      long[] sorted = new long[size];
+      for (int i = 0; i < size; i++) {
+        sorted[i] = latencies.get(i);
+      }
+      Arrays.sort(sorted);
+      int index = (int) Math.min(size - 1, Math.ceil(config.getHedgePercentile() * size) - 1);
+      hedgeDelayMillis = Math.max(config.getHedgeMinimumDelay(), sorted[Math.max(0, index)]);
+    }
+  }
+
+  private boolean isRetryable(ElasticsearchException e) {
+    return e.status() == 429 || e.status() == 503;
+  }
+
+  private void deposit() {
+    long capacity = config.getBudgetCapacity() * MILLI_TOKENS;
+    long earned = Math.round(config.getBudgetRatio() * MILLI_TOKENS);
+    budget.getAndUpdate(tokens -> Math.min(capacity, tokens + earned));
+  }
+
+  private boolean tryAcquireRetry() {
+    long tokens = budget.getAndUpdate(current -> current >= MILLI_TOKENS ? current - MILLI_TOKENS : current);
+    return tokens >= MILLI_TOKENS;
+  }
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2020-2024 Google LLC
+ *  Copyright 2020-2024 EPAM Systems, Inc
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.opengroup.osdu.search.util;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.opengroup.osdu.core.common.model.indexer.IElasticSettingService;
+import org.opengroup.osdu.core.common.model.search.ClusterSettings;
+import org.opengroup.osdu.search.config.SearchWarmUpConfig;
+import org.opengroup.osdu.search.service.IndexAliasService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the Elasticsearch clients of all partitions when the service starts, opens a first
+ * connection to every cluster and loads the index aliases of the configured kinds, so the first
+ * requests after a deploy do not pay for it. Runs before the application is ready;
+ * {@code /readiness_check} fails until it completed or timed out.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "search.warm-up", name = "enabled", havingValue = "true")
+public class SearchWarmUp implements ApplicationRunner {
+
+  private static final String PARTITIONS_METRIC = "search.warm-up.partitions";
+
+  private final IElasticSettingService elasticSettingService;
+  private final ElasticClientHandler elasticClientHandler;
+  private final IndexAliasService indexAliasService;
+  private final SearchWarmUpConfig config;
+  private final MeterRegistry meterRegistry;
+  private final AtomicInteger remainingPartitions = new AtomicInteger();
+  private volatile boolean complete;
+
+  @Autowired
+  public SearchWarmUp(
+      IElasticSettingService elasticSettingService,
+      ElasticClientHandler elasticClientHandler,
+      IndexAliasService indexAliasService,
+      SearchWarmUpConfig config,
+      MeterRegistry meterRegistry) {
+    this.elasticSettingService = elasticSettingService;
+    this.elasticClientHandler = elasticClientHandler;
+    this.indexAliasService = indexAliasService;
+    this.config = config;
+    this.meterRegistry = meterRegistry;
+    Gauge.builder("search.warm-up.remaining", remainingPartitions, AtomicInteger::get)
+        .description("Partitions still warming up")
+        .register(meterRegistry);
+  }
+
+  public boolean isComplete() {
+    return complete;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    Timer.Sample sample = Timer.start(meterRegistry);
+    try {
+      warmUp();
+    } finally {
+      sample.stop(
+          Timer.builder("search.warm-up.duration")
+              .description("Time until the service was warmed up")
+              .register(meterRegistry));
+      complete = true;
+    }
+  }
+
+  void warmUp() {
+    Map<String, ClusterSettings> allSettings;
+    try {
+      allSettings = elasticSettingService.getAllClustersSettings();
+    } catch (Exception e) {
+      log.warn("Failed to resolve cluster settings, search warm-up is skipped", e);
+      return;
+    }
+    if (allSettings.isEmpty()) {
+      return;
+    }
+    log.info("Warming up {} partitions", allSettings.size());
+    remainingPartitions.set(allSettings.size());
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.max(1, Math.min(config.getParallelism(), allSettings.size())),
+            new ThreadFactoryBuilder().setNameFormat("search-warm-up-%d").setDaemon(true).build());
+    try {
+      CompletableFuture.allOf(
+              allSettings.entrySet().stream()
+                  .map(
+                      entry ->
+                          CompletableFuture.runAsync(
+                              () -> warmUp(entry.getKey(), entry.getValue()), executor))
+                  .toArray(CompletableFuture[]::new))
+          .get(config.getTimeout(), TimeUnit.MILLISECONDS);
+      log.info("Warmed up {} partitions", allSettings.size());
+    } catch (TimeoutException e) {
+      log.warn(
+          "Search warm-up did not complete within {}ms, {} partitions remaining",
+          config.getTimeout(),
+          remainingPartitions.get());
+    } catch (ExecutionException e) {
+      log.warn("Search warm-up failed", e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void warmUp(String partitionId, ClusterSettings clusterSettings) {
+    String result = "success";
+    try {
+      ElasticsearchClient client =
+          elasticClientHandler.getOrCreateRestClient(partitionId, clusterSettings);
+      // opens the first connection of the partition's transport
+      if (!client.ping().value()) {
+        result = "failure";
+        log.warn("Search warm-up failed for partition: {}, cluster did not answer the ping", partitionId);
+        return;
+      }
+      if (!config.getKinds().isEmpty()) {
+        indexAliasService.preloadIndicesAliases(partitionId, client, config.getKinds());
+      }
+    } catch (Exception e) {
+      result = "failure";
+      log.warn("Search warm-up failed for partition: {}", partitionId, e);
+    } finally {
+      remainingPartitions.decrementAndGet();
+      meterRegistry.counter(PARTITIONS_METRIC, "result", result).increment();
+    }
+  }
+}
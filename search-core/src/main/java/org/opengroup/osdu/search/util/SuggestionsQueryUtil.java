@@ -19,8 +19,8 @@ package org.opengroup.osdu.search.util;
 
 import static org.opengroup.osdu.search.config.SearchConfigurationProperties.AUTOCOMPLETE_FEATURE_NAME;
 
-import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.CompletionSuggestOption;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
 import co.elastic.clients.elasticsearch.core.search.Suggester;
 import co.elastic.clients.elasticsearch.core.search.Suggestion;
 import java.util.*;
@@ -50,7 +50,7 @@ public class SuggestionsQueryUtil {
   }
 
   public List<String> getPhraseSuggestionsFromSearchResponse(
-      SearchResponse<Map<String, Object>> searchResponse) {
+      ResponseBody<Map<String, Object>> searchResponse) {
     if (!autocompleteFeatureFlag.isFeatureEnabled(AUTOCOMPLETE_FEATURE_NAME)) {
       return null;
     }
@@ -0,0 +1,168 @@
+// Copyright 2017-2019, Schlumberger
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package org.opengroup.osdu.search.api;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.core.common.model.search.CursorQueryRequest;
+import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
+import org.opengroup.osdu.core.common.model.search.QueryRequest;
+import org.opengroup.osdu.core.common.model.search.QueryResponse;
+import org.opengroup.osdu.search.config.AsyncQueryConfig;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
+import org.opengroup.osdu.search.provider.interfaces.IQueryService;
+import org.opengroup.osdu.search.provider.interfaces.IScrollQueryService;
+import org.opengroup.osdu.search.provider.interfaces.ISearchAfterQueryService;
+import org.opengroup.osdu.search.util.SearchAfterFeatureManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AsyncSearchApiTest {
+
+    @Mock
+    private IQueryService queryService;
+    @Mock
+    private IScrollQueryService scrollQueryService;
+    @Mock
+    private ISearchAfterQueryService searchAfterQueryService;
+    @Mock
+    private SearchAfterFeatureManager searchAfterFeatureManager;
+    @Mock
+    private AsyncQueryConfig asyncQueryConfig;
+
+    @Mock
+    private RequestDeadline requestDeadline;
+    @Mock
+    private SearchConfigurationProperties searchConfigurationProperties;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private ServletOutputStream outputStream;
+
+    @InjectMocks
+    private AsyncSearchApi sut;
+
+    private final QueryRequest queryRequest = new QueryRequest();
+    private final CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+
+    @BeforeEach
+    public void setup() {
+        lenient().when(asyncQueryConfig.getTimeout()).thenReturn(90000L);
+    }
+
+    @Test
+    public void should_completeWithRecords_whenQueryCompletes() throws Exception {
+        QueryResponse queryResponse = new QueryResponse();
+        queryResponse.setTotalCount(1);
+        CompletableFuture<QueryResponse> future = new CompletableFuture<>();
+        when(queryService.queryIndexAsync(queryRequest)).thenReturn(future);
+
+        DeferredResult<ResponseEntity<QueryResponse>> result = sut.queryRecords(queryRequest);
+        assertFalse(result.hasResult());
+
+        future.complete(queryResponse);
+
+        ResponseEntity<QueryResponse> response = (ResponseEntity<QueryResponse>) result.getResult();
+        assertEquals(HttpServletResponse.SC_OK, response.getStatusCode().value());
+        assertEquals(1, response.getBody().getTotalCount());
+    }
+
+    @Test
+    public void should_completeWithUnwrappedException_whenQueryFails() throws Exception {
+        AppException exception = new AppException(HttpServletResponse.SC_BAD_REQUEST, "Bad Request", "Invalid parameters were given on search request");
+        CompletableFuture<QueryResponse> future = new CompletableFuture<>();
+        future.completeExceptionally(new CompletionException(exception));
+        when(queryService.queryIndexAsync(queryRequest)).thenReturn(future);
+
+        DeferredResult<ResponseEntity<QueryResponse>> result = sut.queryRecords(queryRequest);
+
+        assertSame(exception, result.getResult());
+    }
+
+    @Test
+    public void should_waitUntilRequestDeadline_whenDeadlineEnabled() throws Exception {
+        when(requestDeadline.isEnabled()).thenReturn(true);
+        when(requestDeadline.getRemainingMillis()).thenReturn(2000L);
+        when(queryService.queryIndexAsync(queryRequest)).thenReturn(new CompletableFuture<>());
+
+        DeferredResult<ResponseEntity<QueryResponse>> result = sut.queryRecords(queryRequest);
+
+        assertEquals(2000L, result.getTimeoutValue());
+    }
+
+    @Test
+    public void should_useSearchAfterAsync_whenSearchAfterEnabled() throws Exception {
+        CursorQueryResponse cursorQueryResponse = new CursorQueryResponse();
+        when(searchAfterFeatureManager.isEnabled()).thenReturn(true);
+        when(searchAfterQueryService.queryIndexAsync(cursorQueryRequest))
+                .thenReturn(CompletableFuture.completedFuture(cursorQueryResponse));
+
+        DeferredResult<ResponseEntity<CursorQueryResponse>> result = sut.queryWithCursor(cursorQueryRequest, false);
+
+        assertSame(cursorQueryResponse, ((ResponseEntity<CursorQueryResponse>) result.getResult()).getBody());
+        verify(scrollQueryService, never()).queryIndex(any());
+    }
+
+    @Test
+    public void should_useScroll_whenSearchAfterDisabled() throws Exception {
+        CursorQueryResponse cursorQueryResponse = new CursorQueryResponse();
+        when(searchAfterFeatureManager.isEnabled()).thenReturn(false);
+        when(scrollQueryService.queryIndex(cursorQueryRequest)).thenReturn(cursorQueryResponse);
+
+        DeferredResult<ResponseEntity<CursorQueryResponse>> result = sut.queryWithCursor(cursorQueryRequest, false);
+
+        assertSame(cursorQueryResponse, ((ResponseEntity<CursorQueryResponse>) result.getResult()).getBody());
+        verify(searchAfterQueryService, never()).queryIndexAsync(any());
+    }
+
+    @Test
+    public void should_writeToOutputStream_whenResultCacheEnabled() throws Exception {
+        when(searchConfigurationProperties.isQueryResultCacheEnabled()).thenReturn(true);
+        when(response.getOutputStream()).thenReturn(outputStream);
+
+        assertNull(sut.queryRecords(queryRequest));
+
+        verify(queryService).queryIndex(queryRequest, outputStream);
+        verify(queryService, never()).queryIndexAsync(any());
+    }
+
+    @Test
+    public void should_useSearchAfterOnRequestThread_whenPartialResultsEnabled() throws Exception {
+        CursorQueryResponse cursorQueryResponse = new CursorQueryResponse();
+        when(searchAfterFeatureManager.isEnabled()).thenReturn(true);
+        when(searchConfigurationProperties.isSearchAfterPartialResultsEnabled()).thenReturn(true);
+        when(searchAfterQueryService.queryIndex(cursorQueryRequest)).thenReturn(cursorQueryResponse);
+
+        DeferredResult<ResponseEntity<CursorQueryResponse>> result = sut.queryWithCursor(cursorQueryRequest, false);
+
+        assertSame(cursorQueryResponse, ((ResponseEntity<CursorQueryResponse>) result.getResult()).getBody());
+        verify(searchAfterQueryService, never()).queryIndexAsync(any());
+    }
+}
@@ -15,6 +15,7 @@
 package org.opengroup.osdu.search.api;
 
 import com.google.gson.Gson;
+import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +29,8 @@ import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
 import org.opengroup.osdu.core.common.model.search.QueryRequest;
 import org.opengroup.osdu.core.common.model.search.QueryResponse;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.model.BatchQueryRequest;
+import org.opengroup.osdu.search.model.BatchQueryResponse;
 import org.opengroup.osdu.search.provider.interfaces.ICcsQueryService;
 import org.opengroup.osdu.search.provider.interfaces.IQueryService;
 import org.opengroup.osdu.search.provider.interfaces.IScrollQueryService;
@@ -61,6 +64,10 @@ public class SearchApiTest {
     private ISearchAfterQueryService searchAfterQueryService;
     @Mock
     private SearchAfterFeatureManager searchAfterFeatureManager;
+    @Mock
+    private HttpServletResponse httpServletResponse;
+    @Mock
+    private ServletOutputStream servletOutputStream;
 
     @InjectMocks
     private SearchApi sut;
@@ -130,6 +137,41 @@ public class SearchApiTest {
         assertEquals(HttpServletResponse.SC_OK, response.getStatusCodeValue());
     }
 
+    @Test
+    public void should_streamRecords_whenPassthroughEnabled() throws Exception {
+        when(this.searchConfigurationProperties.isQueryPassthroughEnabled()).thenReturn(true);
+        when(this.httpServletResponse.getOutputStream()).thenReturn(servletOutputStream);
+
+        ResponseEntity<QueryResponse> response = this.sut.queryRecords(queryRequest);
+
+        assertNull(response);
+        verify(this.httpServletResponse).setContentType("application/json");
+        verify(this.queryService).queryIndex(queryRequest, servletOutputStream);
+        verify(this.queryService, never()).queryIndex(queryRequest);
+    }
+
+    @Test
+    public void should_writeResponseBody_whenResultCacheEnabled() throws Exception {
+        when(this.searchConfigurationProperties.isQueryResultCacheEnabled()).thenReturn(true);
+        when(this.httpServletResponse.getOutputStream()).thenReturn(servletOutputStream);
+
+        ResponseEntity<QueryResponse> response = this.sut.queryRecords(queryRequest);
+
+        assertNull(response);
+        verify(this.queryService).queryIndex(queryRequest, servletOutputStream);
+        verify(this.queryService, never()).queryIndex(queryRequest);
+    }
+
+    @Test
+    public void should_streamNdjson_whenExportingRecords() throws Exception {
+        when(this.httpServletResponse.getOutputStream()).thenReturn(servletOutputStream);
+
+        this.sut.exportRecords(cursorQueryRequest);
+
+        verify(this.httpServletResponse).setContentType("application/x-ndjson");
+        verify(this.searchAfterQueryService).export(cursorQueryRequest, servletOutputStream);
+    }
+
     @Test
     public void should_handle_appException_whenQueried() throws Exception {
         AppException exception = new AppException(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "error in test", "some message here");
@@ -148,6 +190,21 @@ public class SearchApiTest {
         }
     }
 
+    @Test
+    public void should_returnBatchResponses_whenBatchQueried() throws Exception {
+        BatchQueryRequest batchQueryRequest = new BatchQueryRequest(List.of(queryRequest, queryRequest));
+        BatchQueryResponse batchQueryResponse = new BatchQueryResponse(List.of(
+                BatchQueryResponse.Item.builder().status(HttpServletResponse.SC_OK).response(queryResponse).build(),
+                BatchQueryResponse.Item.builder().status(HttpServletResponse.SC_NOT_FOUND).build()));
+
+        when(this.queryService.queryIndex(batchQueryRequest)).thenReturn(batchQueryResponse);
+
+        ResponseEntity<BatchQueryResponse> response = this.sut.queryRecordsBatch(batchQueryRequest);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatusCodeValue());
+        assertSame(batchQueryResponse, response.getBody());
+    }
+
     @Test
     public void should_returnRecords_whenCursorQueried_with_searchAfterFeature_off() throws Exception {
         when(this.searchAfterFeatureManager.isEnabled()).thenReturn(false);
@@ -0,0 +1,95 @@
+package org.opengroup.osdu.search.benchmark;
+
+import com.google.gson.Gson;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.opengroup.osdu.search.util.CursorSettingsCodec;
+
+/**
+ * Round trip throughput of search_after settings in the Gson JSON form the Redis caches write
+ * against the binary form of {@link CursorSettingsCodec}. Setup prints the size of each entry as
+ * it is stored: the provider caches hold strings, so the binary form is kept as base64 text, about
+ * a third larger than its raw bytes. Stored that way it is 1-12% smaller than the JSON entry with
+ * the parameters below, the raw bytes would be 26-35% smaller.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.opengroup.osdu.search.benchmark.CursorSettingsCodecBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CursorSettingsCodecBenchmark {
+
+    // size of the point in time id of a search over a few hundred shards
+    @Param({"200", "2000"})
+    private int pitIdBytes;
+
+    @Param({"1", "3"})
+    private int sortFields;
+
+    private final Gson gson = new Gson();
+    private SearchAfterSettings settings;
+    private String json;
+    private String encoded;
+
+    @Setup
+    public void setup() {
+        byte[] pitId = new byte[pitIdBytes];
+        new Random(42).nextBytes(pitId);
+        List<String> sortOptions = new ArrayList<>();
+        List<String> fieldValues = new ArrayList<>();
+        for (int i = 0; i < sortFields; i++) {
+            sortOptions.add("{\"data.FacilityName" + i + "\":{\"order\":\"asc\",\"missing\":\"_last\",\"unmapped_type\":\"keyword\"}}");
+            fieldValues.add("\"Well " + i + "\"");
+        }
+        settings = SearchAfterSettings.builder()
+                .pitId(Base64.getUrlEncoder().encodeToString(pitId))
+                .userId("data.default.viewers@osdu.example.com")
+                .sortOptionsJsons(sortOptions)
+                .fieldValueJsons(fieldValues)
+                .totalCount(125000L)
+                .build();
+        json = gson.toJson(settings);
+        encoded = CursorSettingsCodec.encode(settings);
+        int jsonEntry = json.getBytes(StandardCharsets.UTF_8).length;
+        int binaryEntry = gson.toJson(encoded).getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("stored json: %d bytes, stored binary: %d bytes (%.0f%%), raw binary: %d bytes%n",
+                jsonEntry, binaryEntry, 100.0 * binaryEntry / jsonEntry, CursorSettingsCodec.toBytes(settings).length);
+    }
+
+    @Benchmark
+    public SearchAfterSettings json() {
+        return gson.fromJson(gson.toJson(settings), SearchAfterSettings.class);
+    }
+
+    @Benchmark
+    public SearchAfterSettings binary() {
+        return CursorSettingsCodec.decodeSearchAfterSettings(CursorSettingsCodec.encode(settings));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CursorSettingsCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
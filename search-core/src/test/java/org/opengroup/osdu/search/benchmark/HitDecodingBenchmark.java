@@ -0,0 +1,114 @@
+package org.opengroup.osdu.search.benchmark;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengroup.osdu.search.util.ElasticJsonpMapperConfiguration;
+
+/**
+ * Decode throughput of search responses with the mapper every partition client used to create for
+ * itself against the shared mapper of {@link ElasticJsonpMapperConfiguration}.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.opengroup.osdu.search.benchmark.HitDecodingBenchmark}.
+ *
+ * <p>No results have been recorded yet. Until they are, the shared mapper is not known to decode
+ * hits faster; it is only known to keep one set of deserializer caches instead of one per
+ * partition.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HitDecodingBenchmark {
+
+    private static final int MAX_RESPONSE_SIZE_MB = 100;
+
+    @Param({"10", "100", "1000"})
+    private int hits;
+
+    private byte[] response;
+    private JacksonJsonpMapper partitionMapper;
+    private JacksonJsonpMapper sharedMapper;
+    private JsonpDeserializer<SearchResponse<Map>> deserializer;
+
+    @Setup
+    public void setup() {
+        response = createResponse(hits).getBytes(StandardCharsets.UTF_8);
+        JsonFactory factory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder()
+                        .maxDocumentLength(MAX_RESPONSE_SIZE_MB * 1024 * 1024)
+                        .build())
+                .build();
+        partitionMapper = new JacksonJsonpMapper(new ObjectMapper(factory));
+        sharedMapper = ElasticJsonpMapperConfiguration.createJsonpMapper(MAX_RESPONSE_SIZE_MB);
+        deserializer = SearchResponse.createSearchResponseDeserializer(JsonpDeserializer.of(Map.class));
+    }
+
+    @Benchmark
+    public SearchResponse<Map> partitionMapper() {
+        return decode(partitionMapper);
+    }
+
+    @Benchmark
+    public SearchResponse<Map> sharedMapper() {
+        return decode(sharedMapper);
+    }
+
+    private SearchResponse<Map> decode(JacksonJsonpMapper mapper) {
+        return deserializer.deserialize(
+                mapper.jsonProvider().createParser(new ByteArrayInputStream(response)), mapper);
+    }
+
+    private static String createResponse(int hits) {
+        StringBuilder json = new StringBuilder()
+                .append("{\"took\":5,\"timed_out\":false,")
+                .append("\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0},")
+                .append("\"hits\":{\"total\":{\"value\":").append(hits).append(",\"relation\":\"eq\"},")
+                .append("\"max_score\":1.0,\"hits\":[");
+        for (int i = 0; i < hits; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"_index\":\"osdu-wks-master-data--well-1.0.0\",\"_id\":\"osdu:master-data--Well:").append(i)
+                    .append("\",\"_score\":1.0,\"_source\":{\"id\":\"osdu:master-data--Well:").append(i)
+                    .append("\",\"kind\":\"osdu:wks:master-data--Well:1.0.0\",\"version\":1696000000000")
+                    .append(",\"acl\":{\"viewers\":[\"data.default.viewers@osdu.example.com\"],")
+                    .append("\"owners\":[\"data.default.owners@osdu.example.com\"]},")
+                    .append("\"legal\":{\"legaltags\":[\"osdu-public-usa-dataset\"],\"otherRelevantDataCountries\":[\"US\"]},")
+                    .append("\"data\":{\"FacilityName\":\"Well ").append(i)
+                    .append("\",\"SpatialLocation\":{\"Wgs84Coordinates\":{\"type\":\"Point\",\"coordinates\":[")
+                    .append(5.0 + i % 90).append(',').append(52.0 + i % 30).append("]}},")
+                    .append("\"VerticalMeasurements\":[{\"VerticalMeasurement\":").append(12.5 + i)
+                    .append(",\"VerticalMeasurementID\":\"KB\"}],\"Status\":\"Active\"}}}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(HitDecodingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package org.opengroup.osdu.search.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.core.common.cache.VmCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opengroup.osdu.search.cache.LocalCache;
+
+/**
+ * Contention of the request path caches replaced in the pinning audit: a burst of simulated
+ * requests each read the cache and then block on a backend call, comparing the synchronized
+ * {@link VmCache} with the lock based {@link LocalCache} on a pool of platform threads. It only
+ * isolates the cache swap, it says nothing about service throughput or heap use under virtual
+ * threads, which the service does not run on while it targets Java 17.
+ *
+ * <p>Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=org.opengroup.osdu.search.benchmark.RequestCacheBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestCacheBenchmark {
+
+    private static final int REQUESTS = 2000;
+    private static final int KEYS = 500;
+
+    @Param({"vm", "local"})
+    private String cache;
+
+    private ExecutorService executorService;
+    private ICache<String, String> requestCache;
+
+    @Setup
+    public void setup() {
+        executorService = Executors.newFixedThreadPool(200);
+        requestCache = "vm".equals(cache) ? new VmCache<>(600, 2000) : new LocalCache<>(600, 2000);
+        for (int i = 0; i < KEYS; i++) {
+            requestCache.put("opendes-index-" + i, "alias-" + i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public int requests() throws Exception {
+        List<Future<String>> futures = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            String key = "opendes-index-" + (i % KEYS);
+            futures.add(executorService.submit(() -> {
+                String alias = requestCache.get(key);
+                Thread.sleep(1);
+                return alias;
+            }));
+        }
+        int found = 0;
+        for (Future<String> future : futures) {
+            if (future.get() != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RequestCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,56 @@
+package org.opengroup.osdu.search.cache;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ElasticsearchClientCacheTest {
+
+    private ElasticsearchClientCache sut;
+
+    @BeforeEach
+    void setUp() {
+        sut = new ElasticsearchClientCache(new SearchConfigurationProperties(), new ElasticsearchClientRemovalListener());
+    }
+
+    @Test
+    void computeIfAbsent_shouldCreateClientOnce() {
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+
+        assertSame(client, sut.computeIfAbsent("tenant1", partitionId -> client));
+        assertSame(client, sut.computeIfAbsent("tenant1", partitionId -> mock(ElasticsearchClient.class)));
+        assertSame(client, sut.get("tenant1"));
+    }
+
+    @Test
+    void computeIfAbsent_shouldRethrowLoaderException_andCacheNothing() {
+        AppException exception = new AppException(500, "Search error", "partition service is unavailable");
+
+        AppException thrown = assertThrows(AppException.class,
+                () -> sut.computeIfAbsent("tenant1", partitionId -> { throw exception; }));
+
+        assertSame(exception, thrown);
+        assertNull(sut.get("tenant1"));
+    }
+
+    @Test
+    void replace_shouldSwapClient_onlyWhileExpectedClientIsCached() {
+        ElasticsearchClient client = mock(ElasticsearchClient.class);
+        ElasticsearchClient refreshed = mock(ElasticsearchClient.class);
+        sut.put("tenant1", client);
+
+        assertTrue(sut.replace("tenant1", client, refreshed));
+        assertFalse(sut.replace("tenant1", client, mock(ElasticsearchClient.class)));
+        assertSame(refreshed, sut.get("tenant1"));
+        assertTrue(sut.getPartitionIds().contains("tenant1"));
+    }
+}
@@ -16,6 +16,7 @@ package org.opengroup.osdu.search.cache;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.transport.ElasticsearchTransport;
+import com.google.common.cache.RemovalCause;
 import com.google.common.cache.RemovalNotification;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,15 @@ public class ElasticsearchClientRemovalListenerTest {
         verify(mockTransport).close();
     }
 
+    @Test
+    void onRemoval_shouldKeepTransportOpen_whenClientWasReplaced() {
+        when(notification.getCause()).thenReturn(RemovalCause.REPLACED);
+
+        listener.onRemoval(notification);
+
+        verifyNoInteractions(mockClient);
+    }
+
     @Test
     void onRemoval_shouldDoNothing_whenClientIsNull() {
         when(notification.getValue()).thenReturn(null);
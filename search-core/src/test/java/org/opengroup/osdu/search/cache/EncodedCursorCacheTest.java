@@ -0,0 +1,90 @@
+package org.opengroup.osdu.search.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.core.common.cache.ICache;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.opengroup.osdu.search.util.CursorSettingsCodec;
+
+@ExtendWith(MockitoExtension.class)
+public class EncodedCursorCacheTest {
+
+    private static final String KEY = "9B1D8E3F6A0C4B2E8D7F5A1C3E9B0D2F";
+
+    private final SearchAfterSettings settings = SearchAfterSettings.builder()
+            .pitId("pitId")
+            .userId("user@tenant1.com")
+            .fieldValueJsons(List.of("1.5"))
+            .totalCount(42L)
+            .build();
+
+    @Mock
+    private ICache<String, String> cache;
+    @Mock
+    private ICache<String, SearchAfterSettings> legacyCache;
+
+    @Test
+    public void should_writeLegacyEntriesOnly_untilEnabled() {
+        ICache<String, SearchAfterSettings> sut = EncodedCursorCache.forSearchAfterSettings(cache, legacyCache, getProperties(false, false));
+
+        sut.put(KEY, settings);
+        sut.get(KEY);
+
+        verify(legacyCache).put(KEY, settings);
+        verify(legacyCache).get(KEY);
+        verifyNoInteractions(cache);
+    }
+
+    @Test
+    public void should_writeEncodedEntriesOnly_whenEnabled() {
+        ICache<String, SearchAfterSettings> sut = EncodedCursorCache.forSearchAfterSettings(cache, legacyCache, getProperties(true, false));
+
+        sut.put(KEY, settings);
+        sut.get(KEY);
+
+        verify(cache).put(EncodedCursorCache.KEY_PREFIX + KEY, CursorSettingsCodec.encode(settings));
+        verify(cache).get(EncodedCursorCache.KEY_PREFIX + KEY);
+        verifyNoInteractions(legacyCache);
+    }
+
+    @Test
+    public void should_removeOtherForm_whileMigrating() {
+        ICache<String, SearchAfterSettings> sut = EncodedCursorCache.forSearchAfterSettings(cache, legacyCache, getProperties(true, true));
+
+        sut.put(KEY, settings);
+
+        verify(cache).put(EncodedCursorCache.KEY_PREFIX + KEY, CursorSettingsCodec.encode(settings));
+        verify(legacyCache).delete(KEY);
+        verify(legacyCache, never()).put(anyString(), any());
+    }
+
+    @Test
+    public void should_readBothForms_whileMigrating() {
+        ICache<String, SearchAfterSettings> sut = EncodedCursorCache.forSearchAfterSettings(cache, legacyCache, getProperties(true, true));
+        when(cache.get(EncodedCursorCache.KEY_PREFIX + KEY)).thenReturn(CursorSettingsCodec.encode(settings));
+        when(legacyCache.get("legacy")).thenReturn(settings);
+
+        assertEquals(settings, sut.get(KEY));
+        assertEquals(settings, sut.get("legacy"));
+        verify(legacyCache, never()).get(KEY);
+    }
+
+    private static SearchConfigurationProperties getProperties(boolean enabled, boolean migrating) {
+        SearchConfigurationProperties properties = new SearchConfigurationProperties();
+        properties.setCursorCacheBinaryEncodingEnabled(enabled);
+        properties.setCursorCacheBinaryEncodingMigration(migrating);
+        return properties;
+    }
+}
@@ -0,0 +1,38 @@
+package org.opengroup.osdu.search.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+public class LocalCacheTest {
+
+    private final LocalCache<String, String> sut = new LocalCache<>(600, 2);
+
+    @Test
+    public void should_returnValue_whenPut() {
+        sut.put("key", "value");
+
+        assertEquals("value", sut.get("key"));
+    }
+
+    @Test
+    public void should_returnNull_whenDeleted() {
+        sut.put("key", "value");
+
+        sut.delete("key");
+
+        assertNull(sut.get("key"));
+    }
+
+    @Test
+    public void should_returnNull_whenCleared() {
+        sut.put("key", "value");
+        sut.put("other", "value");
+
+        sut.clearAll();
+
+        assertNull(sut.get("key"));
+        assertNull(sut.get("other"));
+    }
+}
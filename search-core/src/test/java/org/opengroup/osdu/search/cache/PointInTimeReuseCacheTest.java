@@ -0,0 +1,32 @@
+package org.opengroup.osdu.search.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+
+public class PointInTimeReuseCacheTest {
+
+    @Test
+    public void should_holdPointInTime_withinExpiration() {
+        PointInTimeReuseCache sut = new PointInTimeReuseCache(getProperties(PointInTimeReuseCache.MAXIMUM_EXPIRATION));
+
+        sut.put("key", "pitId");
+
+        assertEquals("pitId", sut.get("key"));
+    }
+
+    @Test
+    public void should_rejectExpiration_closeToPointInTimeKeepAlive() {
+        SearchConfigurationProperties properties = getProperties(PointInTimeReuseCache.MAXIMUM_EXPIRATION + 1);
+
+        assertThrows(IllegalStateException.class, () -> new PointInTimeReuseCache(properties));
+    }
+
+    private static SearchConfigurationProperties getProperties(int expiration) {
+        SearchConfigurationProperties properties = new SearchConfigurationProperties();
+        properties.setSearchAfterPointInTimeReuseExpiration(expiration);
+        return properties;
+    }
+}
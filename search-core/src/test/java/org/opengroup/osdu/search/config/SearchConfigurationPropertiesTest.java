@@ -105,4 +105,17 @@ public class SearchConfigurationPropertiesTest {
         assertEquals("v1", props.getDeployedVersionId());
         assertEquals("us-central1", props.getDeploymentLocation());
     }
+
+    @Test
+    void getElasticConnectionPool_overridesDefaultsPerPartition() {
+        ElasticConnectionPool overrides = new ElasticConnectionPool();
+        overrides.setMaxConnTotal(400);
+        props.getElasticConnectionPools().put("tenant1", overrides);
+
+        ElasticConnectionPool pool = props.getElasticConnectionPool("tenant1");
+        assertEquals(400, pool.getMaxConnTotal());
+        assertEquals(props.getElasticMaxConnPerRoute(), pool.getMaxConnPerRoute());
+        assertEquals(props.getElasticConnectionRequestTimeout(), pool.getConnectionRequestTimeout());
+        assertEquals(props.getElasticMaxConnTotal(), props.getElasticConnectionPool("tenant2").getMaxConnTotal());
+    }
 }
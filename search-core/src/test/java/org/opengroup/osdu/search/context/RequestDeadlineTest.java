@@ -0,0 +1,62 @@
+package org.opengroup.osdu.search.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.search.config.RequestDeadlineConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+public class RequestDeadlineTest {
+
+    private RequestDeadlineConfig config;
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    public void setup() {
+        config = new RequestDeadlineConfig();
+        request = new MockHttpServletRequest("POST", "/api/search/v2/query");
+    }
+
+    @Test
+    public void should_useEndpointDefault_whenNoHeader() {
+        assertEquals(60000L, new RequestDeadline(config, request).getTimeoutMillis());
+
+        request.setRequestURI("/api/search/v2/query_with_cursor");
+        assertEquals(90000L, new RequestDeadline(config, request).getTimeoutMillis());
+    }
+
+    @Test
+    public void should_useHeader_cappedByMaximum() {
+        request.addHeader(RequestDeadline.REQUEST_TIMEOUT_HEADER, "5000");
+        RequestDeadline deadline = new RequestDeadline(config, request);
+
+        assertEquals(5000L, deadline.getTimeoutMillis());
+        assertTrue(deadline.getRemainingMillis() <= 5000L);
+
+        config.setMaximumTimeout(1000L);
+        assertEquals(1000L, new RequestDeadline(config, request).getTimeoutMillis());
+    }
+
+    @Test
+    public void should_throwBadRequest_whenHeaderIsInvalid() {
+        request.addHeader(RequestDeadline.REQUEST_TIMEOUT_HEADER, "soon");
+        RequestDeadline deadline = new RequestDeadline(config, request);
+
+        AppException exception = assertThrows(AppException.class, deadline::getRemainingMillis);
+
+        assertEquals(400, exception.getError().getCode());
+    }
+
+    @Test
+    public void should_countFromRequestArrival_whenMarked() {
+        request.addHeader(RequestDeadline.REQUEST_TIMEOUT_HEADER, "5000");
+        request.setAttribute(RequestDeadline.START_NANOS_ATTRIBUTE, System.nanoTime() - TimeUnit.SECONDS.toNanos(4));
+
+        assertTrue(new RequestDeadline(config, request).getRemainingMillis() <= 1000L);
+    }
+}
@@ -29,6 +29,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.util.ElasticCallRejectedException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 
@@ -58,6 +59,17 @@ public class GlobalExceptionMapperTest {
         assertEquals(exception.getError(), response.getBody());
     }
 
+    @Test
+    public void should_addRetryAfterHeader_When_ElasticCallWasRejected() {
+
+        ElasticCallRejectedException exception = new ElasticCallRejectedException("any message", 12L);
+
+        ResponseEntity<Object> response = sut.handleAppException(exception);
+        assertEquals(503, response.getStatusCodeValue());
+        assertEquals("12", response.getHeaders().getFirst("Retry-After"));
+        assertEquals(exception.getError(), response.getBody());
+    }
+
     @Test
     public void should_use404ValueInResponse_When_NotFoundExceptionIsHandledByGlobalExceptionMapper() {
 
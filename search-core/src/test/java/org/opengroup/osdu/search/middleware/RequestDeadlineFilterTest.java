@@ -0,0 +1,33 @@
+package org.opengroup.osdu.search.middleware;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.search.context.RequestDeadline;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+public class RequestDeadlineFilterTest {
+
+    private final RequestDeadlineFilter sut = new RequestDeadlineFilter();
+
+    @Test
+    public void should_markArrival_onlyOnce() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = mock(FilterChain.class);
+
+        sut.doFilter(request, response, chain);
+        Object arrival = request.getAttribute(RequestDeadline.START_NANOS_ATTRIBUTE);
+        sut.doFilter(request, response, chain);
+
+        assertNotNull(arrival);
+        assertEquals(arrival, request.getAttribute(RequestDeadline.START_NANOS_ATTRIBUTE));
+        verify(chain, times(2)).doFilter(request, response);
+    }
+}
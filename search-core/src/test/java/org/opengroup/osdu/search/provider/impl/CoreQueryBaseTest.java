@@ -21,6 +21,8 @@ import org.mockito.ArgumentMatchers;
 import org.opengroup.osdu.core.common.http.CollaborationContextFactory;
 import org.opengroup.osdu.core.common.model.search.Query;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import javax.annotation.Resource;
@@ -29,15 +31,21 @@ import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.model.http.AppException;
 import org.opengroup.osdu.core.common.model.http.DpsHeaders;
 import org.opengroup.osdu.core.common.model.search.QueryUtils;
+import org.opengroup.osdu.search.cache.QueryDslCache;
 import org.opengroup.osdu.search.config.ElasticLoggingConfig;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
 import org.opengroup.osdu.search.context.UserContext;
 import org.opengroup.osdu.search.policy.service.IPolicyService;
+import org.opengroup.osdu.search.service.IFieldMappingTypeService;
 import org.opengroup.osdu.search.util.CrossTenantUtils;
 import org.opengroup.osdu.search.util.ISortParserUtil;
 import org.opengroup.osdu.search.util.IQueryParserUtil;
 import org.opengroup.osdu.search.util.IDetailedBadRequestMessageUtil;
 import org.opengroup.osdu.search.util.IQueryPerformanceLogger;
+import org.opengroup.osdu.search.util.SearchRequestCoalescer;
+import org.opengroup.osdu.search.util.PartitionIsolation;
+import org.opengroup.osdu.search.util.SearchRetryPolicy;
 import org.opengroup.osdu.search.util.SuggestionsQueryUtil;
 import org.opengroup.osdu.search.util.GeoQueryBuilder;
 import org.springframework.boot.test.context.TestConfiguration;
@@ -52,6 +60,7 @@ import java.util.Arrays;
 import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -105,6 +114,12 @@ public class CoreQueryBaseTest {
         @MockBean SuggestionsQueryUtil suggestionsQueryUtil;
         @MockBean IFeatureFlag featureFlag;
         @MockBean CollaborationContextFactory collaborationContextFactory;
+        @MockBean QueryDslCache queryDslCache;
+        @MockBean SearchRequestCoalescer searchRequestCoalescer;
+        @MockBean RequestDeadline requestDeadline;
+        @MockBean SearchRetryPolicy searchRetryPolicy;
+        @MockBean PartitionIsolation partitionIsolation;
+        @MockBean IFieldMappingTypeService fieldMappingTypeService;
     }
 
     @Resource CoreQueryBase coreQueryBase;
@@ -176,4 +191,15 @@ public class CoreQueryBaseTest {
 
         verify(tracingLogger).log(eq(request), anyLong(), anyInt());
     }
+
+    @Test
+    void getCoalescingKey_ignoresTimeout() {
+        JsonpMapper mapper = new JacksonJsonpMapper();
+        SearchRequest first = SearchRequest.of(s -> s.index("idx").q("kind:foo").timeout("1200ms"));
+        SearchRequest second = SearchRequest.of(s -> s.index("idx").q("kind:foo").timeout("870ms"));
+        SearchRequest other = SearchRequest.of(s -> s.index("idx").q("kind:bar").timeout("1200ms"));
+
+        assertEquals(CoreQueryBase.getCoalescingKey(first, mapper), CoreQueryBase.getCoalescingKey(second, mapper));
+        assertNotEquals(CoreQueryBase.getCoalescingKey(first, mapper), CoreQueryBase.getCoalescingKey(other, mapper));
+    }
 }
@@ -15,29 +15,47 @@
 package org.opengroup.osdu.search.provider.impl;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.*;
 import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldAndFormat;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.MsearchRequest;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
+import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
+import co.elastic.clients.elasticsearch.indices.IndicesStatsResponse;
+import co.elastic.clients.elasticsearch.indices.stats.IndicesStats;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
 
 import com.fasterxml.jackson.core.exc.StreamConstraintsException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.lang.reflect.Type;
 import java.net.SocketTimeoutException;
@@ -51,10 +69,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.http.ContentTooLongException;
+import org.elasticsearch.client.Response;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -78,14 +101,20 @@ import org.opengroup.osdu.core.common.model.search.QueryResponse;
 import org.opengroup.osdu.core.common.model.search.SortOrder;
 import org.opengroup.osdu.core.common.model.search.SortQuery;
 import org.opengroup.osdu.core.common.model.search.SpatialFilter;
+import org.opengroup.osdu.search.cache.QueryDslCache;
+import org.opengroup.osdu.search.cache.QueryResultCache;
 import org.opengroup.osdu.search.config.ElasticLoggingConfig;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
 import org.opengroup.osdu.search.context.UserContext;
 import org.opengroup.osdu.search.logging.AuditLogger;
+import org.opengroup.osdu.search.model.BatchQueryRequest;
+import org.opengroup.osdu.search.model.BatchQueryResponse;
 import org.opengroup.osdu.search.service.IFieldMappingTypeService;
 import org.opengroup.osdu.search.util.AggregationParserUtil;
 import org.opengroup.osdu.search.util.CrossTenantUtils;
 import org.opengroup.osdu.search.util.DetailedBadRequestMessageUtil;
+import org.opengroup.osdu.search.util.DocValueFields;
 import org.opengroup.osdu.search.util.ElasticClientHandler;
 import org.opengroup.osdu.search.util.GeoQueryBuilder;
 import org.opengroup.osdu.search.util.IAggregationParserUtil;
@@ -94,6 +123,10 @@ import org.opengroup.osdu.search.util.IQueryPerformanceLogger;
 import org.opengroup.osdu.search.util.IQueryParserUtil;
 import org.opengroup.osdu.search.util.ISortParserUtil;
 import org.opengroup.osdu.search.util.QueryParserUtil;
+import org.opengroup.osdu.search.util.QueryResponseStreamWriter;
+import org.opengroup.osdu.search.util.RequestContextExecutor;
+import org.opengroup.osdu.search.util.PartitionIsolation;
+import org.opengroup.osdu.search.util.SearchRetryPolicy;
 import org.opengroup.osdu.search.util.SortParserUtil;
 import org.opengroup.osdu.search.util.SuggestionsQueryUtil;
 import org.opengroup.osdu.core.common.feature.IFeatureFlag;
@@ -142,6 +175,12 @@ public class CoreQueryServiceImplTest {
     @Mock
     private ElasticClientHandler elasticClientHandler;
 
+    @Mock
+    private ElasticsearchAsyncClient asyncClient;
+
+    @Mock
+    private RequestContextExecutor requestContextExecutor;
+
     @Mock
     private AuditLogger auditLogger;
 
@@ -195,6 +234,29 @@ public class CoreQueryServiceImplTest {
     @Mock
     private UserContext userContext;
 
+    @Spy
+    private QueryDslCache queryDslCache = new QueryDslCache(new SearchConfigurationProperties());
+
+    @Spy
+    private QueryResultCache queryResultCache = new QueryResultCache(new SearchConfigurationProperties());
+
+    @Spy
+    private ObjectMapper responseMapper = new ObjectMapper();
+
+    @Mock
+    private ElasticsearchIndicesClient indicesClient;
+
+    @Mock
+    private RequestDeadline requestDeadline;
+
+    @Mock
+    private SearchRetryPolicy searchRetryPolicy;
+    @Mock
+    private PartitionIsolation partitionIsolation;
+
+    @Mock
+    private QueryResponseStreamWriter queryResponseStreamWriter;
+
     @InjectMocks
     private CoreQueryServiceImpl sut;
 
@@ -258,6 +320,257 @@ public class CoreQueryServiceImplTest {
         verify(this.searchDependencyLogger, times(1)).log(eq(searchRequest), anyLong(), eq(200));
     }
 
+    @Test
+    public void testQueryBase_whenReturnedFieldsHaveDocValues_readsDocValuesInsteadOfSource() throws IOException {
+        properties.setDocValueFieldsEnabled(true);
+        List<String> returnedFields = List.of("id", "version");
+        doReturn(returnedFields).when(searchRequest).getReturnedFields();
+        doReturn(Map.of("id", "keyword", "version", "long"))
+                .when(fieldMappingTypeService).getDocValueFields(client, returnedFields, indexName);
+        Hit<Map<String, Object>> hit = Hit.of(h -> h.index(indexName).id("tenant1:well:1")
+                .fields("id", JsonData.of(List.of("tenant1:well:1")))
+                .fields("version", JsonData.of(List.of(1234567890L))));
+        doReturn(List.of(hit)).when(searchHits).hits();
+
+        QueryResponse queryResponse = sut.queryIndex(searchRequest);
+
+        ArgumentCaptor<SearchRequest> elasticSearchRequest = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client).search(elasticSearchRequest.capture(), eq((Type)Map.class));
+        assertFalse(elasticSearchRequest.getValue().source().fetch());
+        assertEquals(returnedFields, elasticSearchRequest.getValue().docvalueFields().stream().map(FieldAndFormat::field).toList());
+        assertEquals(Map.of("id", "tenant1:well:1", "version", 1234567890L), queryResponse.getResults().get(0));
+    }
+
+    @Test
+    public void testQueryBase_whenReturnedFieldsMayHoldArrays_readsSource() throws IOException {
+        properties.setDocValueFieldsEnabled(true);
+        List<String> returnedFields = List.of("id", "data.Tags", "data.Markers.Name");
+        doReturn(returnedFields).when(searchRequest).getReturnedFields();
+        Map<String, Object> source = Map.of("id", "tenant1:well:1", "data", Map.of(
+                "Tags", List.of("b", "a", "b"),
+                "Markers", List.of(Map.of("Name", "Top"), Map.of("Name", "Base"))));
+        // what the same document looks like through doc values
+        Map<String, Object> docValues = DocValueFields.toDocument(Map.of(
+                "id", List.of("tenant1:well:1"),
+                "data.Tags", List.of("a", "b"),
+                "data.Markers.Name", List.of("Base", "Top")));
+        Hit<Map<String, Object>> hit = Hit.of(h -> h.index(indexName).id("tenant1:well:1").source(source));
+        doReturn(List.of(hit)).when(searchHits).hits();
+
+        QueryResponse queryResponse = sut.queryIndex(searchRequest);
+
+        ArgumentCaptor<SearchRequest> elasticSearchRequest = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client).search(elasticSearchRequest.capture(), eq((Type)Map.class));
+        assertTrue(elasticSearchRequest.getValue().docvalueFields().isEmpty());
+        verify(fieldMappingTypeService, Mockito.never()).getDocValueFields(any(), any(), any());
+        assertEquals(source, queryResponse.getResults().get(0));
+        assertNotEquals(source, docValues);
+    }
+
+    @Test
+    public void testQueryBase_whenHitHasNoDocValues_returnsEmptyDocument() throws IOException {
+        properties.setDocValueFieldsEnabled(true);
+        List<String> returnedFields = List.of("kind");
+        doReturn(returnedFields).when(searchRequest).getReturnedFields();
+        doReturn(Map.of("kind", "keyword"))
+                .when(fieldMappingTypeService).getDocValueFields(client, returnedFields, indexName);
+        Hit<Map<String, Object>> hit = Hit.of(h -> h.index(indexName).id("tenant1:well:1"));
+        doReturn(List.of(hit)).when(searchHits).hits();
+
+        QueryResponse queryResponse = sut.queryIndex(searchRequest);
+
+        assertEquals(List.of(Map.of()), queryResponse.getResults());
+    }
+
+    @Test
+    public void testQueryBaseAsync_whenSearchHitsIsNotEmpty() throws Exception {
+        List<Hit<Map<String, Object>>> hits = new ArrayList<>();
+        hits.add(searchHit);
+
+        doReturn(hits).when(searchHits).hits();
+        doReturn(asyncClient).when(elasticClientHandler).getOrCreateAsyncRestClient();
+        doReturn((Executor) Runnable::run).when(requestContextExecutor).forCurrentRequest();
+        doReturn(CompletableFuture.completedFuture(searchResponse)).when(asyncClient).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        QueryResponse queryResponse = sut.queryIndexAsync(searchRequest).get();
+
+        assertEquals(queryResponse.getResults().size(), 1);
+        verify(this.client, times(0)).search(any(SearchRequest.class), eq((Type)Map.class));
+        verify(this.auditLogger, times(1)).queryIndexSuccess(Lists.newArrayList(searchRequest.toString()));
+        verify(this.searchDependencyLogger, times(1)).log(eq(searchRequest), anyLong(), eq(200));
+    }
+
+    @Test
+    public void testQueryBaseAsync_whenClientSearchResultsInElasticsearchStatusException_statusNotFound_completesExceptionally() {
+        ElasticsearchException exception = mock(ElasticsearchException.class);
+        doReturn(HttpServletResponse.SC_NOT_FOUND).when(exception).status();
+        doReturn(asyncClient).when(elasticClientHandler).getOrCreateAsyncRestClient();
+        doReturn((Executor) Runnable::run).when(requestContextExecutor).forCurrentRequest();
+        doReturn(CompletableFuture.failedFuture(exception)).when(asyncClient).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> sut.queryIndexAsync(searchRequest).get());
+
+        validateAppException((AppException) ex.getCause(), 404, "Resource you are trying to find does not exists");
+        verify(this.auditLogger, times(1)).queryIndexFailed(Lists.newArrayList(searchRequest.toString()));
+        verify(this.searchDependencyLogger, times(1)).log(eq(searchRequest), anyLong(), eq(404));
+    }
+
+    @Test
+    public void testQueryBaseAsync_whenResponseIsCancelled_cancelsElasticsearchSearch() {
+        CompletableFuture<SearchResponse<Map<String, Object>>> searchFuture = new CompletableFuture<>();
+        doReturn(asyncClient).when(elasticClientHandler).getOrCreateAsyncRestClient();
+        doReturn((Executor) Runnable::run).when(requestContextExecutor).forCurrentRequest();
+        doReturn(searchFuture).when(asyncClient).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        sut.queryIndexAsync(searchRequest).cancel(true);
+
+        assertTrue(searchFuture.isCancelled());
+    }
+
+    @Test
+    public void testQueryBase_whenDeadlineExpires_abortsSearch_throwsGatewayTimeout() {
+        ElasticsearchTransport transport = mock(ElasticsearchTransport.class);
+        CompletableFuture<Object> searchFuture = new CompletableFuture<>();
+        when(requestDeadline.isEnabled()).thenReturn(true);
+        when(requestDeadline.getRemainingMillis()).thenReturn(1L);
+        when(requestDeadline.getTimeoutMillis()).thenReturn(1L);
+        doReturn(transport).when(client)._transport();
+        ArgumentCaptor<SearchRequest> elasticSearchRequest = ArgumentCaptor.forClass(SearchRequest.class);
+        doReturn(searchFuture).when(transport).performRequestAsync(elasticSearchRequest.capture(), any(), any());
+
+        AppException ex = assertThrows(AppException.class, () -> sut.queryIndex(searchRequest));
+
+        validateAppException(ex, 504, "Request deadline of 1ms exceeded");
+        assertEquals("1ms", elasticSearchRequest.getValue().timeout());
+        assertTrue(searchFuture.isCancelled());
+        verify(this.client, times(0)).search(any(SearchRequest.class), eq((Type) Map.class));
+    }
+
+    @Test
+    public void testQueryBatch_returnsItemsInRequestOrder_withPerItemFailures() throws IOException {
+        MultiSearchItem<Map<String, Object>> multiSearchItem = mock(MultiSearchItem.class);
+        MsearchResponse<Map<String, Object>> msearchResponse = mock(MsearchResponse.class);
+        MultiSearchResponseItem<Map<String, Object>> succeeded = MultiSearchResponseItem.of(i -> i.result(multiSearchItem));
+        MultiSearchResponseItem<Map<String, Object>> failed = MultiSearchResponseItem.of(i -> i.failure(
+                f -> f.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE).error(e -> e.type("unavailable_shards_exception").reason("shards unavailable"))));
+        doReturn(new JacksonJsonpMapper()).when(client)._jsonpMapper();
+        doReturn(searchHits).when(multiSearchItem).hits();
+        doReturn(List.of(searchHit)).when(searchHits).hits();
+        doReturn(List.of(succeeded, failed)).when(msearchResponse).responses();
+        doReturn(msearchResponse).when(client).msearch(any(MsearchRequest.class), eq((Type) Map.class));
+
+        BatchQueryResponse batchResponse = sut.queryIndex(new BatchQueryRequest(List.of(searchRequest, searchRequest)));
+
+        assertEquals(2, batchResponse.getResponses().size());
+        assertEquals(HttpServletResponse.SC_OK, batchResponse.getResponses().get(0).getStatus());
+        assertEquals(1, batchResponse.getResponses().get(0).getResponse().getResults().size());
+        assertNull(batchResponse.getResponses().get(0).getError());
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, batchResponse.getResponses().get(1).getStatus());
+        assertEquals("Please re-try search after some time.", batchResponse.getResponses().get(1).getError().getMessage());
+        verify(this.client, times(1)).msearch(any(MsearchRequest.class), eq((Type) Map.class));
+        verify(this.client, times(0)).search(any(SearchRequest.class), eq((Type) Map.class));
+    }
+
+    @Test
+    public void testQueryBatch_whenMultiSearchFails_failsEveryItem() throws IOException {
+        ElasticsearchException exception = mock(ElasticsearchException.class);
+        doReturn(HttpServletResponse.SC_NOT_FOUND).when(exception).status();
+        doReturn(new JacksonJsonpMapper()).when(client)._jsonpMapper();
+        doThrow(exception).when(client).msearch(any(MsearchRequest.class), eq((Type) Map.class));
+
+        BatchQueryResponse batchResponse = sut.queryIndex(new BatchQueryRequest(List.of(searchRequest, searchRequest)));
+
+        assertEquals(2, batchResponse.getResponses().size());
+        batchResponse.getResponses().forEach(item -> {
+            assertEquals(HttpServletResponse.SC_NOT_FOUND, item.getStatus());
+            assertNull(item.getResponse());
+        });
+    }
+
+    @Test
+    public void testQueryBatch_whenBatchIsTooLarge_statusBadRequest_throwsException() {
+        properties.setBatchQueryMaximum(1);
+
+        AppException ex = assertThrows(AppException.class,
+                () -> sut.queryIndex(new BatchQueryRequest(List.of(searchRequest, searchRequest))));
+
+        validateAppException(ex, 400, "A batch can contain at most 1 queries");
+    }
+
+    @Test
+    public void testQueryResultCache_servesIdenticalRequestFromCache_whileGenerationIsCurrent() throws IOException {
+        QueryRequest queryRequest = getCacheableQueryRequest();
+        mockIndexGeneration(1L);
+
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        sut.queryIndex(queryRequest, first);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        sut.queryIndex(queryRequest, second);
+
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        assertEquals(0, responseMapper.readValue(second.toByteArray(), QueryResponse.class).getTotalCount());
+        verify(this.client, times(1)).search(any(SearchRequest.class), eq((Type) Map.class));
+        verify(this.auditLogger, times(2)).queryIndexSuccess(any());
+    }
+
+    @Test
+    public void testQueryResultCache_queriesAgain_whenGenerationChanges() throws IOException {
+        QueryRequest queryRequest = getCacheableQueryRequest();
+        doReturn(null).when(queryResultCache).getGeneration(any());
+        mockIndexGeneration(1L, 2L);
+
+        sut.queryIndex(queryRequest, new ByteArrayOutputStream());
+        sut.queryIndex(queryRequest, new ByteArrayOutputStream());
+
+        verify(this.client, times(2)).search(any(SearchRequest.class), eq((Type) Map.class));
+    }
+
+    @Test
+    public void testQueryResultCache_queriesAgain_whenRefreshesMoveBetweenIndices() throws IOException {
+        QueryRequest queryRequest = getCacheableQueryRequest();
+        doReturn(null).when(queryResultCache).getGeneration(any());
+        mockIndexRefreshes(Map.of("tenant1-welldb-well-1.0.2", 1L, "tenant1-welldb-well-1.0.3", 2L),
+                Map.of("tenant1-welldb-well-1.0.2", 2L, "tenant1-welldb-well-1.0.3", 1L));
+
+        sut.queryIndex(queryRequest, new ByteArrayOutputStream());
+        sut.queryIndex(queryRequest, new ByteArrayOutputStream());
+
+        verify(this.client, times(2)).search(any(SearchRequest.class), eq((Type) Map.class));
+    }
+
+    @Test
+    public void testQueryResultCache_queriesAgain_forDifferentDataGroups() throws IOException {
+        QueryRequest queryRequest = getCacheableQueryRequest();
+        mockIndexGeneration(1L);
+
+        sut.queryIndex(queryRequest, new ByteArrayOutputStream());
+        when(userContext.getDataGroups()).thenReturn(List.of(DATA_GROUP_1));
+        sut.queryIndex(queryRequest, new ByteArrayOutputStream());
+
+        verify(this.client, times(2)).search(any(SearchRequest.class), eq((Type) Map.class));
+    }
+
+    @Test
+    public void testQueryPassthrough_whenConversionFailsMidStream_writesNothing() throws IOException {
+        properties.setQueryPassthroughEnabled(true);
+        QueryRequest queryRequest = new QueryRequest();
+        queryRequest.setKind("tenant1:welldb:well:1.0.2");
+        CoreQueryServiceImpl passthrough = Mockito.spy(sut);
+        Response response = mock(Response.class, RETURNS_DEEP_STUBS);
+        when(response.getEntity().getContent()).thenReturn(new ByteArrayInputStream("{}".getBytes()));
+        doReturn(response).when(passthrough).makeRawSearchRequest(any(), any());
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("{\"results\":[".getBytes());
+            throw new IOException("Unexpected end of input");
+        }).when(queryResponseStreamWriter).write(any(), any(), anyBoolean());
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertThrows(IOException.class, () -> passthrough.queryIndex(queryRequest, outputStream));
+
+        assertEquals(0, outputStream.size());
+    }
+
     @Test
     public void testQueryBase_useGeoShapeQueryIsFalse_getByBoundingBox() throws IOException {
         List<Hit<Map<String, Object>>> hits = new ArrayList<>();
@@ -752,6 +1065,18 @@ public class CoreQueryServiceImplTest {
         verifyAcls(topLevelFilterClause.get(0), false);
     }
 
+    @Test
+    public void should_reuseCompiledQuery_and_attachAclPerUser() throws IOException {
+        BoolQuery firstQuery = this.sut.buildQuery("data.Name:well", null, false).build();
+        when(userContext.getDataGroups()).thenReturn(List.of(DATA_GROUP_1));
+        BoolQuery secondQuery = this.sut.buildQuery("data.Name:well", null, false).build();
+
+        verify(this.parserService, times(1)).buildQueryBuilderFromQueryString("data.Name:well");
+        assertSame(firstQuery.must().get(0), secondQuery.must().get(0));
+        verifyAcls(firstQuery.filter().get(0), false);
+        assertNotEquals(firstQuery.filter().get(0).toString(), secondQuery.filter().get(0).toString());
+    }
+
     @Test
     public void should_return_nullQuery_when_searchAsDataRootUser() throws IOException {
         Map<String, String> HEADERS = new HashMap<>();
@@ -940,6 +1265,44 @@ public class CoreQueryServiceImplTest {
         return new SpatialFilter.ByDistance(distance, point);
     }
 
+    private QueryRequest getCacheableQueryRequest() {
+        properties.setQueryResultCacheEnabled(true);
+        QueryRequest queryRequest = new QueryRequest();
+        queryRequest.setKind("tenant1:welldb:well:1.0.2");
+        queryRequest.setQuery("data.Name:well");
+        return queryRequest;
+    }
+
+    private void mockIndexGeneration(Long generation, Long... generations) throws IOException {
+        Map<String, Long>[] refreshes = new Map[generations.length];
+        for (int i = 0; i < generations.length; i++) {
+            refreshes[i] = Map.of("tenant1-welldb-well-1.0.2", generations[i]);
+        }
+        mockIndexRefreshes(Map.of("tenant1-welldb-well-1.0.2", generation), refreshes);
+    }
+
+    private void mockIndexRefreshes(Map<String, Long> refreshes, Map<String, Long>... nextRefreshes) throws IOException {
+        IndicesStatsResponse stats = mock(IndicesStatsResponse.class);
+        Map<String, IndicesStats>[] nextIndices = new Map[nextRefreshes.length];
+        for (int i = 0; i < nextRefreshes.length; i++) {
+            nextIndices[i] = getIndicesStats(nextRefreshes[i]);
+        }
+        when(stats.indices()).thenReturn(getIndicesStats(refreshes), nextIndices);
+        doReturn(indicesClient).when(client).indices();
+        doReturn(stats).when(indicesClient).stats(any(Function.class));
+    }
+
+    private Map<String, IndicesStats> getIndicesStats(Map<String, Long> refreshes) {
+        Map<String, IndicesStats> indices = new HashMap<>();
+        refreshes.forEach((index, refresh) -> {
+            IndicesStats indexStats = mock(IndicesStats.class, RETURNS_DEEP_STUBS);
+            when(indexStats.uuid()).thenReturn(index + "-uuid");
+            when(indexStats.total().refresh().externalTotal()).thenReturn(refresh);
+            indices.put(index, indexStats);
+        });
+        return indices;
+    }
+
     private void validateAppException(AppException e, int errorCode, String errorMessage) {
         AppError error = e.getError();
         assertEquals(errorCode, error.getCode());
@@ -49,7 +49,10 @@ import org.opengroup.osdu.core.common.model.search.Point;
 import org.opengroup.osdu.core.common.model.search.Polygon;
 import org.opengroup.osdu.core.common.model.search.SpatialFilter;
 import org.opengroup.osdu.search.cache.CursorCache;
+import org.opengroup.osdu.search.cache.QueryDslCache;
 import org.opengroup.osdu.search.config.ElasticLoggingConfig;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
 import org.opengroup.osdu.search.logging.AuditLogger;
 import org.opengroup.osdu.search.model.QueryNode;
 import org.opengroup.osdu.search.policy.service.IPolicyService;
@@ -62,11 +65,26 @@ import org.opengroup.osdu.search.util.IQueryParserUtil;
 import org.opengroup.osdu.search.util.IQueryPerformanceLogger;
 import org.opengroup.osdu.search.util.ISortParserUtil;
 import org.opengroup.osdu.search.util.ResponseExceptionParser;
+import org.opengroup.osdu.search.util.PartitionIsolation;
+import org.opengroup.osdu.search.util.SearchRetryPolicy;
 import org.opengroup.osdu.search.util.SuggestionsQueryUtil;
 
 @ExtendWith(MockitoExtension.class)
 public class ScrollCoreQueryServiceImplIPolicyServiceTest {
 
+  @Mock
+  private QueryDslCache queryDslCache;
+
+  @Mock
+  private RequestDeadline requestDeadline;
+
+  @Mock
+  private SearchRetryPolicy searchRetryPolicy;
+  @Mock
+  private PartitionIsolation partitionIsolation;
+  @Mock
+  private SearchConfigurationProperties searchConfigurationProperties;
+
   @InjectMocks
   private ScrollCoreQueryServiceImpl scrollQueryService;
 
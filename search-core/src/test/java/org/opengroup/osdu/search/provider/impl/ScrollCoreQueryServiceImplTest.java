@@ -62,9 +62,13 @@ import org.opengroup.osdu.core.common.model.search.CursorQueryRequest;
 import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
 import org.opengroup.osdu.core.common.model.search.CursorSettings;
 import org.opengroup.osdu.search.cache.CursorCache;
+import org.opengroup.osdu.search.cache.QueryDslCache;
 import org.opengroup.osdu.search.config.ElasticLoggingConfig;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
 import org.opengroup.osdu.search.context.UserContext;
 import org.opengroup.osdu.search.logging.AuditLogger;
+import org.opengroup.osdu.search.service.IFieldMappingTypeService;
 import org.opengroup.osdu.search.util.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -119,6 +123,21 @@ public class ScrollCoreQueryServiceImplTest {
     private ResponseExceptionParser exceptionParser;
     @Mock
     public IFeatureFlag collaborationFeatureFlag;
+    @Mock
+    private QueryDslCache queryDslCache;
+
+    @Mock
+    private RequestDeadline requestDeadline;
+
+    @Mock
+    private SearchRetryPolicy searchRetryPolicy;
+    @Mock
+    private PartitionIsolation partitionIsolation;
+    @Mock
+    private IFieldMappingTypeService fieldMappingTypeService;
+    @Mock
+    private SearchConfigurationProperties searchConfigurationProperties;
+
     @InjectMocks
     private ScrollCoreQueryServiceImpl sut;
 
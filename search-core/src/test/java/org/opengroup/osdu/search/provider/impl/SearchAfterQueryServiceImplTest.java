@@ -14,12 +14,17 @@
 
 package org.opengroup.osdu.search.provider.impl;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
 import co.elastic.clients.elasticsearch.core.*;
 import co.elastic.clients.elasticsearch.core.search.Hit;
 import co.elastic.clients.elasticsearch.core.search.HitsMetadata;
 import co.elastic.clients.elasticsearch.core.search.TotalHits;
+import co.elastic.clients.elasticsearch.core.search.TotalHitsRelation;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.http.ContentTooLongException;
@@ -30,6 +35,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengroup.osdu.core.common.feature.IFeatureFlag;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
@@ -38,19 +44,29 @@ import org.opengroup.osdu.core.common.model.http.AppException;
 import org.opengroup.osdu.core.common.model.http.DpsHeaders;
 import org.opengroup.osdu.core.common.model.search.CursorQueryRequest;
 import org.opengroup.osdu.core.common.model.search.CursorQueryResponse;
+import org.opengroup.osdu.search.cache.PointInTimeReuseCache;
+import org.opengroup.osdu.search.cache.QueryDslCache;
+import org.opengroup.osdu.search.cache.SearchAfterPrefetchCache;
 import org.opengroup.osdu.search.cache.SearchAfterSettingsCache;
 import org.opengroup.osdu.search.config.ElasticLoggingConfig;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.context.RequestDeadline;
 import org.opengroup.osdu.search.context.UserContext;
 import org.opengroup.osdu.search.logging.AuditLogger;
 import org.opengroup.osdu.search.model.SearchAfterSettings;
+import org.opengroup.osdu.search.service.IFieldMappingTypeService;
 import org.opengroup.osdu.search.util.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -106,6 +122,34 @@ public class SearchAfterQueryServiceImplTest {
     private ResponseExceptionParser exceptionParser;
     @Mock
     public IFeatureFlag collaborationFeatureFlag;
+    @Mock
+    private QueryDslCache queryDslCache;
+
+    @Mock
+    private RequestDeadline requestDeadline;
+
+    @Mock
+    private SearchRetryPolicy searchRetryPolicy;
+    @Mock
+    private PartitionIsolation partitionIsolation;
+    @Mock
+    private IFieldMappingTypeService fieldMappingTypeService;
+    @Mock
+    private SearchConfigurationProperties searchConfigurationProperties;
+    @Mock
+    private RequestContextExecutor requestContextExecutor;
+    @Spy
+    private SearchAfterPrefetchCache searchAfterPrefetchCache = new SearchAfterPrefetchCache(new SearchConfigurationProperties());
+    @Spy
+    private SearchAfterCursorCodec searchAfterCursorCodec = new SearchAfterCursorCodec(new SearchConfigurationProperties());
+    @Spy
+    private PointInTimeReuseCache pointInTimeReuseCache = new PointInTimeReuseCache(getPointInTimeReuseProperties());
+
+    @Spy
+    private JacksonJsonpMapper elasticJsonpMapper = new JacksonJsonpMapper();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private SearchAfterQueryServiceImpl sut;
 
@@ -367,7 +411,7 @@ public class SearchAfterQueryServiceImplTest {
         doReturn(searchHits).when(searchResponse).hits();
         doReturn(hits).when(searchHits).hits();
 
-        String cursor = sut.refreshCursorCache(searchResponse, true, cursorSettings);
+        String cursor = sut.refreshCursorCache(searchResponse, true, cursorSettings, null);
         assertNotNull(cursor);
     }
 
@@ -375,7 +419,7 @@ public class SearchAfterQueryServiceImplTest {
     public void refreshCursorCache_pitNull()  {
         SearchResponse searchResponse = mock(SearchResponse.class);
         doReturn(null).when(searchResponse).pitId();
-        String cursor = sut.refreshCursorCache(searchResponse, true, cursorSettings);
+        String cursor = sut.refreshCursorCache(searchResponse, true, cursorSettings, null);
         assertNull(cursor);
     }
 
@@ -424,6 +468,315 @@ public class SearchAfterQueryServiceImplTest {
         assertEquals("cursor sharing is forbidden", error.getMessage());
     }
 
+    @Test
+    public void testQueryIndex_servesPrefetchedPage_whenPrefetchEnabled() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setCursor("cursor");
+        cursorQueryRequest.setLimit(2);
+        ElasticsearchAsyncClient asyncClient = mock(ElasticsearchAsyncClient.class);
+        SearchResponse firstPage = mock(SearchResponse.class);
+        doReturn(true).when(searchConfigurationProperties).isSearchAfterPrefetchEnabled();
+        doReturn("pitId").when(cursorSettings).getPitId();
+        doReturn(userId).when(cursorSettings).getUserId();
+        doReturn(asyncClient).when(elasticClientHandler).getOrCreateAsyncRestClient();
+        doReturn((Executor) Runnable::run).when(requestContextExecutor).withoutRequest();
+        doReturn("pitId").when(firstPage).pitId();
+        doReturn(HitsMetadata.of(h -> h.hits(List.of(getHit("1"), getHit("2"))))).when(firstPage).hits();
+        doReturn(firstPage).when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+        doReturn(CompletableFuture.completedFuture(getSearchResponse(List.of(getHit("3")))))
+                .when(asyncClient).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        CursorQueryResponse firstResponse = sut.queryIndex(cursorQueryRequest);
+        cursorQueryRequest.setCursor(firstResponse.getCursor());
+        CursorQueryResponse nextResponse = sut.queryIndex(cursorQueryRequest);
+
+        assertEquals(List.of(Map.of("id", "3")), nextResponse.getResults());
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, times(1)).search(any(SearchRequest.class), eq((Type)Map.class));
+        verify(asyncClient).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        assertEquals("pitId", searchRequestArgumentCaptor.getValue().pit().id());
+        assertNull(searchAfterPrefetchCache.get(firstResponse.getCursor()));
+    }
+
+    @Test
+    public void testQueryIndex_waitsForPrefetchedPage_whenStillInFlight() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setCursor("cursor");
+        cursorQueryRequest.setLimit(2);
+        ElasticsearchAsyncClient asyncClient = mock(ElasticsearchAsyncClient.class);
+        SearchResponse firstPage = mock(SearchResponse.class);
+        CompletableFuture<SearchResponse<Map<String, Object>>> nextPage = new CompletableFuture<>();
+        doReturn(true).when(searchConfigurationProperties).isSearchAfterPrefetchEnabled();
+        doReturn("pitId").when(cursorSettings).getPitId();
+        doReturn(userId).when(cursorSettings).getUserId();
+        doReturn(asyncClient).when(elasticClientHandler).getOrCreateAsyncRestClient();
+        doReturn((Executor) Runnable::run).when(requestContextExecutor).withoutRequest();
+        doReturn("pitId").when(firstPage).pitId();
+        doReturn(HitsMetadata.of(h -> h.hits(List.of(getHit("1"), getHit("2"))))).when(firstPage).hits();
+        doReturn(firstPage).when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+        doReturn(nextPage).when(asyncClient).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        CursorQueryResponse firstResponse = sut.queryIndex(cursorQueryRequest);
+        cursorQueryRequest.setCursor(firstResponse.getCursor());
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                .execute(() -> nextPage.complete(getSearchResponse(List.of(getHit("3")))));
+        CursorQueryResponse nextResponse = sut.queryIndex(cursorQueryRequest);
+
+        assertEquals(List.of(Map.of("id", "3")), nextResponse.getResults());
+        assertFalse(nextPage.isCancelled());
+        verify(client, times(1)).search(any(SearchRequest.class), eq((Type)Map.class));
+        verify(asyncClient, times(1)).search(any(SearchRequest.class), eq((Type)Map.class));
+    }
+
+    @Test
+    public void testExport_writesEveryPageAsNdjson_andClosesPointInTime() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        doReturn(1).when(searchConfigurationProperties).getQueryExportSlices();
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        SearchResponse firstPage = mock(SearchResponse.class);
+        SearchResponse lastPage = mock(SearchResponse.class);
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doReturn("pitId").when(firstPage).pitId();
+        doReturn(HitsMetadata.of(h -> h.hits(List.of(getHit("1"), getHit("2"))))).when(firstPage).hits();
+        doReturn(HitsMetadata.of(h -> h.hits(List.of(getHit("3"))))).when(lastPage).hits();
+        doReturn(firstPage, lastPage).when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        sut.export(cursorQueryRequest, outputStream);
+
+        assertEquals("{\"id\":\"1\"}\n{\"id\":\"2\"}\n{\"id\":\"3\"}\n{\"exportStatus\":\"complete\",\"count\":3}\n",
+                outputStream.toString());
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, times(2)).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        SearchRequest nextPageRequest = searchRequestArgumentCaptor.getAllValues().get(1);
+        assertEquals("pitId", nextPageRequest.pit().id());
+        assertEquals("2", nextPageRequest.searchAfter().get(0).stringValue());
+        verify(client).closePointInTime(any(ClosePointInTimeRequest.class));
+    }
+
+    @Test
+    public void testExport_endsWithFailedStatus_whenPageFailsAfterFirstPage() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        doReturn(1).when(searchConfigurationProperties).getQueryExportSlices();
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        SearchResponse firstPage = mock(SearchResponse.class);
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doReturn("pitId").when(firstPage).pitId();
+        doReturn(HitsMetadata.of(h -> h.hits(List.of(getHit("1"), getHit("2"))))).when(firstPage).hits();
+        doReturn(firstPage)
+                .doThrow(new AppException(500, "Search error", "Error processing search request"))
+                .when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        sut.export(cursorQueryRequest, outputStream);
+
+        assertEquals(List.of("{\"id\":\"1\"}", "{\"id\":\"2\"}",
+                        "{\"exportStatus\":\"failed\",\"code\":500,\"reason\":\"Search error\",\"message\":\"Error processing search request\"}"),
+                outputStream.toString().lines().toList());
+        verify(client).closePointInTime(any(ClosePointInTimeRequest.class));
+    }
+
+    @Test
+    public void testExport_throws_whenFirstPageFails() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        doReturn(1).when(searchConfigurationProperties).getQueryExportSlices();
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doThrow(new AppException(500, "Search error", "Error processing search request"))
+                .when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        AppException e = assertThrows(AppException.class, () -> sut.export(cursorQueryRequest, outputStream));
+
+        assertEquals(500, e.getError().getCode());
+        assertEquals(0, outputStream.size());
+    }
+
+    @Test
+    public void testExport_takesAtMostHalfOfBulkhead() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        doReturn(4).when(searchConfigurationProperties).getQueryExportSlices();
+        doReturn(2).when(partitionIsolation).getMaxConcurrentCalls();
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doReturn(getSearchResponse(List.of(getHit("1")))).when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        sut.export(cursorQueryRequest, new ByteArrayOutputStream());
+
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        assertNull(searchRequestArgumentCaptor.getValue().slice());
+        verify(elasticClientHandler, never()).getOrCreateAsyncRestClient();
+    }
+
+    @Test
+    public void testExport_readsSlicesConcurrently_whenSlicesConfigured() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        ElasticsearchAsyncClient asyncClient = mock(ElasticsearchAsyncClient.class);
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        doReturn(2).when(searchConfigurationProperties).getQueryExportSlices();
+        doReturn(Integer.MAX_VALUE).when(partitionIsolation).getMaxConcurrentCalls();
+        doReturn(asyncClient).when(elasticClientHandler).getOrCreateAsyncRestClient();
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doAnswer(invocation -> {
+            SearchRequest request = invocation.getArgument(0);
+            List<Hit<Map<String, Object>>> hits = "1".equals(request.slice().id())
+                    ? List.of(getHit("3"))
+                    : request.searchAfter().isEmpty() ? List.of(getHit("1"), getHit("2")) : List.of();
+            return CompletableFuture.completedFuture(getSearchResponse(hits));
+        }).when(asyncClient).search(any(SearchRequest.class), eq((Type)Map.class));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        sut.export(cursorQueryRequest, outputStream);
+
+        assertEquals(List.of("{\"id\":\"1\"}", "{\"id\":\"2\"}", "{\"id\":\"3\"}"),
+                outputStream.toString().lines().limit(3).sorted().toList());
+        assertEquals("{\"exportStatus\":\"complete\",\"count\":3}", outputStream.toString().lines().skip(3).findFirst().orElse(null));
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(asyncClient, times(3)).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        assertTrue(searchRequestArgumentCaptor.getAllValues().stream().allMatch(r -> r.slice().max() == 2 && "pitId".equals(r.pit().id())));
+        verify(client, never()).search(any(SearchRequest.class), eq((Type)Map.class));
+        verify(client).closePointInTime(any(ClosePointInTimeRequest.class));
+        verify(this.auditLogger).queryIndexWithCursorSuccess(Lists.newArrayList(cursorQueryRequest.toString()));
+    }
+
+    @Test
+    public void testQueryIndex_searchesWithoutPointInTime_whenLazyPointInTimeAndSinglePage() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        doReturn(true).when(searchConfigurationProperties).isSearchAfterLazyPointInTimeEnabled();
+        doReturn(getFirstPageResponse(List.of(getHit("1"), getHit("2")), null))
+                .when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        CursorQueryResponse queryResponse = sut.queryIndex(cursorQueryRequest);
+
+        assertEquals(List.of(Map.of("id", "1"), Map.of("id", "2")), queryResponse.getResults());
+        assertEquals(2, queryResponse.getTotalCount());
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        assertNull(searchRequestArgumentCaptor.getValue().pit());
+        assertEquals(3, searchRequestArgumentCaptor.getValue().size());
+        verify(client, never()).openPointInTime(any(OpenPointInTimeRequest.class));
+        ArgumentCaptor<SearchAfterSettings> settingsArgumentCaptor = ArgumentCaptor.forClass(SearchAfterSettings.class);
+        verify(cursorCache).put(eq(queryResponse.getCursor()), settingsArgumentCaptor.capture());
+        assertTrue(settingsArgumentCaptor.getValue().isClosed());
+    }
+
+    @Test
+    public void testQueryIndex_searchesFirstPageOnPointInTime_whenLazyPointInTimeAndMorePages() throws Exception {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(2);
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        doReturn(true).when(searchConfigurationProperties).isSearchAfterLazyPointInTimeEnabled();
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doReturn(getFirstPageResponse(List.of(getHit("1"), getHit("2"), getHit("3")), null),
+                getFirstPageResponse(List.of(getHit("1"), getHit("2")), "pitId"))
+                .when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        CursorQueryResponse queryResponse = sut.queryIndex(cursorQueryRequest);
+
+        assertEquals(List.of(Map.of("id", "1"), Map.of("id", "2")), queryResponse.getResults());
+        assertNotNull(queryResponse.getCursor());
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, times(2)).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        SearchRequest firstPageRequest = searchRequestArgumentCaptor.getAllValues().get(1);
+        assertEquals("pitId", firstPageRequest.pit().id());
+        assertTrue(firstPageRequest.searchAfter().isEmpty());
+        verify(client, never()).closePointInTime(any(ClosePointInTimeRequest.class));
+    }
+
+    @Test
+    public void testQueryIndex_reusesPointInTime_whenSameQueryWithinReuseWindow() throws Exception {
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        doReturn(10).when(searchConfigurationProperties).getSearchAfterPointInTimeReuseExpiration();
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doReturn(getFirstPageResponse(List.of(getHit("1")), "pitId"))
+                .when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        for (int i = 0; i < 2; i++) {
+            CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+            cursorQueryRequest.setLimit(2);
+            sut.queryIndex(cursorQueryRequest);
+        }
+
+        verify(client, times(1)).openPointInTime(any(OpenPointInTimeRequest.class));
+        verify(client, never()).closePointInTime(any(ClosePointInTimeRequest.class));
+    }
+
+    @Test
+    public void testQueryIndex_pagesCursorsIndependently_whenTheyShareReusedPointInTime() throws Exception {
+        OpenPointInTimeResponse openPitResponse = mock(OpenPointInTimeResponse.class);
+        Map<String, SearchAfterSettings> cursors = new HashMap<>();
+        doReturn(10).when(searchConfigurationProperties).getSearchAfterPointInTimeReuseExpiration();
+        doReturn(openPitResponse).when(client).openPointInTime(any(OpenPointInTimeRequest.class));
+        doReturn("pitId").when(openPitResponse).id();
+        doAnswer(invocation -> cursors.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(cursorCache).put(anyString(), any(SearchAfterSettings.class));
+        doAnswer(invocation -> cursors.get(invocation.<String>getArgument(0))).when(cursorCache).get(anyString());
+        doReturn(getFirstPageResponse(List.of(getHit("1")), "pitId"),
+                getFirstPageResponse(List.of(getHit("1")), "pitId"),
+                getFirstPageResponse(List.of(getHit("2")), "pitId"),
+                getFirstPageResponse(List.of(getHit("2")), "pitId"))
+                .when(client).search(any(SearchRequest.class), eq((Type)Map.class));
+
+        String firstCursor = sut.queryIndex(getCursorQueryRequest(null)).getCursor();
+        String secondCursor = sut.queryIndex(getCursorQueryRequest(null)).getCursor();
+        assertNotEquals(firstCursor, secondCursor);
+
+        assertEquals(firstCursor, sut.queryIndex(getCursorQueryRequest(firstCursor)).getCursor());
+        assertEquals(secondCursor, sut.queryIndex(getCursorQueryRequest(secondCursor)).getCursor());
+
+        ArgumentCaptor<SearchRequest> searchRequestArgumentCaptor = ArgumentCaptor.forClass(SearchRequest.class);
+        verify(client, times(4)).search(searchRequestArgumentCaptor.capture(), eq((Type)Map.class));
+        assertEquals("1", searchRequestArgumentCaptor.getAllValues().get(2).searchAfter().get(0).stringValue());
+        assertEquals("1", searchRequestArgumentCaptor.getAllValues().get(3).searchAfter().get(0).stringValue());
+        assertEquals(List.of("\"2\""), cursors.get(firstCursor).getFieldValueJsons());
+        assertEquals(List.of("\"2\""), cursors.get(secondCursor).getFieldValueJsons());
+        verify(client, times(1)).openPointInTime(any(OpenPointInTimeRequest.class));
+    }
+
+    private static CursorQueryRequest getCursorQueryRequest(String cursor) {
+        CursorQueryRequest cursorQueryRequest = new CursorQueryRequest();
+        cursorQueryRequest.setLimit(1);
+        cursorQueryRequest.setCursor(cursor);
+        return cursorQueryRequest;
+    }
+
+    private static SearchResponse<Map<String, Object>> getFirstPageResponse(List<Hit<Map<String, Object>>> hits, String pitId) {
+        return SearchResponse.of(r -> r.took(1).timedOut(false).pitId(pitId)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.total(t -> t.value(hits.size()).relation(TotalHitsRelation.Eq)).hits(hits)));
+    }
+
+    private static SearchConfigurationProperties getPointInTimeReuseProperties() {
+        SearchConfigurationProperties properties = new SearchConfigurationProperties();
+        properties.setSearchAfterPointInTimeReuseExpiration(10);
+        return properties;
+    }
+
+    private static SearchResponse<Map<String, Object>> getSearchResponse(List<Hit<Map<String, Object>>> hits) {
+        return SearchResponse.of(r -> r.took(1).timedOut(false)
+                .shards(s -> s.total(1).successful(1).failed(0))
+                .hits(h -> h.hits(hits)));
+    }
+
+    private static Hit<Map<String, Object>> getHit(String id) {
+        Map<String, Object> source = Map.of("id", id);
+        return Hit.of(h -> h.index(indexName).id(id).source(source).sort(FieldValue.of(id)));
+    }
+
     private Map<String, List<String>> getHighlightFields() {
         Map<String, List<String>> highlightFields = new HashMap<>();
         highlightFields.put(name, List.of(text));
@@ -18,16 +18,22 @@
 
 package org.opengroup.osdu.search.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.mapping.FieldMapping;
+import co.elastic.clients.elasticsearch._types.mapping.Property;
 import co.elastic.clients.elasticsearch.indices.ElasticsearchIndicesClient;
 import co.elastic.clients.elasticsearch.indices.GetFieldMappingRequest;
 import co.elastic.clients.elasticsearch.indices.GetFieldMappingResponse;
+import co.elastic.clients.elasticsearch.indices.get_field_mapping.TypeFieldMappings;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -69,4 +75,96 @@ public class FieldMappingTypeServiceTest {
     verify(indicesClient).getFieldMapping(requestCaptor.capture());
     assertTrue(Boolean.TRUE.equals(requestCaptor.getValue().ignoreUnavailable()));
   }
+
+  @Test
+  public void should_returnOnlyFieldsWithDocValuesInEveryIndex_when_gettingDocValueFields()
+      throws Exception {
+    when(dpsHeaders.getPartitionIdWithFallbackToAccountId()).thenReturn("tenant1");
+    when(restClient.indices()).thenReturn(indicesClient);
+    when(indicesClient.getFieldMapping(any(GetFieldMappingRequest.class)))
+        .thenReturn(mappingsResponse);
+    when(mappingsResponse.result())
+        .thenReturn(
+            Map.of(
+                "index1",
+                TypeFieldMappings.of(
+                    t ->
+                        t.mappings("id", getFieldMapping("id", Property.of(p -> p.keyword(k -> k))))
+                            .mappings(
+                                "data.Depth",
+                                getFieldMapping("Depth", Property.of(p -> p.long_(l -> l))))
+                            .mappings(
+                                "data.Name",
+                                getFieldMapping(
+                                    "Name", Property.of(p -> p.keyword(k -> k.docValues(false)))))),
+                "index2",
+                TypeFieldMappings.of(
+                    t ->
+                        t.mappings("id", getFieldMapping("id", Property.of(p -> p.keyword(k -> k))))
+                            .mappings(
+                                "data.Depth",
+                                getFieldMapping("Depth", Property.of(p -> p.text(x -> x)))))));
+
+    Map<String, String> docValueFields =
+        fieldMappingTypeService.getDocValueFields(
+            restClient, List.of("id", "data.Depth", "data.Name"), "index*");
+
+    assertEquals(Map.of("id", "keyword"), docValueFields);
+    verify(typeMappingCache).put("tenant1-doc-value-fields-index*-data.Depth,data.Name,id", docValueFields);
+  }
+
+  @Test
+  public void should_excludeFieldsWhoseDocValuesDifferFromSource_when_gettingDocValueFields()
+      throws Exception {
+    when(dpsHeaders.getPartitionIdWithFallbackToAccountId()).thenReturn("tenant1");
+    when(restClient.indices()).thenReturn(indicesClient);
+    when(indicesClient.getFieldMapping(any(GetFieldMappingRequest.class)))
+        .thenReturn(mappingsResponse);
+    when(mappingsResponse.result())
+        .thenReturn(
+            Map.of(
+                "index1",
+                TypeFieldMappings.of(
+                    t ->
+                        t.mappings("id", getFieldMapping("id", Property.of(p -> p.keyword(k -> k))))
+                            .mappings(
+                                "data.Name",
+                                getFieldMapping(
+                                    "Name", Property.of(p -> p.keyword(k -> k.ignoreAbove(256)))))
+                            .mappings(
+                                "data.Code",
+                                getFieldMapping(
+                                    "Code",
+                                    Property.of(p -> p.keyword(k -> k.normalizer("lowercase")))))
+                            .mappings(
+                                "data.Status",
+                                getFieldMapping(
+                                    "Status", Property.of(p -> p.keyword(k -> k.nullValue("NULL")))))
+                            .mappings(
+                                "data.Depth",
+                                getFieldMapping(
+                                    "Depth", Property.of(p -> p.long_(l -> l.nullValue(-1L)))))
+                            .mappings(
+                                "data.Count",
+                                getFieldMapping(
+                                    "Count",
+                                    Property.of(p -> p.integer(i -> i.ignoreMalformed(true)))))
+                            .mappings(
+                                "data.Top",
+                                getFieldMapping("Top", Property.of(p -> p.double_(d -> d)))))));
+
+    Map<String, String> docValueFields =
+        fieldMappingTypeService.getDocValueFields(
+            restClient,
+            List.of(
+                "id", "data.Name", "data.Code", "data.Status", "data.Depth", "data.Count",
+                "data.Top"),
+            "index*");
+
+    assertEquals(Map.of("id", "keyword", "data.Top", "double"), docValueFields);
+  }
+
+  private static FieldMapping getFieldMapping(String name, Property property) {
+    return FieldMapping.of(f -> f.fullName(name).mapping(name, property));
+  }
 }
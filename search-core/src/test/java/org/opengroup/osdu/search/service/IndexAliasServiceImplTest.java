@@ -24,6 +24,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -42,6 +43,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.search.ElasticIndexNameResolver;
+import org.opengroup.osdu.search.cache.IIndexAliasCache;
 import org.opengroup.osdu.search.cache.MultiPartitionIndexAliasCache;
 import org.opengroup.osdu.search.util.ElasticClientHandler;
 import org.springframework.context.annotation.Lazy;
@@ -65,6 +67,8 @@ public class IndexAliasServiceImplTest {
     @Mock
     private MultiPartitionIndexAliasCache indexAliasCache;
     @Mock
+    private IIndexAliasCache partitionsIndexAliasCache;
+    @Mock
     @Lazy
     private JaxRsDpsLog log;
     @InjectMocks
@@ -163,6 +167,24 @@ public class IndexAliasServiceImplTest {
         assertTrue(kindAliasMap.isEmpty());
     }
 
+    @Test
+    public void preloadIndicesAliases_cachesExistingAliasesOfPartition_withoutCreatingMissingOnes() throws IOException {
+        Map<String, IndexAliases> aliases = new HashMap<>();
+        aliases.put(INDEX, new IndexAliases.Builder().aliases(ALIAS, new AliasDefinition.Builder().build()).build());
+        when(elasticIndexNameResolver.isIndexAliasSupported(any())).thenReturn(true);
+        when(elasticIndexNameResolver.getIndexAliasFromKind(KIND)).thenReturn(ALIAS);
+        when(elasticIndexNameResolver.getIndexAliasFromKind(KIND_WITH_MAJOR)).thenReturn(ALIAS_FOR_KIND_WITH_MAJOR);
+        when(restHighLevelClient.indices()).thenReturn(indicesClient);
+        when(indicesClient.getAlias(any(GetAliasRequest.class))).thenReturn(getAliasesResponse);
+        when(getAliasesResponse.result()).thenReturn(aliases);
+
+        sut.preloadIndicesAliases("dp1", restHighLevelClient, Arrays.asList(KIND, KIND_WITH_MAJOR));
+
+        verify(partitionsIndexAliasCache).put("dp1-" + KIND, ALIAS);
+        verify(partitionsIndexAliasCache, times(1)).put(anyString(), anyString());
+        verify(indicesClient, never()).updateAliases(any(UpdateAliasesRequest.class));
+    }
+
     private void setup_when_alias_exist() throws IOException {
         Map<String, IndexAliases> aliases = new HashMap<>();
         AliasDefinition aliasDefinition = new AliasDefinition.Builder().build();
@@ -148,4 +148,13 @@ public class PolicyServiceImplTest {
         assertEquals(HttpStatus.SC_INTERNAL_SERVER_ERROR, exception.getError().getCode());
 
     }
+
+    @Test
+    public void should_reuseCompiledPolicy_whenAlreadyResolvedForRequest() {
+        when(userContext.getCompiledPolicy()).thenReturn("{\"bool\":{}}");
+
+        assertEquals("{\"bool\":{}}", sut.getCompiledPolicy());
+
+        Mockito.verifyNoInteractions(policyFactory);
+    }
 }
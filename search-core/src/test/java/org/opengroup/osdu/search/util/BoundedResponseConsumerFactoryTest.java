@@ -0,0 +1,64 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+public class BoundedResponseConsumerFactoryTest {
+
+    private static final String ELASTIC_RESPONSE = """
+            {
+              "pit_id": "pitId",
+              "took": 3,
+              "timed_out": false,
+              "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+              "hits": {
+                "total": {"value": 3, "relation": "eq"},
+                "max_score": null,
+                "hits": [
+                  {"_index": "index", "_id": "1", "_source": {"id": "1", "data": {"name": "A"}}, "sort": [1]},
+                  {"_index": "index", "_id": "2", "_source": {"id": "2", "data": {"name": "B"}}, "sort": [2]},
+                  {"_index": "index", "_id": "3", "_source": {"id": "3", "data": {"name": "C"}}, "sort": [3]}
+                ]
+              }
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void should_keepCompleteHits_whenBodyEndsWithinHit() throws Exception {
+        byte[] body = ELASTIC_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        byte[] truncated = Arrays.copyOf(body, ELASTIC_RESPONSE.indexOf("\"B\""));
+
+        JsonNode response = objectMapper.readTree(BoundedResponseConsumerFactory.completeAfterLastHit(truncated));
+
+        assertEquals("pitId", response.get("pit_id").asText());
+        assertEquals(3, response.path("hits").path("total").path("value").asLong());
+        assertEquals(1, response.path("hits").path("hits").size());
+        assertEquals(1, response.path("hits").path("hits").get(0).path("sort").get(0).asLong());
+    }
+
+    @Test
+    public void should_keepAllHits_whenBodyEndsAfterHits() throws Exception {
+        byte[] body = ELASTIC_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        byte[] truncated = Arrays.copyOf(body, ELASTIC_RESPONSE.lastIndexOf("]"));
+
+        JsonNode response = objectMapper.readTree(BoundedResponseConsumerFactory.completeAfterLastHit(truncated));
+
+        assertEquals(3, response.path("hits").path("hits").size());
+    }
+
+    @Test
+    public void should_returnNull_whenNoHitIsComplete() throws Exception {
+        byte[] body = ELASTIC_RESPONSE.getBytes(StandardCharsets.UTF_8);
+        byte[] truncated = Arrays.copyOf(body, ELASTIC_RESPONSE.indexOf("\"A\""));
+
+        assertNull(BoundedResponseConsumerFactory.completeAfterLastHit(truncated));
+    }
+}
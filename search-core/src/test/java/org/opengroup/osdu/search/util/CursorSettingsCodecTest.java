@@ -0,0 +1,67 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.model.search.CursorSettings;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+
+public class CursorSettingsCodecTest {
+
+    private static final String PIT_ID = Base64.getUrlEncoder().encodeToString(new byte[] {-5, 0, 17, 42, 99, -128, 7});
+
+    private final SearchAfterSettings settings = SearchAfterSettings.builder()
+            .pitId(PIT_ID)
+            .userId("user@tenant1.com")
+            .sortOptionsJsons(List.of("{\"_score\":{\"order\":\"desc\"}}"))
+            .fieldValueJsons(List.of("1.5", "\"tenant1:well:1\""))
+            .closed(true)
+            .totalCount(42L)
+            .build();
+
+    @Test
+    public void should_decodeEncodedSearchAfterSettings() {
+        assertEquals(settings, CursorSettingsCodec.toSearchAfterSettings(CursorSettingsCodec.toBytes(settings)));
+        assertEquals(settings, CursorSettingsCodec.decodeSearchAfterSettings(CursorSettingsCodec.encode(settings)));
+    }
+
+    @Test
+    public void should_keepIds_whenNotBase64() {
+        CursorSettings scroll = CursorSettings.builder().cursor("scroll id+/").userId("user@tenant1.com").build();
+        SearchAfterSettings withoutPit = SearchAfterSettings.builder().pitId(null).userId(null).build();
+
+        assertEquals(scroll, CursorSettingsCodec.decodeCursorSettings(CursorSettingsCodec.encode(scroll)));
+        SearchAfterSettings decoded = CursorSettingsCodec.toSearchAfterSettings(CursorSettingsCodec.toBytes(withoutPit));
+        assertNull(decoded.getPitId());
+        assertNull(decoded.getUserId());
+        assertTrue(decoded.getFieldValueJsons().isEmpty());
+    }
+
+    @Test
+    public void should_storeBase64Ids_asTheirBytes() {
+        byte[] bytes = CursorSettingsCodec.toBytes(settings);
+
+        assertTrue(bytes.length < PIT_ID.length() + settings.getUserId().length()
+                + String.join("", settings.getSortOptionsJsons()).length()
+                + String.join("", settings.getFieldValueJsons()).length());
+        assertTrue(!new String(bytes, StandardCharsets.ISO_8859_1).contains(PIT_ID));
+    }
+
+    @Test
+    public void should_returnNull_whenVersionKindOrContentIsUnknown() {
+        byte[] bytes = CursorSettingsCodec.toBytes(settings);
+        byte[] otherVersion = bytes.clone();
+        otherVersion[0] = 2;
+
+        assertNull(CursorSettingsCodec.toSearchAfterSettings(otherVersion));
+        assertNull(CursorSettingsCodec.toCursorSettings(bytes));
+        assertNull(CursorSettingsCodec.toSearchAfterSettings(Arrays.copyOf(bytes, bytes.length - 3)));
+        assertNull(CursorSettingsCodec.decodeSearchAfterSettings("{\"pitId\":\"pitId\"}"));
+    }
+}
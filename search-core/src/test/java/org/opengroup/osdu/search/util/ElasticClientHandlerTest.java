@@ -19,14 +19,29 @@
 package org.opengroup.osdu.search.util;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.nio.reactor.ConnectingIOReactor;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.HttpHost;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
@@ -34,9 +49,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
 import org.opengroup.osdu.core.common.model.http.AppException;
@@ -44,7 +61,9 @@ import org.opengroup.osdu.core.common.model.indexer.IElasticSettingService;
 import org.opengroup.osdu.core.common.model.search.ClusterSettings;
 import org.opengroup.osdu.core.common.model.tenant.TenantInfo;
 import org.opengroup.osdu.search.cache.ElasticsearchClientCache;
+import org.opengroup.osdu.search.config.ElasticConnectionPool;
 import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 public class ElasticClientHandlerTest {
@@ -66,6 +85,13 @@ public class ElasticClientHandlerTest {
   private TenantInfo tenantInfo;
   @Mock
   private SearchConfigurationProperties properties;
+  @Mock
+  private ElasticIOReactor ioReactor;
+  @Mock
+  private ConnectingIOReactor sharedReactor;
+
+  @Spy
+  private JacksonJsonpMapper elasticJsonpMapper = new JacksonJsonpMapper();
 
   @InjectMocks
   private ElasticClientHandler elasticClientHandler;
@@ -76,10 +102,10 @@ public class ElasticClientHandlerTest {
     mockedRestClients = mockStatic(RestClient.class);
 
     elasticClientHandler.setSecurityHttpsCertificateTrust(SECURITY_HTTPS_CERTIFICATE_TRUST);
-    when(tenantInfo.getDataPartitionId()).thenReturn("dp1");
+    lenient().when(tenantInfo.getDataPartitionId()).thenReturn("dp1");
 
     // Mock the cache to call the lambda function when computeIfAbsent is invoked
-    when(clientCache.computeIfAbsent(eq("dp1"), any())).thenAnswer(invocation -> {
+    lenient().when(clientCache.computeIfAbsent(eq("dp1"), any())).thenAnswer(invocation -> {
       String partitionId = invocation.getArgument(0);
       java.util.function.Function<String, ElasticsearchClient> supplier = invocation.getArgument(1);
       return supplier.apply(partitionId);
@@ -112,4 +138,136 @@ public class ElasticClientHandlerTest {
       this.elasticClientHandler.getOrCreateRestClient();
     });
   }
+
+  @Test
+  public void createConnectionManager_appliesPartitionPool_onSharedReactor() throws Exception {
+    ElasticConnectionPool pool = new ElasticConnectionPool();
+    pool.setMaxConnTotal(40);
+    pool.setMaxConnPerRoute(20);
+    pool.setConnectionRequestTimeout(500);
+    when(properties.getElasticConnectionPool("dp1")).thenReturn(pool);
+    when(ioReactor.get()).thenReturn(sharedReactor);
+
+    PoolingNHttpClientConnectionManager connectionManager =
+        elasticClientHandler.createConnectionManager("dp1", null, null);
+
+    assertEquals(40, connectionManager.getMaxTotal());
+    assertEquals(20, connectionManager.getDefaultMaxPerRoute());
+  }
+
+  @Test
+  public void getOrCreateRestClient_sharesTransportOfSameEndpoint_withPartitionCredentials() throws Exception {
+    when(clientCache.computeIfAbsent(eq("dp2"), any())).thenAnswer(invocation -> {
+      java.util.function.Function<String, ElasticsearchClient> supplier = invocation.getArgument(1);
+      return supplier.apply(invocation.getArgument(0));
+    });
+    when(elasticSettingService.getElasticClusterInformation())
+        .thenReturn(new ClusterSettings("H", 1, "U1:P1"), new ClusterSettings("H", 1, "U2:P2"));
+    when(RestClient.builder(new HttpHost("H", 1, "https"))).thenAnswer(invocation -> builder);
+    when(builder.build()).thenReturn(restClient);
+
+    ElasticsearchClient first = elasticClientHandler.getOrCreateRestClient("dp1");
+    ElasticsearchClient second = elasticClientHandler.getOrCreateRestClient("dp2");
+
+    assertSame(first._transport(), second._transport());
+    assertEquals("Basic " + Base64.getEncoder().encodeToString("U1:P1".getBytes()), getAuthorization(first));
+    assertEquals("Basic " + Base64.getEncoder().encodeToString("U2:P2".getBytes()), getAuthorization(second));
+    first._transport().close();
+    verify(restClient, never()).close();
+    second._transport().close();
+    verify(restClient).close();
+  }
+
+  @Test
+  public void refreshClients_keepsClientOfUnchangedCluster_andReplacesClientOfChangedCredentials() throws Exception {
+    when(elasticSettingService.getElasticClusterInformation()).thenReturn(new ClusterSettings("H", 1, "U1:P1"));
+    when(RestClient.builder(new HttpHost("H", 1, "https"))).thenAnswer(invocation -> builder);
+    when(builder.build()).thenReturn(restClient);
+    ElasticsearchClient current = elasticClientHandler.getOrCreateRestClient("dp1");
+    when(clientCache.getPartitionIds()).thenReturn(Set.of("dp1"));
+    when(clientCache.get("dp1")).thenReturn(current);
+    when(clientCache.replace(eq("dp1"), eq(current), any())).thenReturn(true);
+    when(elasticSettingService.getAllClustersSettings())
+        .thenReturn(Map.of("dp1", new ClusterSettings("H", 1, "U1:P1")), Map.of("dp1", new ClusterSettings("H", 1, "U2:P2")));
+
+    elasticClientHandler.refreshClients();
+    verify(clientCache).replace("dp1", current, current);
+
+    elasticClientHandler.refreshClients();
+    ArgumentCaptor<ElasticsearchClient> replacement = ArgumentCaptor.forClass(ElasticsearchClient.class);
+    verify(clientCache, times(2)).replace(eq("dp1"), eq(current), replacement.capture());
+    ElasticsearchClient refreshed = replacement.getValue();
+    assertNotSame(current, refreshed);
+    assertSame(current._transport(), refreshed._transport());
+    assertEquals("Basic " + Base64.getEncoder().encodeToString("U2:P2".getBytes()), getAuthorization(refreshed));
+    verify(restClient, never()).close();
+  }
+
+  @Test
+  public void registerPoolGauges_publishesPoolStatsOfEndpoint() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    ReflectionTestUtils.setField(elasticClientHandler, "meterRegistry", meterRegistry);
+    PoolingNHttpClientConnectionManager connectionManager = mock(PoolingNHttpClientConnectionManager.class);
+    when(connectionManager.getTotalStats()).thenReturn(new PoolStats(3, 1, 2, 40));
+
+    elasticClientHandler.registerPoolGauges("https://h:1/tls=true", connectionManager);
+
+    assertEquals(3, meterRegistry.get("search.elastic.pool.connections")
+        .tags("endpoint", "https://h:1/tls=true", "state", "leased").gauge().value());
+    assertEquals(1, meterRegistry.get("search.elastic.pool.connections")
+        .tags("endpoint", "https://h:1/tls=true", "state", "pending").gauge().value());
+    assertEquals(2, meterRegistry.get("search.elastic.pool.connections")
+        .tags("endpoint", "https://h:1/tls=true", "state", "available").gauge().value());
+  }
+
+  @Test
+  public void getOrCreateRestClient_doesNotShareTransport_whenPoolSettingsDiffer() throws Exception {
+    when(clientCache.computeIfAbsent(eq("dp2"), any())).thenAnswer(invocation -> {
+      java.util.function.Function<String, ElasticsearchClient> supplier = invocation.getArgument(1);
+      return supplier.apply(invocation.getArgument(0));
+    });
+    ElasticConnectionPool smallPool = new ElasticConnectionPool();
+    smallPool.setMaxConnTotal(10);
+    ElasticConnectionPool largePool = new ElasticConnectionPool();
+    largePool.setMaxConnTotal(200);
+    when(properties.getElasticConnectionPool("dp1")).thenReturn(smallPool);
+    when(properties.getElasticConnectionPool("dp2")).thenReturn(largePool);
+    when(elasticSettingService.getElasticClusterInformation()).thenReturn(new ClusterSettings("H", 1, "U:P"));
+    when(RestClient.builder(new HttpHost("H", 1, "https"))).thenAnswer(invocation -> builder);
+    when(builder.build()).thenReturn(restClient);
+
+    ElasticsearchClient first = elasticClientHandler.getOrCreateRestClient("dp1");
+    ElasticsearchClient second = elasticClientHandler.getOrCreateRestClient("dp2");
+
+    assertNotSame(first._transport(), second._transport());
+  }
+
+  @Test
+  public void getTransportKey_includesPoolSettings() {
+    ElasticConnectionPool pool = new ElasticConnectionPool();
+    pool.setMaxConnTotal(40);
+    pool.setMaxConnPerRoute(20);
+    pool.setConnectionRequestTimeout(500);
+
+    assertEquals("https://h:1/tls=true/pool=40,20,500",
+        ElasticClientHandler.getTransportKey(" H ", 1, "https", "true", pool));
+    assertEquals("https://h:1/tls=true", ElasticClientHandler.getTransportKey("H", 1, "https", "true", null));
+  }
+
+  @Test
+  public void parseHosts_supportsSeveralNodesWithOptionalPorts() {
+    HttpHost[] hosts = ElasticClientHandler.parseHosts("node1, node2:9201,", 9200, "https");
+
+    assertEquals(2, hosts.length);
+    assertEquals(new HttpHost("node1", 9200, "https"), hosts[0]);
+    assertEquals(new HttpHost("node2", 9201, "https"), hosts[1]);
+  }
+
+  private static String getAuthorization(ElasticsearchClient client) {
+    return client._transportOptions().headers().stream()
+        .filter(header -> "Authorization".equals(header.getKey()))
+        .map(Map.Entry::getValue)
+        .findFirst()
+        .orElse(null);
+  }
 }
@@ -0,0 +1,58 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.elasticsearch.client.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ElasticNodeBalancerTest {
+
+    private final HttpHost busy = new HttpHost("node1", 9200, "https");
+    private final HttpHost idle = new HttpHost("node2", 9200, "https");
+    private final HttpHost unused = new HttpHost("node3", 9200, "https");
+
+    private PoolingNHttpClientConnectionManager connectionManager;
+    private ElasticNodeBalancer sut;
+
+    @BeforeEach
+    public void setup() {
+        connectionManager = mock(PoolingNHttpClientConnectionManager.class);
+        sut = new ElasticNodeBalancer(null);
+        sut.instrument(HttpAsyncClientBuilder.create(), connectionManager);
+    }
+
+    @Test
+    public void should_selectNodesWithFewestOutstandingRequests() {
+        HttpRoute busyRoute = new HttpRoute(busy);
+        HttpRoute idleRoute = new HttpRoute(idle);
+        when(connectionManager.getRoutes()).thenReturn(Set.of(busyRoute, idleRoute));
+        when(connectionManager.getStats(busyRoute)).thenReturn(new PoolStats(3, 1, 0, 100));
+        when(connectionManager.getStats(idleRoute)).thenReturn(new PoolStats(0, 0, 2, 100));
+        List<Node> nodes = new ArrayList<>(List.of(new Node(busy), new Node(idle), new Node(unused)));
+
+        sut.select(nodes);
+
+        assertEquals(List.of(idle, unused), nodes.stream().map(Node::getHost).toList());
+    }
+
+    @Test
+    public void should_keepAllNodes_whenEquallyLoaded() {
+        when(connectionManager.getRoutes()).thenReturn(Set.of());
+        List<Node> nodes = new ArrayList<>(List.of(new Node(busy), new Node(idle)));
+
+        sut.select(nodes);
+
+        assertEquals(2, nodes.size());
+    }
+}
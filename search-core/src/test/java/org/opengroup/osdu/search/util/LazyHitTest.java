@@ -0,0 +1,80 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+public class LazyHitTest {
+
+    private static final String SOURCE =
+            "{\"id\":\"tenant1:well:1\",\"kind\":\"tenant1:wks:well:1.0.0\",\"data\":{\"Name\":\"Well 1\",\"Depth\":[12.5,30]}}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void should_writeSourceUnchanged_when_hitWasNotRead() throws Exception {
+        LazyHit hit = objectMapper.readValue(SOURCE, LazyHit.class);
+
+        assertEquals(SOURCE, objectMapper.writeValueAsString(hit));
+        assertFalse(hit.isDecoded());
+    }
+
+    @Test
+    public void should_decodeOnlyRequestedField_and_keepItOnFullDecode() throws Exception {
+        LazyHit hit = objectMapper.readValue(SOURCE, LazyHit.class);
+
+        Map<String, Object> data = (Map<String, Object>) hit.get("data");
+        data.put("Name", "Renamed");
+
+        assertTrue(hit.isDecoded());
+        assertEquals("tenant1:well:1", hit.get("id"));
+        assertEquals(3, hit.size());
+        assertSame(data, hit.get("data"));
+        assertEquals("Renamed", ((Map<String, Object>) objectMapper.readValue(
+                objectMapper.writeValueAsString(hit), Map.class).get("data")).get("Name"));
+    }
+
+    @Test
+    public void should_behaveAsMap_when_modified() throws Exception {
+        LazyHit hit = objectMapper.readValue(SOURCE, LazyHit.class);
+
+        hit.put("highlight", Map.of());
+        hit.remove("kind");
+
+        assertEquals(objectMapper.readValue(
+                "{\"id\":\"tenant1:well:1\",\"data\":{\"Name\":\"Well 1\",\"Depth\":[12.5,30]},\"highlight\":{}}",
+                Map.class), hit);
+    }
+
+    @Test
+    public void should_decodeWithMapperThatReadTheHit() throws Exception {
+        ObjectMapper bigDecimalMapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        LazyHit hit = bigDecimalMapper.readValue(SOURCE, LazyHit.class);
+
+        Map<String, Object> data = (Map<String, Object>) hit.get("data");
+
+        assertEquals(new BigDecimal("12.5"), ((List<Object>) data.get("Depth")).get(0));
+    }
+
+    @Test
+    public void should_fail_when_hitHasNoMapper() throws Exception {
+        TokenBuffer source = new TokenBuffer((ObjectCodec) null, false);
+        source.writeStartObject();
+        source.writeStringField("id", "tenant1:well:1");
+        source.writeEndObject();
+        LazyHit hit = new LazyHit(source);
+
+        assertThrows(IllegalStateException.class, () -> hit.get("id"));
+    }
+}
@@ -0,0 +1,107 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.search.config.SearchIsolationConfig;
+
+public class PartitionIsolationTest {
+
+    private SearchIsolationConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionIsolation sut;
+
+    @BeforeEach
+    public void setup() {
+        config = new SearchIsolationConfig();
+        config.setEnabled(true);
+        config.setMaxConcurrentCalls(1);
+        config.setMaxQueuedCalls(0);
+        config.setSlidingWindowSize(4);
+        config.setMinimumCalls(4);
+        config.setOpenDuration(50L);
+        config.setHalfOpenCalls(1);
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new PartitionIsolation(config, meterRegistry);
+    }
+
+    @Test
+    public void should_openCircuit_andFailFast_whenTooManyCallsFailed() throws Exception {
+        sut.execute("dp1", () -> "ok");
+        sut.execute("dp1", () -> "ok");
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IOException.class, () -> sut.execute("dp1", () -> { throw new IOException("connection reset"); }));
+        }
+
+        ElasticCallRejectedException rejected =
+                assertThrows(ElasticCallRejectedException.class, () -> sut.execute("dp1", () -> "ok"));
+
+        assertEquals(503, rejected.getError().getCode());
+        assertTrue(rejected.getRetryAfterSeconds() >= 1);
+        assertEquals(PartitionIsolation.State.OPEN, sut.getState("dp1"));
+        assertEquals(2, meterRegistry.get("search.elastic.circuit.state").tag("partition", "dp1").gauge().value());
+        assertEquals(PartitionIsolation.State.CLOSED, sut.getState("dp2"));
+        assertEquals("ok", sut.execute("dp2", () -> "ok"));
+    }
+
+    @Test
+    public void should_closeCircuit_whenTrialCallSucceeds() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(AppException.class, () -> sut.execute("dp1", () -> { throw new AppException(500, "Search error", "failed"); }));
+        }
+        assertEquals(PartitionIsolation.State.OPEN, sut.getState("dp1"));
+
+        Thread.sleep(60);
+
+        assertEquals("ok", sut.execute("dp1", () -> "ok"));
+        assertEquals(PartitionIsolation.State.CLOSED, sut.getState("dp1"));
+    }
+
+    @Test
+    public void should_notCountClientErrors_asFailures() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            assertThrows(AppException.class, () -> sut.execute("dp1", () -> { throw new AppException(400, "Bad Request", "invalid query"); }));
+        }
+
+        assertEquals(PartitionIsolation.State.CLOSED, sut.getState("dp1"));
+    }
+
+    @Test
+    public void should_rejectCalls_whileBulkheadIsFull() throws Exception {
+        CompletableFuture<String> running = new CompletableFuture<>();
+        assertSame(running, sut.executeAsync("dp1", () -> running));
+
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> sut.executeAsync("dp1", () -> CompletableFuture.completedFuture("ok")).get());
+        assertTrue(rejected.getCause() instanceof ElasticCallRejectedException);
+        assertEquals(1, meterRegistry.get("search.elastic.calls.rejected")
+                .tags("partition", "dp1", "reason", "bulkhead_full").counter().count());
+
+        running.complete("done");
+        assertEquals("ok", sut.executeAsync("dp1", () -> CompletableFuture.completedFuture("ok")).get());
+    }
+
+    @Test
+    public void should_skipOptionalCalls_withoutQueueing_whileBulkheadIsFull() throws Exception {
+        config.setMaxQueuedCalls(1);
+        config.setMaxQueueWait(10_000L);
+        CompletableFuture<String> running = new CompletableFuture<>();
+        assertSame(running, sut.executeAsync("dp1", () -> running));
+
+        assertNull(sut.tryExecuteAsync("dp1", () -> CompletableFuture.completedFuture("ok")));
+        assertTrue(meterRegistry.find("search.elastic.calls.rejected").counters().isEmpty());
+
+        running.complete("done");
+        assertEquals("ok", sut.tryExecuteAsync("dp1", () -> CompletableFuture.completedFuture("ok")).get());
+    }
+}
@@ -0,0 +1,112 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class QueryResponseStreamWriterTest {
+
+    private static final String ELASTIC_RESPONSE = """
+            {
+              "took": 3,
+              "timed_out": false,
+              "_shards": {"total": 1, "successful": 1, "skipped": 0, "failed": 0},
+              "hits": {
+                "total": {"value": 2, "relation": "eq"},
+                "max_score": 1.0,
+                "hits": [
+                  {
+                    "_index": "tenant1-welldb-well-1.0.0",
+                    "_id": "tenant1:well:1",
+                    "_score": 1.0,
+                    "_source": {"id": "tenant1:well:1", "kind": "tenant1:welldb:well:1.0.0", "data": {"name": "A", "depth": [1, 2]}},
+                    "highlight": {"data.name": ["<em>A</em>"], "x-acl": ["data.viewers@tenant1"]}
+                  },
+                  {
+                    "_index": "tenant1-welldb-well-1.0.0",
+                    "_id": "tenant1:well:2",
+                    "_score": 0.5,
+                    "_source": {"id": "tenant1:well:2"}
+                  }
+                ]
+              },
+              "aggregations": {
+                "sterms#agg": {
+                  "doc_count_error_upper_bound": 0,
+                  "sum_other_doc_count": 0,
+                  "buckets": [{"key": "tenant1:welldb:well:1.0.0", "doc_count": 2}]
+                }
+              },
+              "suggest": {
+                "completion#autocomplete": [
+                  {"text": "wel", "offset": 0, "length": 3, "options": [{"text": "well-A"}]}
+                ]
+              }
+            }
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private QueryResponseStreamWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        writer = new QueryResponseStreamWriter(objectMapper);
+    }
+
+    @Test
+    public void should_writeSourceAndFilteredHighlight_forEachHit() throws IOException {
+        JsonNode response = write(ELASTIC_RESPONSE, true);
+
+        JsonNode results = response.get("results");
+        assertEquals(2, results.size());
+        assertEquals("tenant1:well:1", results.get(0).get("id").asText());
+        assertEquals(2, results.get(0).get("data").get("depth").size());
+        assertEquals("<em>A</em>", results.get(0).get("highlight").get("data.name").get(0).asText());
+        assertFalse(results.get(0).get("highlight").has("x-acl"));
+        assertFalse(results.get(1).has("highlight"));
+        assertFalse(results.get(0).has("_index"));
+    }
+
+    @Test
+    public void should_parseEnvelope_fromTypedKeys() throws IOException {
+        JsonNode response = write(ELASTIC_RESPONSE, true);
+
+        assertEquals(2, response.get("totalCount").asLong());
+        assertEquals(1, response.get("aggregations").size());
+        assertEquals("tenant1:welldb:well:1.0.0", response.get("aggregations").get(0).get("key").asText());
+        assertEquals(2, response.get("aggregations").get(0).get("count").asLong());
+        assertEquals("well-A", response.get("phraseSuggestions").get(0).asText());
+    }
+
+    @Test
+    public void should_skipPhraseSuggestions_whenNotRequested() throws IOException {
+        JsonNode response = write(ELASTIC_RESPONSE, false);
+
+        assertTrue(response.get("phraseSuggestions").isEmpty());
+    }
+
+    @Test
+    public void should_writeEmptyResults_whenNoHits() throws IOException {
+        JsonNode response = write("{\"took\":1,\"hits\":{\"total\":{\"value\":0,\"relation\":\"eq\"},\"hits\":[]}}", true);
+
+        assertTrue(response.get("results").isEmpty());
+        assertTrue(response.get("aggregations").isEmpty());
+        assertEquals(0, response.get("totalCount").asLong());
+    }
+
+    private JsonNode write(String elasticResponse, boolean includePhraseSuggestions) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(new ByteArrayInputStream(elasticResponse.getBytes(StandardCharsets.UTF_8)), out, includePhraseSuggestions);
+        return objectMapper.readTree(out.toByteArray());
+    }
+}
@@ -0,0 +1,89 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.logging.JaxRsDpsLog;
+import org.opengroup.osdu.core.common.model.http.DpsHeaders;
+import org.opengroup.osdu.search.config.AsyncQueryConfig;
+import org.opengroup.osdu.search.context.RequestDeadline;
+import org.opengroup.osdu.search.context.UserContext;
+import org.opengroup.osdu.search.logging.AuditLogger;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class RequestContextExecutorTest {
+
+    private RequestContextExecutor sut;
+
+    @BeforeEach
+    public void setup() {
+        AsyncQueryConfig config = new AsyncQueryConfig();
+        config.setPoolSize(1);
+        sut = new RequestContextExecutor(config, mock(DpsHeaders.class), mock(JaxRsDpsLog.class),
+            mock(UserContext.class), mock(RequestDeadline.class), mock(AuditLogger.class));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        sut.destroy();
+    }
+
+    @Test
+    public void should_bindRequestScopedBeans_withoutServletRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        Object headers = new Object();
+        request.setAttribute("scopedTarget.dpsHeaders", headers);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Executor executor = sut.forCurrentRequest();
+        RequestContextHolder.resetRequestAttributes();
+
+        CompletableFuture<RequestAttributes> attributes =
+            CompletableFuture.supplyAsync(RequestContextHolder::getRequestAttributes, executor);
+
+        RequestAttributes bound = attributes.get(5, TimeUnit.SECONDS);
+        assertFalse(bound instanceof ServletRequestAttributes);
+        assertSame(headers, bound.getAttribute("scopedTarget.dpsHeaders", RequestAttributes.SCOPE_REQUEST));
+        assertNull(bound.resolveReference(RequestAttributes.REFERENCE_REQUEST));
+    }
+
+    @Test
+    public void should_notRunDestructionCallbacks_whenTaskCompletes() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Executor executor = sut.forCurrentRequest();
+        RequestContextHolder.resetRequestAttributes();
+        AtomicBoolean destroyed = new AtomicBoolean();
+
+        CompletableFuture.runAsync(() -> RequestContextHolder.currentRequestAttributes()
+            .registerDestructionCallback("bean", () -> destroyed.set(true), RequestAttributes.SCOPE_REQUEST), executor)
+            .get(5, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> {}, executor).get(5, TimeUnit.SECONDS);
+
+        assertFalse(destroyed.get());
+    }
+
+    @Test
+    public void should_releaseRequest_afterTaskCompletes() throws Exception {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Executor executor = sut.forCurrentRequest();
+        RequestContextHolder.resetRequestAttributes();
+
+        CompletableFuture.runAsync(() -> {}, executor).get(5, TimeUnit.SECONDS);
+        CompletableFuture<RequestAttributes> attributes =
+            CompletableFuture.supplyAsync(RequestContextHolder::getRequestAttributes, sut.forCurrentRequest());
+
+        assertNull(attributes.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,93 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.search.config.SearchConfigurationProperties;
+import org.opengroup.osdu.search.model.SearchAfterSettings;
+
+public class SearchAfterCursorCodecTest {
+
+    private final SearchAfterSettings settings = SearchAfterSettings.builder()
+            .pitId("pitId")
+            .userId("user@tenant1.com")
+            .sortOptionsJsons(List.of("{\"_score\":{\"order\":\"desc\"}}"))
+            .fieldValueJsons(List.of("1.5", "\"tenant1:well:1\""))
+            .totalCount(42L)
+            .build();
+
+    private SearchAfterCursorCodec sut;
+
+    @BeforeEach
+    public void setup() {
+        sut = new SearchAfterCursorCodec(getProperties("secret"));
+    }
+
+    @Test
+    public void should_decodeEncodedSettings() {
+        String cursor = sut.encode(settings);
+
+        assertTrue(sut.isStatelessCursor(cursor));
+        assertFalse(cursor.contains("pitId"));
+        assertEquals(settings, sut.decode(cursor));
+    }
+
+    @Test
+    public void should_rejectCursor_whenAlteredOrIssuedUnderAnotherSecret() {
+        String cursor = sut.encode(settings);
+        char last = cursor.charAt(cursor.length() - 1);
+        String altered = cursor.substring(0, cursor.length() - 1) + (last == 'A' ? 'B' : 'A');
+
+        assertNull(sut.decode(altered));
+        assertNull(new SearchAfterCursorCodec(getProperties("other")).decode(cursor));
+        assertNotEquals(cursor, sut.encode(settings));
+    }
+
+    @Test
+    public void should_rejectCursor_whenOlderThanExpiration() {
+        AtomicLong now = new AtomicLong(1_000_000L);
+        SearchAfterCursorCodec codec = new SearchAfterCursorCodec(getProperties("secret"), now::get);
+        String cursor = codec.encode(settings);
+        String closedCursor = codec.encode(SearchAfterSettings.builder()
+                .userId("user@tenant1.com")
+                .closed(true)
+                .totalCount(42L)
+                .build());
+
+        now.addAndGet(3_600_000L);
+        assertEquals(settings, codec.decode(cursor));
+
+        now.incrementAndGet();
+        assertNull(codec.decode(cursor));
+        assertNull(codec.decode(closedCursor));
+    }
+
+    @Test
+    public void should_leaveCachedCursors_whenDisabled() {
+        SearchAfterCursorCodec disabled = new SearchAfterCursorCodec(new SearchConfigurationProperties());
+
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.isStatelessCursor(sut.encode(settings)));
+        assertFalse(sut.isStatelessCursor("9B1D8E3F6A0C4B2E8D7F5A1C3E9B0D2F"));
+    }
+
+    @Test
+    public void should_requireSecret_whenEnabled() {
+        assertThrows(IllegalStateException.class, () -> new SearchAfterCursorCodec(getProperties(null)));
+    }
+
+    private static SearchConfigurationProperties getProperties(String secret) {
+        SearchConfigurationProperties properties = new SearchConfigurationProperties();
+        properties.setSearchAfterStatelessCursorsEnabled(true);
+        properties.setSearchAfterCursorSecret(secret);
+        return properties;
+    }
+}
@@ -0,0 +1,143 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.core.common.model.http.AppException;
+
+public class SearchRequestCoalescerTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SearchRequestCoalescer sut;
+
+    @BeforeEach
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new SearchRequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    public void should_shareInFlightSearch_betweenIdenticalRequests() throws Exception {
+        SearchResponse<Map<String, Object>> response = mock(SearchResponse.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger searches = new AtomicInteger();
+
+        CompletableFuture<SearchResponse<Map<String, Object>>> leader = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+            searches.incrementAndGet();
+            started.countDown();
+            await(release);
+            return response;
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<SearchResponse<Map<String, Object>>> follower = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+            searches.incrementAndGet();
+            return mock(SearchResponse.class);
+        }));
+        while (meterRegistry.counter("search.coalescing.requests", "role", "follower").count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(response, leader.get(5, TimeUnit.SECONDS));
+        assertSame(response, follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, searches.get());
+        assertEquals(1, meterRegistry.counter("search.coalescing.requests", "role", "leader").count());
+    }
+
+    @Test
+    public void should_searchAgain_afterPreviousSearchCompleted() throws IOException {
+        SearchResponse<Map<String, Object>> first = mock(SearchResponse.class);
+        SearchResponse<Map<String, Object>> second = mock(SearchResponse.class);
+
+        assertSame(first, sut.execute("key", TIMEOUT_MILLIS, () -> first));
+        assertSame(second, sut.execute("key", TIMEOUT_MILLIS, () -> second));
+        assertEquals(2, meterRegistry.counter("search.coalescing.requests", "role", "leader").count());
+    }
+
+    @Test
+    public void should_rethrowLeaderFailure() {
+        IOException exception = new IOException("listener timeout");
+
+        IOException thrown = assertThrows(IOException.class, () -> sut.execute("key", TIMEOUT_MILLIS, () -> { throw exception; }));
+
+        assertSame(exception, thrown);
+    }
+
+    @Test
+    public void should_searchItself_whenLeaderOutlastsFollowerTimeout() throws Exception {
+        SearchResponse<Map<String, Object>> own = mock(SearchResponse.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<SearchResponse<Map<String, Object>>> leader = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+            started.countDown();
+            await(release);
+            return mock(SearchResponse.class);
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        SearchResponse<Map<String, Object>> follower = execute("key", 10, () -> own);
+        release.countDown();
+
+        assertSame(own, follower);
+        leader.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void should_searchItself_whenLeaderExceededItsDeadline() throws Exception {
+        SearchResponse<Map<String, Object>> own = mock(SearchResponse.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<SearchResponse<Map<String, Object>>> leader = CompletableFuture.supplyAsync(() -> execute("key", () -> {
+            started.countDown();
+            await(release);
+            throw new AppException(HttpServletResponse.SC_GATEWAY_TIMEOUT, "Search error", "Request deadline of 10ms exceeded");
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<SearchResponse<Map<String, Object>>> follower = CompletableFuture.supplyAsync(() -> execute("key", () -> own));
+        while (meterRegistry.counter("search.coalescing.requests", "role", "follower").count() < 1) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertSame(own, follower.get(5, TimeUnit.SECONDS));
+        assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+    }
+
+    private SearchResponse<Map<String, Object>> execute(String key, SearchCall search) {
+        return execute(key, TIMEOUT_MILLIS, search);
+    }
+
+    private SearchResponse<Map<String, Object>> execute(String key, long timeoutMillis, SearchCall search) {
+        try {
+            return sut.execute(key, timeoutMillis, search);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
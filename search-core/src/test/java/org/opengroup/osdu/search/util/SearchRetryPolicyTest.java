@@ -0,0 +1,206 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opengroup.osdu.search.config.SearchRetryConfig;
+
+public class SearchRetryPolicyTest {
+
+    private SearchRetryConfig config;
+    private SimpleMeterRegistry meterRegistry;
+    private SearchRetryPolicy sut;
+
+    @BeforeEach
+    public void setup() {
+        config = new SearchRetryConfig();
+        config.setEnabled(true);
+        config.setInitialBackoff(1L);
+        config.setMaxBackoff(2L);
+        config.setHedgeMinimumDelay(1L);
+        meterRegistry = new SimpleMeterRegistry();
+        sut = new SearchRetryPolicy(config, meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        sut.destroy();
+    }
+
+    @Test
+    public void should_retryRejectedSearch_untilItSucceeds() throws Exception {
+        SearchResponse<Map<String, Object>> response = mock(SearchResponse.class);
+        AtomicInteger attempts = new AtomicInteger();
+
+        SearchResponse<Map<String, Object>> result = sut.execute(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw rejection(429);
+            }
+            return response;
+        }, () -> Long.MAX_VALUE);
+
+        assertSame(response, result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, meterRegistry.counter("search.retry.attempts").count());
+    }
+
+    @Test
+    public void should_notRetry_whenErrorIsNotRetryable_orDeadlineTooClose() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ElasticsearchException.class, () -> sut.execute(() -> {
+            attempts.incrementAndGet();
+            throw rejection(400);
+        }, () -> Long.MAX_VALUE));
+        assertThrows(ElasticsearchException.class, () -> sut.execute(() -> {
+            attempts.incrementAndGet();
+            throw rejection(503);
+        }, () -> 0L));
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    public void should_stopRetrying_whenBudgetIsExhausted() {
+        config.setBudgetCapacity(1);
+        config.setBudgetRatio(0.0);
+        sut = new SearchRetryPolicy(config, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(ElasticsearchException.class, () -> sut.execute(() -> {
+            attempts.incrementAndGet();
+            throw rejection(503);
+        }, () -> Long.MAX_VALUE));
+
+        assertEquals(2, attempts.get());
+        assertEquals(1, meterRegistry.counter("search.retry.budget.exhausted").count());
+    }
+
+    @Test
+    public void should_keepBackoffWithinConfiguredBounds() {
+        config.setInitialBackoff(10L);
+        config.setMaxBackoff(40L);
+
+        for (int attempt = 1; attempt < 10; attempt++) {
+            long backoff = sut.getBackoffMillis(attempt);
+            assertTrue(backoff >= 0 && backoff <= Math.min(40L, 10L << (attempt - 1)));
+        }
+    }
+
+    @Test
+    public void should_hedgeSlowSearch_andCancelTheLoser() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            sut.recordLatency(1L);
+        }
+        List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+
+        Supplier<CompletableFuture<String>> search = () -> {
+            CompletableFuture<String> request = new CompletableFuture<>();
+            requests.add(request);
+            return request;
+        };
+
+        CompletableFuture<String> response = sut.hedge(search, search);
+        while (requests.size() < 2) {
+            Thread.onSpinWait();
+        }
+        requests.get(1).complete("hedged");
+
+        assertEquals("hedged", response.get(5, TimeUnit.SECONDS));
+        assertTrue(requests.get(0).isCancelled());
+        assertEquals(1, meterRegistry.counter("search.retry.hedges").count());
+    }
+
+    @Test
+    public void should_failHedgedSearch_whenHedgeCannotStart_andPrimaryFails() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            sut.recordLatency(1L);
+        }
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> response = sut.hedge(() -> {
+            calls.incrementAndGet();
+            return primary;
+        }, () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("no request bound");
+        });
+        while (calls.get() < 2) {
+            Thread.onSpinWait();
+        }
+        ElasticsearchException failure = rejection(503);
+        primary.completeExceptionally(failure);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+    }
+
+    @Test
+    public void should_skipHedge_whenPartitionHasNoSlotFree() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            sut.recordLatency(1L);
+        }
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        AtomicInteger hedgeAttempts = new AtomicInteger();
+
+        CompletableFuture<String> response = sut.hedge(() -> primary, () -> {
+            hedgeAttempts.incrementAndGet();
+            return null;
+        });
+        while (hedgeAttempts.get() < 1) {
+            Thread.onSpinWait();
+        }
+        primary.complete("primary");
+
+        assertEquals("primary", response.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.counter("search.retry.hedges").count());
+        assertEquals(1, meterRegistry.counter("search.retry.hedges.skipped").count());
+    }
+
+    @Test
+    public void should_failHedgedSearch_whenHedgeIsSkipped_andPrimaryFails() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            sut.recordLatency(1L);
+        }
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        AtomicInteger hedgeAttempts = new AtomicInteger();
+
+        CompletableFuture<String> response = sut.hedge(() -> primary, () -> {
+            hedgeAttempts.incrementAndGet();
+            return null;
+        });
+        while (hedgeAttempts.get() < 1) {
+            Thread.onSpinWait();
+        }
+        ElasticsearchException failure = rejection(503);
+        primary.completeExceptionally(failure);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> response.get(5, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+    }
+
+    private static ElasticsearchException rejection(int status) {
+        return new ElasticsearchException("search", ErrorResponse.of(e -> e
+                .status(status)
+                .error(c -> c.type("es_rejected_execution_exception").reason("rejected"))));
+    }
+}
@@ -0,0 +1,99 @@
+package org.opengroup.osdu.search.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.transport.endpoints.BooleanResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.opengroup.osdu.core.common.model.http.AppException;
+import org.opengroup.osdu.core.common.model.indexer.IElasticSettingService;
+import org.opengroup.osdu.core.common.model.search.ClusterSettings;
+import org.opengroup.osdu.search.config.SearchWarmUpConfig;
+import org.opengroup.osdu.search.service.IndexAliasService;
+
+@ExtendWith(MockitoExtension.class)
+public class SearchWarmUpTest {
+
+  @Mock
+  private IElasticSettingService elasticSettingService;
+  @Mock
+  private ElasticClientHandler elasticClientHandler;
+  @Mock
+  private IndexAliasService indexAliasService;
+
+  private final SearchWarmUpConfig config = new SearchWarmUpConfig();
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private SearchWarmUp sut;
+
+  @BeforeEach
+  public void setup() {
+    config.setKinds(List.of("osdu:wks:master-data--Well:1.0.0"));
+    sut = new SearchWarmUp(elasticSettingService, elasticClientHandler, indexAliasService, config, meterRegistry);
+  }
+
+  @Test
+  public void should_connectAllPartitions_andPreloadAliases_beforeCompleting() throws IOException {
+    ClusterSettings dp1Settings = new ClusterSettings("H1", 1, "U1:P1");
+    ClusterSettings dp2Settings = new ClusterSettings("H2", 1, "U2:P2");
+    ElasticsearchClient dp1Client = mock(ElasticsearchClient.class);
+    ElasticsearchClient dp2Client = mock(ElasticsearchClient.class);
+    when(elasticSettingService.getAllClustersSettings()).thenReturn(Map.of("dp1", dp1Settings, "dp2", dp2Settings));
+    when(elasticClientHandler.getOrCreateRestClient("dp1", dp1Settings)).thenReturn(dp1Client);
+    when(elasticClientHandler.getOrCreateRestClient("dp2", dp2Settings)).thenReturn(dp2Client);
+    when(dp1Client.ping()).thenReturn(new BooleanResponse(true));
+    when(dp2Client.ping()).thenThrow(new IOException("connection refused"));
+    assertFalse(sut.isComplete());
+
+    sut.run(null);
+
+    assertTrue(sut.isComplete());
+    verify(indexAliasService).preloadIndicesAliases("dp1", dp1Client, config.getKinds());
+    verify(indexAliasService, never()).preloadIndicesAliases("dp2", dp2Client, config.getKinds());
+    assertEquals(1, meterRegistry.get("search.warm-up.partitions").tag("result", "success").counter().count());
+    assertEquals(1, meterRegistry.get("search.warm-up.partitions").tag("result", "failure").counter().count());
+    assertEquals(0, meterRegistry.get("search.warm-up.remaining").gauge().value());
+    assertEquals(1, meterRegistry.get("search.warm-up.duration").timer().count());
+  }
+
+  @Test
+  public void should_recordFailure_whenPingIsNotAcknowledged() throws IOException {
+    ClusterSettings dp1Settings = new ClusterSettings("H1", 1, "U1:P1");
+    ElasticsearchClient dp1Client = mock(ElasticsearchClient.class);
+    when(elasticSettingService.getAllClustersSettings()).thenReturn(Map.of("dp1", dp1Settings));
+    when(elasticClientHandler.getOrCreateRestClient("dp1", dp1Settings)).thenReturn(dp1Client);
+    when(dp1Client.ping()).thenReturn(new BooleanResponse(false));
+
+    sut.run(null);
+
+    assertTrue(sut.isComplete());
+    verify(indexAliasService, never()).preloadIndicesAliases("dp1", dp1Client, config.getKinds());
+    assertEquals(1, meterRegistry.get("search.warm-up.partitions").tag("result", "failure").counter().count());
+    assertEquals(0, meterRegistry.get("search.warm-up.remaining").gauge().value());
+  }
+
+  @Test
+  public void should_complete_whenClusterSettingsCannotBeResolved() {
+    when(elasticSettingService.getAllClustersSettings()).thenThrow(new AppException(500, "Search error", "tenant service is unavailable"));
+
+    sut.run(null);
+
+    assertTrue(sut.isComplete());
+    verify(elasticClientHandler, never()).getOrCreateRestClient(anyString(), any(ClusterSettings.class));
+  }
+}